@@ -0,0 +1,203 @@
+package com.example.billing.benchmark;
+
+import com.example.billing.BillingApplication;
+import com.example.billing.dto.invoice.CreateInvoiceRequestDto;
+import com.example.billing.dto.invoice.InvoiceItemDto;
+import com.example.billing.dto.invoice.InvoiceResponseDto;
+import com.example.billing.dto.owner.OwnerResponseDto;
+import com.example.billing.entity.Invoice;
+import com.example.billing.enums.InvoiceStatus;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Deterministic sample data and the application bootstrap shared by the benchmarks.
+ */
+final class BenchmarkFixtures {
+    
+    private BenchmarkFixtures() {
+    }
+    
+    /**
+     * Starts the application without a web server against its own {@code schema}, created on first
+     * use, with logging, the PDF warm-up, cache and pre-rendering turned off. The properties are
+     * passed as command line arguments so they win over application.yml; {@code extraProperties}
+     * come last and override these defaults.
+     */
+    static ConfigurableApplicationContext startApplication(String schema, String... extraProperties) {
+        String[] defaults = {
+                "spring.datasource.hikari.schema=" + schema,
+                "spring.jpa.properties.hibernate.default_schema=" + schema,
+                "spring.jpa.properties.hibernate.hbm2ddl.create_namespaces=true",
+                "spring.jpa.show-sql=false",
+                "logging.level.com.example.billing=WARN",
+                "logging.level.org.springframework.web=WARN",
+                "app.pdf.warm-up=false",
+                "app.pdf.cache.enabled=false",
+                "app.pdf.prerender.enabled=false"
+        };
+        return new SpringApplicationBuilder(BillingApplication.class)
+                .web(WebApplicationType.NONE)
+                .initializers(context -> context.getBeanFactory().addBeanPostProcessor(new BeanPostProcessor() {
+                    @Override
+                    public Object postProcessAfterInitialization(Object bean, String beanName) {
+                        if (bean instanceof DataSource dataSource) {
+                            createInvoiceIdSequence(dataSource, schema);
+                        }
+                        return bean;
+                    }
+                }))
+                .run(Stream.concat(Arrays.stream(defaults), Arrays.stream(extraProperties))
+                        .map(property -> "--" + property)
+                        .toArray(String[]::new));
+    }
+    
+    // Hibernate looks existing sequences up by name only, so it does not create invoices_id_seq in a
+    // schema when another benchmark schema of the same database already has one
+    private static void createInvoiceIdSequence(DataSource dataSource, String schema) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE SCHEMA IF NOT EXISTS " + schema);
+        jdbcTemplate.execute("CREATE SEQUENCE IF NOT EXISTS " + schema + ".invoices_id_seq INCREMENT BY 50");
+    }
+    
+    static InvoiceResponseDto invoiceDto(long id, int lineItems) {
+        List<InvoiceResponseDto.InvoiceLineItemDto> items = new ArrayList<>(lineItems);
+        BigDecimal subtotal = BigDecimal.ZERO;
+        for (int i = 1; i <= lineItems; i++) {
+            BigDecimal unitPrice = BigDecimal.valueOf(100L + i, 2).multiply(BigDecimal.TEN);
+            BigDecimal lineTotal = unitPrice.multiply(BigDecimal.valueOf(3));
+            subtotal = subtotal.add(lineTotal);
+            items.add(InvoiceResponseDto.InvoiceLineItemDto.builder()
+                    .serialNumber(i)
+                    .productName("Product " + i)
+                    .description("SALES")
+                    .quantity(3)
+                    .unitPrice(unitPrice)
+                    .lineTotal(lineTotal)
+                    .isCustomProduct(true)
+                    .build());
+        }
+        BigDecimal gst = subtotal.multiply(new BigDecimal("0.09")).setScale(2, RoundingMode.HALF_UP);
+        
+        return InvoiceResponseDto.builder()
+                .id(id)
+                .invoiceNumber("INV-2024-" + id)
+                .customerName("Customer " + id)
+                .customerEmail("customer" + id + "@example.com")
+                .customerPhone("9876543210")
+                .customerAddress("12 Main Road, Chennai")
+                .invoiceDate(LocalDate.of(2024, 5, 10))
+                .dueDate(LocalDate.of(2024, 6, 10))
+                .status(InvoiceStatus.UNPAID)
+                .subtotalAmount(subtotal)
+                .gstApplicable(true)
+                .cgstRate(new BigDecimal("9.00"))
+                .sgstRate(new BigDecimal("9.00"))
+                .cgstAmount(gst)
+                .sgstAmount(gst)
+                .totalGstAmount(gst.add(gst))
+                .transportCharges(BigDecimal.ZERO)
+                .miscCharges(BigDecimal.ZERO)
+                .totalAmount(subtotal.add(gst).add(gst))
+                .createdAt(LocalDateTime.of(2024, 5, 10, 10, 0))
+                .lineItems(items)
+                .build();
+    }
+    
+    static Invoice invoiceEntity(long id, int lineItems) {
+        InvoiceResponseDto dto = invoiceDto(id, lineItems);
+        List<Invoice.InvoiceLineItem> items = new ArrayList<>(lineItems);
+        for (InvoiceResponseDto.InvoiceLineItemDto item : dto.getLineItems()) {
+            items.add(Invoice.InvoiceLineItem.builder()
+                    .serialNumber(item.getSerialNumber())
+                    .productName(item.getProductName())
+                    .description(item.getDescription())
+                    .quantity(item.getQuantity())
+                    .unitPrice(item.getUnitPrice())
+                    .lineTotal(item.getLineTotal())
+                    .isCustomProduct(true)
+                    .build());
+        }
+        return Invoice.builder()
+                .id(id)
+                .invoiceNumber(dto.getInvoiceNumber())
+                .customerName(dto.getCustomerName())
+                .customerEmail(dto.getCustomerEmail())
+                .customerPhone(dto.getCustomerPhone())
+                .customerAddress(dto.getCustomerAddress())
+                .invoiceDate(dto.getInvoiceDate())
+                .dueDate(dto.getDueDate())
+                .status(dto.getStatus())
+                .subtotalAmount(dto.getSubtotalAmount())
+                .gstApplicable(true)
+                .cgstRate(dto.getCgstRate())
+                .sgstRate(dto.getSgstRate())
+                .cgstAmount(dto.getCgstAmount())
+                .sgstAmount(dto.getSgstAmount())
+                .totalGstAmount(dto.getTotalGstAmount())
+                .transportCharges(BigDecimal.ZERO)
+                .miscCharges(BigDecimal.ZERO)
+                .totalAmount(dto.getTotalAmount())
+                .createdAt(dto.getCreatedAt())
+                .lineItems(items)
+                .build();
+    }
+    
+    static CreateInvoiceRequestDto createRequest(int lineItems, boolean catalogProducts) {
+        List<InvoiceItemDto> items = new ArrayList<>(lineItems);
+        for (int i = 1; i <= lineItems; i++) {
+            items.add(InvoiceItemDto.builder()
+                    .productId(catalogProducts ? (long) i : null)
+                    .productName("Product " + i)
+                    .description("SALES")
+                    .quantity(3)
+                    .unitPrice(BigDecimal.valueOf(100L + i, 2).multiply(BigDecimal.TEN))
+                    .isCustomProduct(!catalogProducts)
+                    .build());
+        }
+        return CreateInvoiceRequestDto.builder()
+                .customerName("Benchmark Customer")
+                .customerPhone("9876543210")
+                .invoiceDate(LocalDate.of(2024, 5, 10))
+                .dueDate(LocalDate.of(2024, 6, 10))
+                .gstApplicable(true)
+                .cgstRate(new BigDecimal("9.00"))
+                .sgstRate(new BigDecimal("9.00"))
+                .transportCharges(new BigDecimal("150.00"))
+                .items(items)
+                .build();
+    }
+    
+    static OwnerResponseDto owner() {
+        return OwnerResponseDto.builder()
+                .id(1L)
+                .businessName("Acme Traders")
+                .ownerName("Arun")
+                .addressLine1("1 Market Street")
+                .city("Chennai")
+                .state("Tamil Nadu")
+                .contactNumber("044-1234567")
+                .email("billing@acme.example")
+                .gstNumber("33ABCDE1234F1Z5")
+                .primaryBankName("State Bank")
+                .primaryAccountHolderName("Acme Traders")
+                .primaryAccountNumber("1234567890")
+                .primaryIfscCode("SBIN0001234")
+                .termsAndConditions("Goods once sold will not be taken back.")
+                .updatedAt(LocalDateTime.of(2024, 1, 1, 0, 0))
+                .build();
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.billing.benchmark;
+
+import com.example.billing.dto.invoice.CreateInvoiceBatchRequestDto;
+import com.example.billing.dto.invoice.CreateInvoiceRequestDto;
+import com.example.billing.service.InvoiceService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Creating {@value #INVOICES_PER_INVOCATION} invoices one {@code InvoiceService.createInvoice} call
+ * (and transaction) at a time ({@code single}) versus one {@code createInvoices} batch ({@code batch}),
+ * which takes the numbers in one counter update and inserts with JDBC batching. The score is the time
+ * per invoice. Each invoice has {@code lineItems} custom line items. Needs a database reachable
+ * through {@code DB_URL}, {@code DB_USERNAME} and {@code DB_PASSWORD}; rows go into a separate
+ * {@code billing_batch_benchmark} schema.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InvoiceBatchCreationBenchmark {
+    
+    private static final String SCHEMA = "billing_batch_benchmark";
+    private static final int INVOICES_PER_INVOCATION = 200;
+    
+    @Param({"single", "batch"})
+    private String path;
+    
+    @Param({"1", "10"})
+    private int lineItems;
+    
+    private ConfigurableApplicationContext context;
+    private InvoiceService invoiceService;
+    private CreateInvoiceRequestDto request;
+    private CreateInvoiceBatchRequestDto batchRequest;
+    
+    @Setup
+    public void setUp() {
+        context = BenchmarkFixtures.startApplication(SCHEMA);
+        invoiceService = context.getBean(InvoiceService.class);
+        context.getBean(JdbcTemplate.class).execute("TRUNCATE invoices, invoice_daily_rollups, invoice_rollup_deltas");
+        
+        request = BenchmarkFixtures.createRequest(lineItems, false);
+        batchRequest = CreateInvoiceBatchRequestDto.builder()
+                .invoices(Collections.nCopies(INVOICES_PER_INVOCATION, request))
+                .build();
+    }
+    
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+    
+    @Benchmark
+    @OperationsPerInvocation(INVOICES_PER_INVOCATION)
+    public void createInvoices(Blackhole blackhole) {
+        if ("batch".equals(path)) {
+            blackhole.consume(invoiceService.createInvoices(batchRequest));
+        } else {
+            for (int i = 0; i < INVOICES_PER_INVOCATION; i++) {
+                blackhole.consume(invoiceService.createInvoice(request));
+            }
+        }
+    }
+}
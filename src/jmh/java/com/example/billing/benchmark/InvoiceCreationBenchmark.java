@@ -0,0 +1,83 @@
+package com.example.billing.benchmark;
+
+import com.example.billing.dto.invoice.CreateInvoiceRequestDto;
+import com.example.billing.dto.invoice.InvoiceResponseDto;
+import com.example.billing.entity.Invoice;
+import com.example.billing.entity.Product;
+import com.example.billing.mapper.InvoiceMapperImpl;
+import com.example.billing.repository.InvoiceRepository;
+import com.example.billing.repository.ProductRepository;
+import com.example.billing.service.DateFilterResolver;
+import com.example.billing.service.IdempotencyKeyService;
+import com.example.billing.service.InvoiceCacheService;
+import com.example.billing.service.InvoiceLineItemAssembler;
+import com.example.billing.service.InvoiceNumberService;
+import com.example.billing.service.InvoiceService;
+import com.example.billing.service.PdfCacheService;
+import com.example.billing.service.RevenueRollupService;
+import jakarta.validation.Validator;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+
+/**
+ * Line-item and GST totals in {@link InvoiceService#createInvoice} with stubbed repositories,
+ * so only the in-memory calculation and mapping are measured. With {@code catalogProducts}
+ * the products of all line items are also resolved, in one stubbed lookup as against the database.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InvoiceCreationBenchmark {
+    
+    @Param({"1", "10", "100", "1000"})
+    private int lineItems;
+    
+    @Param({"false", "true"})
+    private boolean catalogProducts;
+    
+    private InvoiceService invoiceService;
+    private CreateInvoiceRequestDto request;
+    
+    @Setup
+    public void setUp() {
+        InvoiceRepository invoiceRepository = Mockito.mock(InvoiceRepository.class, Mockito.withSettings().stubOnly());
+        Mockito.when(invoiceRepository.save(any(Invoice.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        
+        ProductRepository productRepository = Mockito.mock(ProductRepository.class, Mockito.withSettings().stubOnly());
+        Mockito.when(productRepository.findAllById(anyIterable())).thenAnswer(invocation -> {
+            List<Product> products = new ArrayList<>();
+            for (Long id : invocation.<Iterable<Long>>getArgument(0)) {
+                products.add(Product.builder().id(id).name("Catalog product " + id).build());
+            }
+            return products;
+        });
+        
+        InvoiceNumberService invoiceNumberService = Mockito.mock(InvoiceNumberService.class, Mockito.withSettings().stubOnly());
+        Mockito.when(invoiceNumberService.generateInvoiceNumber(any(), any())).thenReturn("INV-2024-0001");
+        
+        PdfCacheService pdfCacheService = Mockito.mock(PdfCacheService.class, Mockito.withSettings().stubOnly());
+        
+        invoiceService = new InvoiceService(invoiceRepository, new InvoiceMapperImpl(),
+                new InvoiceLineItemAssembler(productRepository),
+                invoiceNumberService, pdfCacheService, new InvoiceCacheService(), event -> { }, new DateFilterResolver(),
+                Mockito.mock(RevenueRollupService.class, Mockito.withSettings().stubOnly()),
+                Mockito.mock(IdempotencyKeyService.class, Mockito.withSettings().stubOnly()),
+                Mockito.mock(Validator.class, Mockito.withSettings().stubOnly()));
+        request = BenchmarkFixtures.createRequest(lineItems, catalogProducts);
+    }
+    
+    @Benchmark
+    public InvoiceResponseDto createInvoice() {
+        return invoiceService.createInvoice(request);
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.billing.benchmark;
+
+import com.example.billing.dto.invoice.InvoiceResponseDto;
+import com.example.billing.entity.Invoice;
+import com.example.billing.mapper.InvoiceMapper;
+import com.example.billing.mapper.InvoiceMapperImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link InvoiceMapper#toResponseDtoList} as used by the invoice list endpoint.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InvoiceMappingBenchmark {
+    
+    @Param({"10", "100", "1000"})
+    private int invoiceCount;
+    
+    @Param({"5", "50"})
+    private int lineItemsPerInvoice;
+    
+    private final InvoiceMapper invoiceMapper = new InvoiceMapperImpl();
+    private List<Invoice> invoices;
+    
+    @Setup
+    public void setUp() {
+        invoices = new ArrayList<>(invoiceCount);
+        for (long id = 1; id <= invoiceCount; id++) {
+            invoices.add(BenchmarkFixtures.invoiceEntity(id, lineItemsPerInvoice));
+        }
+    }
+    
+    @Benchmark
+    public List<InvoiceResponseDto> toResponseDtoList() {
+        return invoiceMapper.toResponseDtoList(invoices);
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.billing.benchmark;
+
+import com.example.billing.dto.invoice.CreateInvoiceRequestDto;
+import com.example.billing.service.InvoiceNumberService;
+import com.example.billing.service.InvoiceService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Invoice number allocation under contention: the row lock held until commit ({@code locked})
+ * versus numbers handed out from reserved blocks ({@code block}), with 1 to 64 concurrent writers.
+ * Each invocation creates {@value #INVOICES_PER_INVOCATION} invoices split across the writers, each
+ * through {@code InvoiceService.createInvoice} with {@value #LINE_ITEMS} line items and its revenue
+ * rollup change, so the score is the time per invoice as the API sees it. Needs a database reachable
+ * through {@code DB_URL}, {@code DB_USERNAME} and {@code DB_PASSWORD}; rows go into a separate
+ * {@code billing_numbering_benchmark} schema.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InvoiceNumberingBenchmark {
+    
+    private static final String SCHEMA = "billing_numbering_benchmark";
+    private static final int INVOICES_PER_INVOCATION = 256;
+    private static final int LINE_ITEMS = 5;
+    
+    @Param({"locked", "block"})
+    private String allocation;
+    
+    @Param({"1", "4", "16", "64"})
+    private int writers;
+    
+    private ConfigurableApplicationContext context;
+    private InvoiceService invoiceService;
+    private CreateInvoiceRequestDto request;
+    private ExecutorService executor;
+    
+    @Setup
+    public void setUp() {
+        context = BenchmarkFixtures.startApplication(SCHEMA,
+                // One connection per writer plus one for reserving blocks
+                "spring.datasource.hikari.maximum-pool-size=" + (writers + 2),
+                "app.invoices.numbering.allocation=" + allocation);
+        invoiceService = context.getBean(InvoiceService.class);
+        context.getBean(JdbcTemplate.class).execute("TRUNCATE invoices, invoice_daily_rollups, invoice_rollup_deltas");
+        // Creates the counter row up front; writers racing to create it would fail on its unique key
+        context.getBean(InvoiceNumberService.class).resetSequence(0L);
+        request = BenchmarkFixtures.createRequest(LINE_ITEMS, false);
+        executor = Executors.newFixedThreadPool(writers, new CustomizableThreadFactory("writer-"));
+    }
+    
+    @TearDown
+    public void tearDown() {
+        executor.shutdownNow();
+        context.close();
+    }
+    
+    @Benchmark
+    @OperationsPerInvocation(INVOICES_PER_INVOCATION)
+    public void createInvoices() throws Exception {
+        int perWriter = INVOICES_PER_INVOCATION / writers;
+        List<Future<?>> results = new ArrayList<>(writers);
+        for (int i = 0; i < writers; i++) {
+            results.add(executor.submit(() -> {
+                for (int n = 0; n < perWriter; n++) {
+                    invoiceService.createInvoice(request);
+                }
+            }));
+        }
+        for (Future<?> result : results) {
+            result.get();
+        }
+    }
+}
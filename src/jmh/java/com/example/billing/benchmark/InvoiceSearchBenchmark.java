@@ -0,0 +1,98 @@
+package com.example.billing.benchmark;
+
+import com.example.billing.InvoiceSeeder;
+import com.example.billing.dto.invoice.InvoiceSearchResultDto;
+import com.example.billing.entity.Invoice;
+import com.example.billing.enums.InvoiceStatus;
+import com.example.billing.repository.InvoiceRepository;
+import com.example.billing.service.InvoiceService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Customer search against PostgreSQL: the trigram-indexed {@code InvoiceService.searchInvoices}
+ * versus the unindexed {@code findByCustomerNameContainingIgnoreCaseOrderByIdDesc} it replaces.
+ * Needs a database reachable through {@code DB_URL}, {@code DB_USERNAME} and {@code DB_PASSWORD};
+ * the invoices are seeded once into a separate {@code billing_search_benchmark} schema with
+ * realistic, repeating customer names so the fuzzy match is selective.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InvoiceSearchBenchmark {
+    
+    private static final String SCHEMA = "billing_search_benchmark";
+    private static final int SEEDED_INVOICES = 200_000;
+    private static final int SEARCH_RESULTS = 20;
+    private static final LocalDate INVOICE_DATE = LocalDate.of(2024, 5, 10);
+    
+    private static final List<String> FIRST_NAMES = List.of("Aarav", "Vivaan", "Aditya", "Arjun", "Sai", "Reyansh",
+            "Krishna", "Ishaan", "Ananya", "Diya", "Meera", "Saanvi", "Priya", "Kavya", "Lakshmi", "Ravi", "Suresh",
+            "Ramesh", "Deepa", "Anita");
+    private static final List<String> LAST_NAMES = List.of("Kumar", "Sharma", "Iyer", "Reddy", "Nair", "Patel",
+            "Gupta", "Singh", "Rao", "Menon", "Pillai", "Joshi", "Das", "Bose", "Verma", "Mehta", "Shah", "Naidu",
+            "Chopra", "Kapoor", "Banerjee", "Mishra", "Pandey", "Krishnan", "Subramanian");
+    
+    private ConfigurableApplicationContext context;
+    private InvoiceService invoiceService;
+    private InvoiceRepository invoiceRepository;
+    
+    @Setup
+    public void setUp() {
+        // pg_trgm may already be installed in public, so keep it on the search path
+        context = BenchmarkFixtures.startApplication(SCHEMA,
+                "spring.datasource.hikari.connection-init-sql=SET search_path TO " + SCHEMA + ", public");
+        invoiceService = context.getBean(InvoiceService.class);
+        invoiceRepository = context.getBean(InvoiceRepository.class);
+        
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        // Line items are irrelevant to search
+        InvoiceSeeder.seed(jdbcTemplate, SEEDED_INVOICES, id -> Invoice.builder()
+                .invoiceNumber("BENCH-" + id)
+                .customerName(FIRST_NAMES.get((int) (id % FIRST_NAMES.size())) + " "
+                        + LAST_NAMES.get((int) (id / FIRST_NAMES.size() % LAST_NAMES.size())))
+                .customerPhone(String.format("98%08d", id * 7919L % 100_000_000))
+                .invoiceDate(INVOICE_DATE)
+                .dueDate(INVOICE_DATE.plusDays(30))
+                .status(InvoiceStatus.PAID)
+                .gstApplicable(false)
+                .subtotalAmount(new BigDecimal("1000.00"))
+                .totalAmount(new BigDecimal("1180.00"))
+                .build());
+        new ResourceDatabasePopulator(new ClassPathResource("db/migration/V7__add_invoice_search_trigram_index.sql"))
+                .execute(context.getBean(DataSource.class));
+        jdbcTemplate.execute("ANALYZE invoices");
+    }
+    
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+    
+    @Benchmark
+    public List<InvoiceSearchResultDto> trigramSearch() {
+        return invoiceService.searchInvoices("meera iyer", SEARCH_RESULTS);
+    }
+    
+    @Benchmark
+    public List<InvoiceSearchResultDto> trigramSearchWithTypo() {
+        return invoiceService.searchInvoices("mera iyer", SEARCH_RESULTS);
+    }
+    
+    @Benchmark
+    public List<Invoice> containsIgnoreCase() {
+        return invoiceRepository.findByCustomerNameContainingIgnoreCaseOrderByIdDesc("meera iyer");
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.billing.benchmark;
+
+import com.example.billing.InvoiceSeeder;
+import com.example.billing.dto.invoice.InvoiceFilterDto;
+import com.example.billing.dto.invoice.InvoicePageResponseDto;
+import com.example.billing.dto.invoice.InvoiceSummaryPageResponseDto;
+import com.example.billing.entity.Invoice;
+import com.example.billing.service.InvoiceService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Invoice list reads against PostgreSQL: full entities mapped to {@code InvoiceResponseDto}
+ * versus the {@code InvoiceSummaryDto} projection. Needs a database reachable through
+ * {@code DB_URL}, {@code DB_USERNAME} and {@code DB_PASSWORD}; the invoices are seeded once
+ * into a separate {@code billing_benchmark} schema. Run with the GC profiler to compare memory.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InvoiceSummaryBenchmark {
+    
+    private static final String SCHEMA = "billing_benchmark";
+    private static final int SEEDED_INVOICES = 50_000;
+    private static final int LINE_ITEMS_PER_INVOICE = 10;
+    
+    @Param({"50", "50000"})
+    private int rows;
+    
+    private ConfigurableApplicationContext context;
+    private InvoiceService invoiceService;
+    
+    @Setup
+    public void setUp() {
+        context = BenchmarkFixtures.startApplication(SCHEMA);
+        invoiceService = context.getBean(InvoiceService.class);
+        InvoiceSeeder.seed(context.getBean(JdbcTemplate.class), SEEDED_INVOICES, id -> {
+            Invoice invoice = BenchmarkFixtures.invoiceEntity(id, LINE_ITEMS_PER_INVOICE);
+            invoice.setInvoiceNumber("BENCH-" + id);
+            return invoice;
+        });
+    }
+    
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+    
+    @Benchmark
+    public InvoicePageResponseDto fullInvoices() {
+        return invoiceService.getInvoicePage(new InvoiceFilterDto(), null, rows);
+    }
+    
+    @Benchmark
+    public InvoiceSummaryPageResponseDto summaries() {
+        return invoiceService.getInvoiceSummaryPage(new InvoiceFilterDto(), null, rows);
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.billing.benchmark;
+
+import com.example.billing.dto.invoice.InvoiceResponseDto;
+import com.example.billing.service.BrandingAssetCache;
+import com.example.billing.service.HtmlInvoicePdfRenderer;
+import com.example.billing.service.NativeInvoicePdfRenderer;
+import com.example.billing.service.OwnerService;
+import com.example.billing.service.PdfCacheService;
+import com.example.billing.service.PdfRenderingEngine;
+import com.example.billing.service.PdfService;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link PdfService#generateInvoicePdf} with the PDF cache disabled, so every call renders.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PdfRenderingBenchmark {
+    
+    @Param({"1", "10", "100", "1000"})
+    private int lineItems;
+    
+    @Param({"html", "native"})
+    private String renderer;
+    
+    @Param({"compact", "compatible"})
+    private String outputProfile;
+    
+    private PdfService pdfService;
+    private InvoiceResponseDto invoice;
+    
+    @Setup
+    public void setUp() {
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("templates/");
+        resolver.setSuffix(".html");
+        resolver.setTemplateMode(TemplateMode.HTML);
+        resolver.setCharacterEncoding("UTF-8");
+        SpringTemplateEngine templateEngine = new SpringTemplateEngine();
+        templateEngine.setTemplateResolver(resolver);
+        
+        PdfRenderingEngine engine = new PdfRenderingEngine();
+        ReflectionTestUtils.setField(engine, "systemFontsEnabled", false);
+        ReflectionTestUtils.setField(engine, "outputProfileName", outputProfile);
+        ReflectionTestUtils.setField(engine, "warmUpEnabled", true);
+        engine.initialize();
+        
+        BrandingAssetCache brandingAssetCache = new BrandingAssetCache();
+        PdfCacheService pdfCacheService = new PdfCacheService();
+        ReflectionTestUtils.setField(pdfCacheService, "enabled", false);
+        
+        OwnerService ownerService = Mockito.mock(OwnerService.class, Mockito.withSettings().stubOnly());
+        Mockito.when(ownerService.getActiveOwner()).thenReturn(BenchmarkFixtures.owner());
+        
+        pdfService = new PdfService(ownerService, pdfCacheService, engine, List.of(
+                new HtmlInvoicePdfRenderer(templateEngine, engine, brandingAssetCache),
+                new NativeInvoicePdfRenderer(engine, brandingAssetCache)));
+        ReflectionTestUtils.setField(pdfService, "rendererName", renderer);
+        pdfService.initialize();
+        
+        invoice = BenchmarkFixtures.invoiceDto(1L, lineItems);
+    }
+    
+    @Benchmark
+    public byte[] generateInvoicePdf() {
+        return pdfService.generateInvoicePdf(invoice);
+    }
+}
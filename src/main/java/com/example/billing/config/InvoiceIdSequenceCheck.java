@@ -0,0 +1,52 @@
+package com.example.billing.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Refuses to start on a database that db/migration/V11 was not applied to. Invoice ids are taken
+ * 50 at a time from {@code invoices_id_seq}; with an identity column or a sequence that steps by
+ * one, inserts would collide with ids already handed out instead of failing clearly.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class InvoiceIdSequenceCheck {
+    
+    static final String SEQUENCE = "invoices_id_seq";
+    static final long ALLOCATION_SIZE = 50;
+    
+    private final JdbcTemplate jdbcTemplate;
+    // Only injected so the check runs after Hibernate has updated the schema
+    private final EntityManagerFactory entityManagerFactory;
+    
+    @PostConstruct
+    public void verify() {
+        List<String> identity = jdbcTemplate.queryForList("SELECT is_identity FROM information_schema.columns "
+                + "WHERE table_schema = current_schema() AND table_name = 'invoices' AND column_name = 'id'", String.class);
+        if (identity.contains("YES")) {
+            throw notMigrated("invoices.id is still an identity column");
+        }
+        
+        List<Long> increment = jdbcTemplate.queryForList("SELECT increment_by FROM pg_sequences "
+                + "WHERE schemaname = current_schema() AND sequencename = ?", Long.class, SEQUENCE);
+        if (increment.isEmpty()) {
+            throw notMigrated(SEQUENCE + " does not exist");
+        }
+        if (increment.get(0) != ALLOCATION_SIZE) {
+            throw notMigrated(SEQUENCE + " increments by " + increment.get(0) + " instead of " + ALLOCATION_SIZE);
+        }
+        log.debug("Invoice ids are allocated from {} in blocks of {}", SEQUENCE, ALLOCATION_SIZE);
+    }
+    
+    private IllegalStateException notMigrated(String problem) {
+        return new IllegalStateException("The database is missing db/migration/V11__pool_invoice_id_sequence.sql: "
+                + problem + ". Apply the script and start the application again.");
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.billing.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Worker pools used for PDF rendering outside the request thread.
+ */
+@Configuration
+public class PdfExecutorConfig {
+    
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService pdfExportExecutor(@Value("${app.pdf.export.threads:4}") int threads) {
+        return Executors.newFixedThreadPool(threads, new CustomizableThreadFactory("pdf-export-"));
+    }
+    
+    /**
+     * Runs background PDF jobs. The queue is bounded and rejects work once it is full,
+     * so callers can turn a burst of submissions away instead of piling up renders.
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    public ThreadPoolExecutor pdfJobExecutor(@Value("${app.pdf.jobs.threads:2}") int threads,
+                                             @Value("${app.pdf.jobs.queue-capacity:100}") int queueCapacity) {
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("pdf-job-"),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+    
+    /**
+     * Renders PDFs into the cache right after an invoice is saved. Pre-rendering is only an
+     * optimization, so work that does not fit the queue is dropped by the caller.
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    public ThreadPoolExecutor pdfPrerenderExecutor(@Value("${app.pdf.prerender.threads:1}") int threads,
+                                                   @Value("${app.pdf.prerender.queue-capacity:50}") int queueCapacity) {
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("pdf-prerender-"),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+}
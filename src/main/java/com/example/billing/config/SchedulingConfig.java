@@ -0,0 +1,12 @@
+package com.example.billing.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables {@code @Scheduled} housekeeping such as purging expired idempotency keys.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
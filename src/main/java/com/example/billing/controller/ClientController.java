@@ -7,6 +7,7 @@ import com.example.billing.service.ClientService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -30,10 +31,19 @@ public class ClientController {
     }
     
     @GetMapping("/{id}")
-    public ResponseEntity<ClientResponseDto> getClientById(@PathVariable Long id) {
+    public ResponseEntity<ClientResponseDto> getClientById(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         log.info("GET /api/clients/{} - Fetching client by id", id);
+        if (ifNoneMatch != null) {
+            String currentTag = clientService.getClientVersion(id).map(ETags::forVersion).orElse(null);
+            if (ETags.matches(ifNoneMatch, currentTag)) {
+                return ETags.notModified(currentTag);
+            }
+        }
+        
         ClientResponseDto client = clientService.getClientById(id);
-        return ResponseEntity.ok(client);
+        return ETags.ok(ETags.of(client.getId(), client.getVersion()), client);
     }
     
     @PostMapping
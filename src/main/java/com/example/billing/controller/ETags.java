@@ -0,0 +1,53 @@
+package com.example.billing.controller;
+
+import com.example.billing.repository.EntityVersion;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * Strong ETags built from entity versions, and the If-None-Match check that lets GET endpoints
+ * answer 304 Not Modified from the version alone, before the entity is loaded or mapped.
+ * Responses carry {@code Cache-Control: no-cache} so clients keep the body and always revalidate.
+ */
+final class ETags {
+    
+    private ETags() {
+    }
+    
+    static String of(Object... parts) {
+        return Arrays.stream(parts).map(String::valueOf).collect(Collectors.joining("-", "\"", "\""));
+    }
+    
+    static String forVersion(EntityVersion version) {
+        return of(version.getId(), version.getVersion());
+    }
+    
+    // If-None-Match uses the weak comparison, so a W/ prefix on the client's tag is ignored
+    static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || etag == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if (value.equals("*") || value.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    static <T> ResponseEntity<T> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(CacheControl.noCache()).build();
+    }
+    
+    static <T> ResponseEntity<T> ok(String etag, T body) {
+        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache()).body(body);
+    }
+}
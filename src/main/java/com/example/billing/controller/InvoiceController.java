@@ -1,23 +1,39 @@
 package com.example.billing.controller;
 
+import com.example.billing.dto.invoice.CreateInvoiceBatchRequestDto;
 import com.example.billing.dto.invoice.CreateInvoiceRequestDto;
+import com.example.billing.dto.invoice.InvoiceBatchResponseDto;
+import com.example.billing.dto.invoice.InvoiceAggregatesResponseDto;
+import com.example.billing.dto.invoice.InvoiceFilterDto;
+import com.example.billing.dto.invoice.InvoicePageResponseDto;
 import com.example.billing.dto.invoice.InvoiceResponseDto;
+import com.example.billing.dto.invoice.InvoiceSearchResultDto;
+import com.example.billing.dto.invoice.InvoiceSummaryPageResponseDto;
 import com.example.billing.dto.invoice.UpdateInvoiceRequestDto;
-import com.example.billing.enums.InvoiceStatus;
+import com.example.billing.enums.ExportFormat;
+import com.example.billing.service.InvoiceCacheService;
+import com.example.billing.service.InvoiceExportService;
 import com.example.billing.service.InvoiceService;
+import com.example.billing.service.PdfExportService;
 import com.example.billing.service.PdfService;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
 import java.time.LocalDate;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/invoices")
@@ -27,61 +43,206 @@ public class InvoiceController {
     
     private final InvoiceService invoiceService;
     private final PdfService pdfService;
+    private final PdfExportService pdfExportService;
+    private final InvoiceExportService invoiceExportService;
+    private final InvoiceCacheService invoiceCacheService;
     
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 200;
+    private static final int DEFAULT_SEARCH_RESULTS = 20;
+    private static final int MAX_SEARCH_RESULTS = 100;
+    
+    @Value("${app.invoices.unpaginated-list-enabled:false}")
+    private boolean unpaginatedListEnabled;
+    
+    /**
+     * Invoices newest first, one page at a time. Deployments that opted in with
+     * app.invoices.unpaginated-list-enabled still get every matching invoice as one array when
+     * neither cursor nor limit is sent, which is what the bundled frontend expects.
+     */
     @GetMapping
-    public ResponseEntity<List<InvoiceResponseDto>> getAllInvoices(
-            @RequestParam(required = false) InvoiceStatus status,
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
-            @RequestParam(required = false) String dateFilter) {
-        log.info("GET /api/invoices - Fetching invoices with filters: status={}, startDate={}, endDate={}, dateFilter={}", 
-                status, startDate, endDate, dateFilter);
+    public ResponseEntity<?> getAllInvoices(
+            InvoiceFilterDto filter,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        log.info("GET /api/invoices - Fetching invoices with filters: {}, cursor={}, limit={}", filter, cursor, limit);
+        
+        if (unpaginatedListEnabled && cursor == null && limit == null) {
+            List<InvoiceResponseDto> invoices = invoiceService.getInvoicesWithFilters(filter);
+            return ResponseEntity.ok(invoices);
+        }
+        
+        int pageSize = limit != null ? Math.max(1, Math.min(limit, MAX_PAGE_SIZE)) : DEFAULT_PAGE_SIZE;
+        InvoicePageResponseDto page = invoiceService.getInvoicePage(filter, cursor, pageSize);
         
-        List<InvoiceResponseDto> invoices = invoiceService.getInvoicesWithFilters(status, startDate, endDate, dateFilter);
+        return ResponseEntity.ok(page);
+    }
+    
+    @GetMapping("/summary")
+    public ResponseEntity<InvoiceSummaryPageResponseDto> getInvoiceSummaries(
+            InvoiceFilterDto filter,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        log.info("GET /api/invoices/summary - Fetching invoice summaries with filters: {}, cursor={}, limit={}", filter, cursor, limit);
+        
+        int pageSize = limit != null ? Math.max(1, Math.min(limit, MAX_PAGE_SIZE)) : DEFAULT_PAGE_SIZE;
+        InvoiceSummaryPageResponseDto page = invoiceService.getInvoiceSummaryPage(filter, cursor, pageSize);
         
-        return ResponseEntity.ok(invoices);
+        return ResponseEntity.ok(page);
+    }
+    
+    @GetMapping("/search")
+    public ResponseEntity<List<InvoiceSearchResultDto>> searchInvoices(
+            @RequestParam String q,
+            @RequestParam(required = false) Integer limit) {
+        log.info("GET /api/invoices/search?q={} - Searching invoices", q);
+        int resultLimit = limit != null ? Math.max(1, Math.min(limit, MAX_SEARCH_RESULTS)) : DEFAULT_SEARCH_RESULTS;
+        List<InvoiceSearchResultDto> results = invoiceService.searchInvoices(q, resultLimit);
+        return ResponseEntity.ok(results);
+    }
+    
+    @GetMapping("/aggregates")
+    public ResponseEntity<InvoiceAggregatesResponseDto> getInvoiceAggregates(
+            InvoiceFilterDto filter,
+            @RequestParam(defaultValue = "month") String groupBy) {
+        log.info("GET /api/invoices/aggregates - Aggregating invoices by {} with filters: {}", groupBy, filter);
+        InvoiceAggregatesResponseDto aggregates = invoiceService.getInvoiceAggregates(filter, groupBy);
+        return ResponseEntity.ok(aggregates);
     }
     
     @GetMapping("/{id}")
-    public ResponseEntity<InvoiceResponseDto> getInvoiceById(@PathVariable Long id) {
+    public ResponseEntity<InvoiceResponseDto> getInvoiceById(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         log.info("GET /api/invoices/{} - Fetching invoice by id", id);
+        
+        // Revalidation reads only the version; the invoice is neither loaded nor serialized
+        if (ifNoneMatch != null) {
+            String currentTag = invoiceService.getInvoiceVersion(id).map(ETags::forVersion).orElse(null);
+            if (ETags.matches(ifNoneMatch, currentTag)) {
+                return ETags.notModified(currentTag);
+            }
+        }
+        
         InvoiceResponseDto invoice = invoiceService.getInvoiceById(id);
-        return ResponseEntity.ok(invoice);
+        return ETags.ok(ETags.of(invoice.getId(), invoice.getVersion()), invoice);
+    }
+    
+    @GetMapping("/number/{invoiceNumber}")
+    public ResponseEntity<InvoiceResponseDto> getInvoiceByNumber(
+            @PathVariable String invoiceNumber,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        log.info("GET /api/invoices/number/{} - Fetching invoice by number", invoiceNumber);
+        InvoiceResponseDto invoice = invoiceService.getInvoiceByNumber(invoiceNumber);
+        String etag = ETags.of(invoice.getId(), invoice.getVersion());
+        if (ETags.matches(ifNoneMatch, etag)) {
+            return ETags.notModified(etag);
+        }
+        return ETags.ok(etag, invoice);
+    }
+    
+    /**
+     * Hit/miss counts, evictions and size of the invoice lookup cache
+     */
+    @GetMapping("/cache/stats")
+    public ResponseEntity<Map<String, Object>> getCacheStats() {
+        log.info("GET /api/invoices/cache/stats - Fetching invoice cache statistics");
+        return ResponseEntity.ok(invoiceCacheService.getStats());
+    }
+    
+    /**
+     * Drop all cached invoices (admin only)
+     */
+    @DeleteMapping("/cache")
+    public ResponseEntity<Void> clearCache() {
+        log.info("DELETE /api/invoices/cache - Clearing invoice cache");
+        invoiceCacheService.clear();
+        return ResponseEntity.noContent().build();
     }
     
     @GetMapping("/{id}/pdf")
-    public ResponseEntity<byte[]> downloadInvoicePdf(@PathVariable Long id) {
+    public void downloadInvoicePdf(@PathVariable Long id, HttpServletResponse response) throws IOException {
         log.info("GET /api/invoices/{}/pdf - Generating PDF for invoice", id);
         
         try {
             // Get invoice details
             InvoiceResponseDto invoice = invoiceService.getInvoiceById(id);
             
-            // Generate PDF
-            byte[] pdfBytes = pdfService.generateInvoicePdf(invoice);
-            
-            // Set response headers
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_PDF);
-            headers.setContentDispositionFormData("attachment", 
-                "invoice-" + invoice.getInvoiceNumber() + ".pdf");
-            headers.setContentLength(pdfBytes.length);
+            // Set response headers; the body is streamed, so there is no content length
+            response.setContentType(MediaType.APPLICATION_PDF_VALUE);
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.formData()
+                    .name("attachment")
+                    .filename("invoice-" + invoice.getInvoiceNumber() + ".pdf")
+                    .build()
+                    .toString());
             
-            return new ResponseEntity<>(pdfBytes, headers, HttpStatus.OK);
+            // Nothing is written until the PDF is complete, so render failures still get a 500
+            pdfService.writeInvoicePdf(invoice, response.getOutputStream());
             
         } catch (Exception e) {
             log.error("Error generating PDF for invoice {}: {}", id, e.getMessage());
-            return ResponseEntity.internalServerError().build();
+            if (response.isCommitted()) {
+                // Copying the finished PDF failed, usually because the client went away; fail
+                // the request so the connection is aborted rather than ending a short body
+                throw new IOException("PDF rendering failed after the response was committed", e);
+            }
+            response.reset();
+            response.sendError(HttpStatus.INTERNAL_SERVER_ERROR.value());
         }
     }
     
+    @GetMapping("/pdf-export")
+    public ResponseEntity<StreamingResponseBody> exportInvoicePdfs(InvoiceFilterDto filter) {
+        log.info("GET /api/invoices/pdf-export - Exporting PDFs with filters: {}", filter);
+        
+        // Ids are paged in while the ZIP is written; each invoice is loaded just before it is rendered
+        Iterator<Long> invoiceIds = pdfExportService.invoiceIds(filter);
+        
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType("application/zip"));
+        headers.setContentDisposition(ContentDisposition.attachment()
+                .filename("invoices-" + LocalDate.now() + ".zip")
+                .build());
+        
+        StreamingResponseBody body = outputStream -> pdfExportService.writeZip(invoiceIds, outputStream);
+        return new ResponseEntity<>(body, headers, HttpStatus.OK);
+    }
+    
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportInvoices(
+            InvoiceFilterDto filter,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(defaultValue = "false") boolean lineItems) {
+        log.info("GET /api/invoices/export - Exporting invoices as {} (line items: {}) with filters: {}", format, lineItems, filter);
+        
+        // Parsed up front so an unknown format is a 400 rather than a broken download
+        ExportFormat exportFormat = ExportFormat.fromParameter(format);
+        
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType(exportFormat.getContentType()));
+        headers.setContentDisposition(ContentDisposition.attachment()
+                .filename("invoices-" + LocalDate.now() + "." + exportFormat.getFileExtension())
+                .build());
+        
+        StreamingResponseBody body = outputStream -> invoiceExportService.export(filter, exportFormat, lineItems, outputStream);
+        return new ResponseEntity<>(body, headers, HttpStatus.OK);
+    }
+    
     @PostMapping
-    public ResponseEntity<InvoiceResponseDto> createInvoice(@Valid @RequestBody CreateInvoiceRequestDto createDto) {
+    public ResponseEntity<InvoiceResponseDto> createInvoice(@Valid @RequestBody CreateInvoiceRequestDto createDto,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
         log.info("POST /api/invoices - Creating new invoice");
-        InvoiceResponseDto invoice = invoiceService.createInvoice(createDto);
+        InvoiceResponseDto invoice = invoiceService.createInvoice(createDto, idempotencyKey);
         return ResponseEntity.status(HttpStatus.CREATED).body(invoice);
     }
     
+    // 200 with a result per invoice, since some of them may have been rejected
+    @PostMapping("/batch")
+    public ResponseEntity<InvoiceBatchResponseDto> createInvoices(@Valid @RequestBody CreateInvoiceBatchRequestDto batchDto) {
+        log.info("POST /api/invoices/batch - Creating {} invoices", batchDto.getInvoices().size());
+        return ResponseEntity.ok(invoiceService.createInvoices(batchDto));
+    }
+    
     @PutMapping("/{id}")
     public ResponseEntity<InvoiceResponseDto> updateInvoice(
             @PathVariable Long id,
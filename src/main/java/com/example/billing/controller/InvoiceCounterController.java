@@ -63,8 +63,7 @@ public class InvoiceCounterController {
             String nextInvoiceNumber = invoiceNumberService.generateNextInvoiceNumber();
             Map<String, Object> response = new HashMap<>();
             response.put("nextInvoiceNumber", nextInvoiceNumber);
-            response.put("year", Integer.parseInt(nextInvoiceNumber.substring(0, 4)));
-            response.put("sequence", Long.parseLong(nextInvoiceNumber.substring(4)));
+            response.put("sequence", Long.parseLong(nextInvoiceNumber));
             
             return ResponseEntity.ok(response);
         } catch (Exception e) {
@@ -0,0 +1,50 @@
+package com.example.billing.controller;
+
+import com.example.billing.dto.series.CreateInvoiceSeriesRequestDto;
+import com.example.billing.dto.series.InvoiceNumberPreviewDto;
+import com.example.billing.dto.series.InvoiceSeriesResponseDto;
+import com.example.billing.service.InvoiceSeriesService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/invoice-series")
+@RequiredArgsConstructor
+@Slf4j
+public class InvoiceSeriesController {
+    
+    private final InvoiceSeriesService invoiceSeriesService;
+    
+    @GetMapping
+    public ResponseEntity<List<InvoiceSeriesResponseDto>> getAllSeries() {
+        log.info("GET /api/invoice-series - Fetching all invoice series");
+        return ResponseEntity.ok(invoiceSeriesService.getAllSeries());
+    }
+    
+    @PostMapping
+    public ResponseEntity<InvoiceSeriesResponseDto> createSeries(@Valid @RequestBody CreateInvoiceSeriesRequestDto createDto) {
+        log.info("POST /api/invoice-series - Creating invoice series {}", createDto.getCode());
+        InvoiceSeriesResponseDto series = invoiceSeriesService.createSeries(createDto);
+        return ResponseEntity.status(HttpStatus.CREATED).body(series);
+    }
+    
+    /**
+     * Next invoice number of the series for an invoice dated today or on invoiceDate, without consuming it
+     */
+    @GetMapping("/{code}/next-number")
+    public ResponseEntity<InvoiceNumberPreviewDto> previewNextInvoiceNumber(
+            @PathVariable String code,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate invoiceDate) {
+        log.info("GET /api/invoice-series/{}/next-number - Previewing next invoice number", code);
+        LocalDate date = invoiceDate != null ? invoiceDate : LocalDate.now();
+        return ResponseEntity.ok(invoiceSeriesService.previewNextInvoiceNumber(code, date));
+    }
+}
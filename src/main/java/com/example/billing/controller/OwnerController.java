@@ -7,6 +7,7 @@ import com.example.billing.service.OwnerService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -29,21 +30,38 @@ public class OwnerController {
     }
     
     @GetMapping("/active")
-    public ResponseEntity<OwnerResponseDto> getActiveOwner() {
+    public ResponseEntity<OwnerResponseDto> getActiveOwner(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         log.info("GET /api/owners/active - Fetching active owner");
+        if (ifNoneMatch != null) {
+            String currentTag = ownerService.getActiveOwnerVersion().map(ETags::forVersion).orElse(null);
+            if (ETags.matches(ifNoneMatch, currentTag)) {
+                return ETags.notModified(currentTag);
+            }
+        }
+        
         try {
             OwnerResponseDto owner = ownerService.getActiveOwner();
-            return ResponseEntity.ok(owner);
+            return ETags.ok(ETags.of(owner.getId(), owner.getVersion()), owner);
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
     }
     
     @GetMapping("/{id}")
-    public ResponseEntity<OwnerResponseDto> getOwnerById(@PathVariable Long id) {
+    public ResponseEntity<OwnerResponseDto> getOwnerById(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         log.info("GET /api/owners/{} - Fetching owner by id", id);
+        if (ifNoneMatch != null) {
+            String currentTag = ownerService.getOwnerVersion(id).map(ETags::forVersion).orElse(null);
+            if (ETags.matches(ifNoneMatch, currentTag)) {
+                return ETags.notModified(currentTag);
+            }
+        }
+        
         OwnerResponseDto owner = ownerService.getOwnerById(id);
-        return ResponseEntity.ok(owner);
+        return ETags.ok(ETags.of(owner.getId(), owner.getVersion()), owner);
     }
     
     @PostMapping
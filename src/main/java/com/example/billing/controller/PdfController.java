@@ -0,0 +1,55 @@
+package com.example.billing.controller;
+
+import com.example.billing.service.PdfCacheService;
+import com.example.billing.service.PdfPrerenderService;
+import com.example.billing.service.PdfRenderingEngine;
+import com.example.billing.service.PdfService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/pdf")
+@RequiredArgsConstructor
+@Slf4j
+public class PdfController {
+    
+    private final PdfRenderingEngine pdfRenderingEngine;
+    private final PdfCacheService pdfCacheService;
+    private final PdfService pdfService;
+    private final PdfPrerenderService pdfPrerenderService;
+    
+    /**
+     * PDF engine warm-up timings, cache hit/miss counts and background pre-render counts
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getStats() {
+        log.info("GET /api/pdf/stats - Fetching PDF statistics");
+        Map<String, Object> engine = new LinkedHashMap<>();
+        engine.put("renderer", pdfService.getRendererName());
+        engine.put("outputProfile", pdfRenderingEngine.getOutputProfile());
+        engine.put("fontCount", pdfRenderingEngine.getFontCount());
+        engine.put("fontLoadMillis", pdfRenderingEngine.getFontLoadMillis());
+        engine.put("warmUpMillis", pdfRenderingEngine.getWarmUpMillis());
+        
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("engine", engine);
+        response.put("cache", pdfCacheService.getStats());
+        response.put("prerender", pdfPrerenderService.getStats());
+        return ResponseEntity.ok(response);
+    }
+    
+    /**
+     * Drop all cached PDFs (admin only)
+     */
+    @DeleteMapping("/cache")
+    public ResponseEntity<Void> clearCache() {
+        log.info("DELETE /api/pdf/cache - Clearing PDF cache");
+        pdfCacheService.clear();
+        return ResponseEntity.noContent().build();
+    }
+}
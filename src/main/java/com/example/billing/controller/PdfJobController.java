@@ -0,0 +1,79 @@
+package com.example.billing.controller;
+
+import com.example.billing.dto.pdfjob.CreatePdfJobRequestDto;
+import com.example.billing.dto.pdfjob.PdfJobResponseDto;
+import com.example.billing.enums.PdfJobStatus;
+import com.example.billing.service.PdfJobService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/pdf-jobs")
+@RequiredArgsConstructor
+@Slf4j
+public class PdfJobController {
+    
+    private final PdfJobService pdfJobService;
+    
+    /**
+     * Queue a PDF render for one invoice (PDF result) or several invoices (ZIP result).
+     * Responds with 503 when the job queue is full.
+     */
+    @PostMapping
+    public ResponseEntity<PdfJobResponseDto> submitJob(@Valid @RequestBody CreatePdfJobRequestDto requestDto) {
+        log.info("POST /api/pdf-jobs - Submitting PDF job for {} invoices", requestDto.getInvoiceIds().size());
+        PdfJobResponseDto job = pdfJobService.submit(requestDto);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/pdf-jobs/" + job.getId()))
+                .body(job);
+    }
+    
+    @GetMapping("/{id}")
+    public ResponseEntity<PdfJobResponseDto> getJob(@PathVariable Long id) {
+        log.info("GET /api/pdf-jobs/{} - Fetching PDF job status", id);
+        return ResponseEntity.ok(pdfJobService.getJob(id));
+    }
+    
+    /**
+     * Download the result of a completed job; responds with 409 and the job status while it is not ready.
+     */
+    @GetMapping("/{id}/download")
+    public ResponseEntity<?> downloadResult(@PathVariable Long id) {
+        log.info("GET /api/pdf-jobs/{}/download - Downloading PDF job result", id);
+        PdfJobResponseDto job = pdfJobService.getJob(id);
+        if (job.getStatus() != PdfJobStatus.COMPLETED) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(job);
+        }
+        
+        Path result = pdfJobService.getResultFile(id);
+        boolean zip = job.getResultFileName().endsWith(".zip");
+        
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(zip ? MediaType.parseMediaType("application/zip") : MediaType.APPLICATION_PDF);
+        headers.setContentDisposition(ContentDisposition.attachment()
+                .filename(job.getResultFileName())
+                .build());
+        
+        Resource body = new FileSystemResource(result);
+        return new ResponseEntity<>(body, headers, HttpStatus.OK);
+    }
+    
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getQueueStats() {
+        log.info("GET /api/pdf-jobs/stats - Fetching PDF job queue statistics");
+        return ResponseEntity.ok(pdfJobService.getQueueStats());
+    }
+}
@@ -7,6 +7,7 @@ import com.example.billing.service.ProductService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -23,8 +24,16 @@ public class ProductController {
     
     @GetMapping
     public ResponseEntity<List<ProductResponseDto>> getAllProducts(
-            @RequestParam(required = false) String search) {
+            @RequestParam(required = false) String search,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         log.info("GET /api/products - Fetching all products");
+        
+        // Read before the products, so a concurrent change at worst causes one extra download
+        String catalogTag = ETags.of("catalog", productService.getCatalogVersion());
+        if (ETags.matches(ifNoneMatch, catalogTag)) {
+            return ETags.notModified(catalogTag);
+        }
+        
         List<ProductResponseDto> products;
         
         if (search != null && !search.trim().isEmpty()) {
@@ -33,14 +42,23 @@ public class ProductController {
             products = productService.getAllProducts();
         }
         
-        return ResponseEntity.ok(products);
+        return ETags.ok(catalogTag, products);
     }
     
     @GetMapping("/{id}")
-    public ResponseEntity<ProductResponseDto> getProductById(@PathVariable Long id) {
+    public ResponseEntity<ProductResponseDto> getProductById(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         log.info("GET /api/products/{} - Fetching product by id", id);
+        if (ifNoneMatch != null) {
+            String currentTag = productService.getProductVersion(id).map(ETags::forVersion).orElse(null);
+            if (ETags.matches(ifNoneMatch, currentTag)) {
+                return ETags.notModified(currentTag);
+            }
+        }
+        
         ProductResponseDto product = productService.getProductById(id);
-        return ResponseEntity.ok(product);
+        return ETags.ok(ETags.of(product.getId(), product.getVersion()), product);
     }
     
     @PostMapping
@@ -0,0 +1,60 @@
+package com.example.billing.controller;
+
+import com.example.billing.dto.report.ProductSalesReportResponseDto;
+import com.example.billing.dto.report.RevenueReportResponseDto;
+import com.example.billing.enums.InvoiceStatus;
+import com.example.billing.service.InvoiceService;
+import com.example.billing.service.RevenueRollupService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/reports")
+@RequiredArgsConstructor
+@Slf4j
+public class ReportController {
+    
+    private final RevenueRollupService revenueRollupService;
+    private final InvoiceService invoiceService;
+    
+    @GetMapping("/revenue")
+    public ResponseEntity<RevenueReportResponseDto> getRevenueReport(
+            @RequestParam(required = false) InvoiceStatus status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) String dateFilter,
+            @RequestParam(defaultValue = "month") String groupBy) {
+        log.info("GET /api/reports/revenue - Revenue by {}: status={}, startDate={}, endDate={}, dateFilter={}", 
+                groupBy, status, startDate, endDate, dateFilter);
+        RevenueReportResponseDto report = revenueRollupService.getRevenueReport(status, startDate, endDate, dateFilter, groupBy);
+        return ResponseEntity.ok(report);
+    }
+    
+    @GetMapping("/product-sales")
+    public ResponseEntity<ProductSalesReportResponseDto> getProductSalesReport(
+            @RequestParam(required = false) InvoiceStatus status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) String dateFilter) {
+        log.info("GET /api/reports/product-sales - Product sales: status={}, startDate={}, endDate={}, dateFilter={}", 
+                status, startDate, endDate, dateFilter);
+        ProductSalesReportResponseDto report = invoiceService.getProductSalesReport(status, startDate, endDate, dateFilter);
+        return ResponseEntity.ok(report);
+    }
+    
+    /**
+     * Recomputes the revenue rollups from the invoices table (admin only), e.g. after invoices
+     * were changed directly in the database
+     */
+    @PostMapping("/revenue/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuildRevenueRollups() {
+        log.info("POST /api/reports/revenue/rebuild - Rebuilding revenue rollups");
+        return ResponseEntity.ok(revenueRollupService.rebuild());
+    }
+}
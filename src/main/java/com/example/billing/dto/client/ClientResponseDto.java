@@ -32,6 +32,7 @@ public class ClientResponseDto {
     private Boolean isActive;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    private Long version;
     
     // Computed fields
     private String fullAddress;
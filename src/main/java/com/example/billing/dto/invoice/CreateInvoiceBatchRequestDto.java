@@ -0,0 +1,22 @@
+package com.example.billing.dto.invoice;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CreateInvoiceBatchRequestDto {
+    
+    // Not @Valid: invalid invoices are reported per item instead of rejecting the whole batch
+    @NotEmpty(message = "Invoices are required")
+    @Size(max = 500, message = "At most 500 invoices can be created in one batch")
+    private List<CreateInvoiceRequestDto> invoices;
+}
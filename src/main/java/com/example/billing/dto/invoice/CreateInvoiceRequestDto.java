@@ -40,6 +40,9 @@ public class CreateInvoiceRequestDto {
     @NotNull(message = "Invoice date is required")
     private LocalDate invoiceDate;
     
+    // Numbering series code; the configured default series or the main counter when omitted
+    private String series;
+    
     @NotNull(message = "Due date is required")
     private LocalDate dueDate;
     
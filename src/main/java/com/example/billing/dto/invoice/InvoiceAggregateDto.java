@@ -0,0 +1,25 @@
+package com.example.billing.dto.invoice;
+
+import com.example.billing.enums.InvoiceStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InvoiceAggregateDto {
+    // First day of the day, month or quarter
+    private LocalDate period;
+    private InvoiceStatus status;
+    
+    private long count;
+    private BigDecimal subtotalAmount;
+    private BigDecimal totalGstAmount;
+    private BigDecimal totalAmount;
+}
@@ -0,0 +1,25 @@
+package com.example.billing.dto.invoice;
+
+import com.example.billing.enums.AggregatePeriod;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InvoiceAggregatesResponseDto {
+    private AggregatePeriod groupBy;
+    
+    // Invoice date range the aggregates cover; null when unbounded
+    private LocalDate startDate;
+    private LocalDate endDate;
+    
+    // One entry per period and status that has invoices, ordered by period then status
+    private List<InvoiceAggregateDto> buckets;
+}
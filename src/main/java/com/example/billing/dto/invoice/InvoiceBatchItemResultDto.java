@@ -0,0 +1,27 @@
+package com.example.billing.dto.invoice;
+
+import com.example.billing.enums.InvoiceBatchItemStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InvoiceBatchItemResultDto {
+    
+    // Position of the invoice in the request
+    private int index;
+    
+    private InvoiceBatchItemStatus status;
+    
+    private Long invoiceId;
+    private String invoiceNumber;
+    
+    // Field path to message, only for FAILED items
+    private Map<String, String> errors;
+}
@@ -0,0 +1,21 @@
+package com.example.billing.dto.invoice;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InvoiceBatchResponseDto {
+    private int total;
+    private int created;
+    private int failed;
+    
+    // One result per requested invoice, in request order
+    private List<InvoiceBatchItemResultDto> results;
+}
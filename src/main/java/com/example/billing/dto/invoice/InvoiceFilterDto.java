@@ -0,0 +1,41 @@
+package com.example.billing.dto.invoice;
+
+import com.example.billing.enums.InvoiceStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Optional invoice list filters, bound from query parameters. Every field that is set narrows
+ * the result; range bounds are inclusive and may be given on their own.
+ */
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class InvoiceFilterDto {
+    private InvoiceStatus status;
+    
+    // Invoice date range, or a named range such as "this_month" that overrides it
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate startDate;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate endDate;
+    private String dateFilter;
+    
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate dueStartDate;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate dueEndDate;
+    
+    // Case-insensitive match anywhere in the customer name
+    private String customer;
+    
+    private BigDecimal minAmount;
+    private BigDecimal maxAmount;
+}
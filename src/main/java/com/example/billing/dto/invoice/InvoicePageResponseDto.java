@@ -0,0 +1,19 @@
+package com.example.billing.dto.invoice;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InvoicePageResponseDto {
+    private List<InvoiceResponseDto> items;
+    
+    // Pass as the cursor parameter to fetch the next page; null on the last page
+    private String nextCursor;
+}
@@ -50,6 +50,7 @@ public class InvoiceResponseDto {
     private BigDecimal totalAmount;
     private String notes;
     private LocalDateTime createdAt;
+    private Long version;
     
     // Line items (from JSON field)
     private List<InvoiceLineItemDto> lineItems;
@@ -0,0 +1,28 @@
+package com.example.billing.dto.invoice;
+
+import com.example.billing.enums.InvoiceStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InvoiceSearchResultDto {
+    private Long id;
+    private String invoiceNumber;
+    private String customerName;
+    private String customerPhone;
+    private String customerGstNumber;
+    private LocalDate invoiceDate;
+    private InvoiceStatus status;
+    private BigDecimal totalAmount;
+    
+    // Trigram word similarity between the query and the matched fields, 0 to 1
+    private double score;
+}
@@ -0,0 +1,23 @@
+package com.example.billing.dto.invoice;
+
+import com.example.billing.enums.InvoiceStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Invoice fields shown in list views. Repository methods returning this type select only
+ * the constructor's columns, so the line items are never loaded.
+ */
+@Data
+@AllArgsConstructor
+public class InvoiceSummaryDto {
+    private Long id;
+    private String invoiceNumber;
+    private String customerName;
+    private LocalDate invoiceDate;
+    private InvoiceStatus status;
+    private BigDecimal totalAmount;
+}
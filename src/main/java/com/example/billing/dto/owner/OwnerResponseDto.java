@@ -78,6 +78,7 @@ public class OwnerResponseDto {
     private Boolean isActive;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    private Long version;
     
     // Computed fields
     private String fullAddress;
@@ -0,0 +1,23 @@
+package com.example.billing.dto.pdfjob;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CreatePdfJobRequestDto {
+    
+    // One id renders a PDF, several ids render a ZIP of PDFs
+    @NotEmpty(message = "At least one invoice id is required")
+    @Size(max = 1000, message = "At most 1000 invoices can be rendered in one job")
+    private List<@NotNull Long> invoiceIds;
+}
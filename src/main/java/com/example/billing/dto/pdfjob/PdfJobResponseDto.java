@@ -0,0 +1,28 @@
+package com.example.billing.dto.pdfjob;
+
+import com.example.billing.enums.PdfJobStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PdfJobResponseDto {
+    private Long id;
+    private PdfJobStatus status;
+    private List<Long> invoiceIds;
+    private String resultFileName;
+    private String errorMessage;
+    private LocalDateTime createdAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime completedAt;
+    
+    // Only set once the result can be downloaded
+    private String downloadUrl;
+}
@@ -15,4 +15,5 @@ public class ProductResponseDto {
     private Long id;
     private String name;
     private LocalDateTime createdAt;
+    private Long version;
 }
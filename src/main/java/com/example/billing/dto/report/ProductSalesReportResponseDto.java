@@ -0,0 +1,26 @@
+package com.example.billing.dto.report;
+
+import com.example.billing.enums.InvoiceStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSalesReportResponseDto {
+    // Invoice status the report is restricted to; null for all statuses
+    private InvoiceStatus status;
+    
+    // Invoice date range the report covers; null when unbounded
+    private LocalDate startDate;
+    private LocalDate endDate;
+    
+    // One row per product, highest revenue first
+    private List<ProductSalesRowDto> rows;
+}
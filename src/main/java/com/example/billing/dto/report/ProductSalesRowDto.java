@@ -0,0 +1,22 @@
+package com.example.billing.dto.report;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSalesRowDto {
+    // Null for custom products, which are grouped by name instead
+    private Long productId;
+    private String productName;
+    
+    private long quantity;
+    private BigDecimal revenue;
+    private long invoiceCount;
+}
@@ -0,0 +1,25 @@
+package com.example.billing.dto.report;
+
+import com.example.billing.enums.AggregatePeriod;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RevenueReportResponseDto {
+    private AggregatePeriod groupBy;
+    
+    // Invoice date range the report covers; null when unbounded
+    private LocalDate startDate;
+    private LocalDate endDate;
+    
+    // One row per period and status that has invoices, ordered by period then status
+    private List<RevenueReportRowDto> rows;
+}
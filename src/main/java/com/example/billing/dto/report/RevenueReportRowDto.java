@@ -0,0 +1,26 @@
+package com.example.billing.dto.report;
+
+import com.example.billing.enums.InvoiceStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RevenueReportRowDto {
+    // First day of the day, month or quarter
+    private LocalDate period;
+    private InvoiceStatus status;
+    
+    private long count;
+    private BigDecimal subtotalAmount;
+    private BigDecimal cgstAmount;
+    private BigDecimal sgstAmount;
+    private BigDecimal totalAmount;
+}
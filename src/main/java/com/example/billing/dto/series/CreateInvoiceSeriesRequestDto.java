@@ -0,0 +1,34 @@
+package com.example.billing.dto.series;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CreateInvoiceSeriesRequestDto {
+    
+    @NotBlank(message = "Series code is required")
+    @Pattern(regexp = "[a-z0-9-]{1,50}", message = "Series code may only contain lowercase letters, digits and hyphens")
+    private String code;
+    
+    @NotBlank(message = "Series prefix is required")
+    @Size(max = 50, message = "Series prefix must be at most 50 characters")
+    private String prefix;
+    
+    @Builder.Default
+    @Min(value = 1, message = "Padding must be at least 1")
+    @Max(value = 12, message = "Padding must be at most 12")
+    private Integer padding = 5;
+    
+    @Builder.Default
+    private Boolean resetEachFinancialYear = true;
+}
@@ -0,0 +1,22 @@
+package com.example.billing.dto.series;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InvoiceNumberPreviewDto {
+    
+    private String series;
+    private LocalDate invoiceDate;
+    // e.g. 2024-25; null for series that never reset
+    private String financialYear;
+    private Long nextSequence;
+    private String nextInvoiceNumber;
+}
@@ -0,0 +1,22 @@
+package com.example.billing.dto.series;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InvoiceSeriesResponseDto {
+    
+    private Long id;
+    private String code;
+    private String prefix;
+    private Integer padding;
+    private Boolean resetEachFinancialYear;
+    private LocalDateTime createdAt;
+}
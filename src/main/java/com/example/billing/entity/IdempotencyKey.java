@@ -0,0 +1,39 @@
+package com.example.billing.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * An {@code Idempotency-Key} a client sent with {@code POST /api/invoices} and the invoice it
+ * created. Claimed and completed by {@code IdempotencyKeyService}; rows are purged once expired.
+ */
+@Entity
+@Table(name = "idempotency_keys", indexes = @Index(name = "idx_idempotency_keys_expires_at", columnList = "expires_at"))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdempotencyKey {
+    
+    // First 128 bits of the SHA-256 of the client's key, so long keys take 16 bytes
+    @Id
+    @Column(name = "key_hash", nullable = false)
+    private UUID keyHash;
+    
+    // SHA-256 of the request the key was first used with
+    @Column(name = "request_hash", nullable = false, length = 32)
+    private byte[] requestHash;
+    
+    // Null until the create that claimed the key commits
+    @Column(name = "invoice_id")
+    private Long invoiceId;
+    
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+}
@@ -23,8 +23,10 @@ import java.util.List;
 @AllArgsConstructor
 public class Invoice {
     
+    // Ids come from a pooled sequence, 50 per round trip, so inserts can be batched
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "invoices_id_seq")
+    @SequenceGenerator(name = "invoices_id_seq", sequenceName = "invoices_id_seq", allocationSize = 50)
     private Long id;
     
     @Column(name = "invoice_number", nullable = false, unique = true)
@@ -102,6 +104,11 @@ public class Invoice {
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
     
+    // Incremented on every update; used for optimistic locking and as the ETag of the resource
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
+    
     // Line items stored as JSON (eliminates need for separate table)
     @JdbcTypeCode(SqlTypes.JSON)
     @Column(name = "line_items", columnDefinition = "jsonb")
@@ -0,0 +1,58 @@
+package com.example.billing.entity;
+
+import com.example.billing.enums.InvoiceStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Invoice totals per invoice date and status. Maintained incrementally by
+ * {@code RevenueRollupService} whenever an invoice is created, updated or deleted.
+ */
+@Entity
+@Table(name = "invoice_daily_rollups")
+@IdClass(InvoiceDailyRollup.Key.class)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InvoiceDailyRollup {
+    
+    @Id
+    @Column(name = "rollup_date", nullable = false)
+    private LocalDate rollupDate;
+    
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private InvoiceStatus status;
+    
+    @Column(name = "invoice_count", nullable = false)
+    private Long invoiceCount;
+    
+    @Column(name = "subtotal_amount", nullable = false, precision = 16, scale = 2)
+    private BigDecimal subtotalAmount;
+    
+    @Column(name = "cgst_amount", nullable = false, precision = 16, scale = 2)
+    private BigDecimal cgstAmount;
+    
+    @Column(name = "sgst_amount", nullable = false, precision = 16, scale = 2)
+    private BigDecimal sgstAmount;
+    
+    @Column(name = "total_amount", nullable = false, precision = 16, scale = 2)
+    private BigDecimal totalAmount;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private LocalDate rollupDate;
+        private InvoiceStatus status;
+    }
+}
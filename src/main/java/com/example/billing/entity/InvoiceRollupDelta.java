@@ -0,0 +1,52 @@
+package com.example.billing.entity;
+
+import com.example.billing.enums.InvoiceStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * A change to the totals of one invoice date and status, written by an invoice create, update or
+ * delete. Rows are only ever inserted, so concurrent invoice writes never wait on each other here;
+ * {@code RevenueRollupService} folds them into {@link InvoiceDailyRollup} on a schedule.
+ */
+@Entity
+@Table(name = "invoice_rollup_deltas")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InvoiceRollupDelta {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "rollup_date", nullable = false)
+    private LocalDate rollupDate;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private InvoiceStatus status;
+    
+    // Negative when invoices leave the date and status
+    @Column(name = "invoice_count", nullable = false)
+    private Long invoiceCount;
+    
+    @Column(name = "subtotal_amount", nullable = false, precision = 16, scale = 2)
+    private BigDecimal subtotalAmount;
+    
+    @Column(name = "cgst_amount", nullable = false, precision = 16, scale = 2)
+    private BigDecimal cgstAmount;
+    
+    @Column(name = "sgst_amount", nullable = false, precision = 16, scale = 2)
+    private BigDecimal sgstAmount;
+    
+    @Column(name = "total_amount", nullable = false, precision = 16, scale = 2)
+    private BigDecimal totalAmount;
+}
@@ -0,0 +1,45 @@
+package com.example.billing.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * A numbering series such as "INV/{FY}/" for the head office or "CHN/{FY}/" for a branch.
+ * Numbers come from a PostgreSQL sequence per series and, when the series resets, per financial year.
+ */
+@Entity
+@Table(name = "invoice_series")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InvoiceSeries {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(nullable = false, unique = true, length = 50)
+    private String code;
+    
+    // May contain {FY}, replaced by the financial year of the invoice date, e.g. 2024-25
+    @Column(nullable = false, unique = true, length = 50)
+    private String prefix;
+    
+    // Minimum number of digits; shorter sequence values are padded with zeros
+    @Column(nullable = false)
+    private Integer padding;
+    
+    @Column(name = "reset_each_financial_year", nullable = false)
+    private Boolean resetEachFinancialYear;
+    
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
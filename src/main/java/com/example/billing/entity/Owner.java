@@ -171,6 +171,11 @@ public class Owner {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
     
+    // Incremented on every update; used for optimistic locking and as the ETag of the resource
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
+    
     // Helper method to get full address
     public String getFullAddress() {
         StringBuilder fullAddress = new StringBuilder();
@@ -0,0 +1,63 @@
+package com.example.billing.entity;
+
+import com.example.billing.enums.PdfJobStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Background PDF render of one invoice (a PDF) or several invoices (a ZIP).
+ * Persisted so that queued and interrupted jobs are picked up again after a restart.
+ */
+@Entity
+@Table(name = "pdf_jobs")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PdfJob {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private PdfJobStatus status;
+    
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "invoice_ids", columnDefinition = "jsonb", nullable = false)
+    private List<Long> invoiceIds;
+    
+    // Set once the job completed
+    @Column(name = "result_path", length = 500)
+    private String resultPath;
+    
+    @Column(name = "result_file_name")
+    private String resultFileName;
+    
+    @Column(name = "error_message", length = 1000)
+    private String errorMessage;
+    
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+    
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+    
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+    
+    public boolean isBatch() {
+        return invoiceIds.size() > 1;
+    }
+}
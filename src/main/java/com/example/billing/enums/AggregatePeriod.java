@@ -0,0 +1,16 @@
+package com.example.billing.enums;
+
+public enum AggregatePeriod {
+    DAY,
+    MONTH,
+    QUARTER;
+    
+    // Parses the groupBy request parameter, e.g. "month"
+    public static AggregatePeriod fromParameter(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Unsupported groupBy value: " + value + " (expected day, month or quarter)");
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.billing.enums;
+
+public enum ExportFormat {
+    CSV("text/csv", "csv"),
+    NDJSON("application/x-ndjson", "ndjson");
+    
+    private final String contentType;
+    private final String fileExtension;
+    
+    ExportFormat(String contentType, String fileExtension) {
+        this.contentType = contentType;
+        this.fileExtension = fileExtension;
+    }
+    
+    public String getContentType() {
+        return contentType;
+    }
+    
+    public String getFileExtension() {
+        return fileExtension;
+    }
+    
+    // Parses the format request parameter, e.g. "csv"
+    public static ExportFormat fromParameter(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Unsupported export format: " + value + " (expected csv or ndjson)");
+        }
+    }
+}
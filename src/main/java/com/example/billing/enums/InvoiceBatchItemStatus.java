@@ -0,0 +1,6 @@
+package com.example.billing.enums;
+
+public enum InvoiceBatchItemStatus {
+    CREATED,
+    FAILED
+}
@@ -0,0 +1,11 @@
+package com.example.billing.enums;
+
+/**
+ * How {@code InvoiceNumberService} hands out invoice numbers, see {@code app.invoices.numbering.allocation}.
+ */
+public enum InvoiceNumberAllocation {
+    // Lock the counter row inside the caller's transaction: gapless, but creates run one at a time
+    LOCKED,
+    // Reserve ranges of numbers in short separate transactions and hand them out from memory
+    BLOCK
+}
@@ -0,0 +1,8 @@
+package com.example.billing.enums;
+
+public enum PdfJobStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
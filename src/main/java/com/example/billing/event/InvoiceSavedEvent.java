@@ -0,0 +1,8 @@
+package com.example.billing.event;
+
+/**
+ * Published when an invoice was created or updated. Listeners that need the committed
+ * state should use {@code @TransactionalEventListener}.
+ */
+public record InvoiceSavedEvent(Long invoiceId) {
+}
@@ -0,0 +1,12 @@
+package com.example.billing.exception;
+
+/**
+ * The request owning an {@code Idempotency-Key} has not finished, or the key changed hands while it
+ * was being claimed. Answered with 409; the same request can be retried with the same key.
+ */
+public class IdempotencyKeyConflictException extends RuntimeException {
+    
+    public IdempotencyKeyConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.billing.exception;
+
+/**
+ * An {@code Idempotency-Key} was sent again with a different request than it was first used with.
+ * Answered with 422 so clients can tell it apart from an invalid request body.
+ */
+public class IdempotencyKeyReusedException extends RuntimeException {
+    
+    public IdempotencyKeyReusedException(String message) {
+        super(message);
+    }
+}
@@ -23,11 +23,13 @@ public interface ClientMapper {
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "isActive", ignore = true)
     @Mapping(target = "createdAt", ignore = true)
+    @Mapping(target = "version", ignore = true)
     @Mapping(target = "updatedAt", ignore = true)
     Client toEntity(CreateClientRequestDto requestDto);
     
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "createdAt", ignore = true)
+    @Mapping(target = "version", ignore = true)
     @Mapping(target = "updatedAt", ignore = true)
     void updateEntity(UpdateClientRequestDto requestDto, @MappingTarget Client client);
 }
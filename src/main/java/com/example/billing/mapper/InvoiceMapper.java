@@ -30,6 +30,7 @@ public interface InvoiceMapper {
     @Mapping(target = "totalGstAmount", ignore = true)
     @Mapping(target = "totalAmount", ignore = true)
     @Mapping(target = "createdAt", ignore = true)
+    @Mapping(target = "version", ignore = true)
     @Mapping(target = "lineItems", ignore = true)
     void updateEntityFromDto(UpdateInvoiceRequestDto updateDto, @MappingTarget Invoice invoice);
 }
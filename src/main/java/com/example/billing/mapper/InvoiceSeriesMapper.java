@@ -0,0 +1,20 @@
+package com.example.billing.mapper;
+
+import com.example.billing.dto.series.CreateInvoiceSeriesRequestDto;
+import com.example.billing.dto.series.InvoiceSeriesResponseDto;
+import com.example.billing.entity.InvoiceSeries;
+import org.mapstruct.*;
+
+import java.util.List;
+
+@Mapper(componentModel = "spring")
+public interface InvoiceSeriesMapper {
+    
+    InvoiceSeriesResponseDto toResponseDto(InvoiceSeries series);
+    
+    List<InvoiceSeriesResponseDto> toResponseDtoList(List<InvoiceSeries> series);
+    
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "createdAt", ignore = true)
+    InvoiceSeries toEntity(CreateInvoiceSeriesRequestDto createDto);
+}
@@ -20,12 +20,14 @@ public interface OwnerMapper {
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "isActive", ignore = true)
     @Mapping(target = "createdAt", ignore = true)
+    @Mapping(target = "version", ignore = true)
     @Mapping(target = "updatedAt", ignore = true)
     Owner toEntity(CreateOwnerRequestDto createDto);
     
     @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "createdAt", ignore = true)
+    @Mapping(target = "version", ignore = true)
     @Mapping(target = "updatedAt", ignore = true)
     void updateEntityFromDto(UpdateOwnerRequestDto updateDto, @MappingTarget Owner owner);
 }
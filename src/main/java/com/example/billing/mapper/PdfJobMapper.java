@@ -0,0 +1,13 @@
+package com.example.billing.mapper;
+
+import com.example.billing.dto.pdfjob.PdfJobResponseDto;
+import com.example.billing.entity.PdfJob;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+@Mapper(componentModel = "spring")
+public interface PdfJobMapper {
+    
+    @Mapping(target = "downloadUrl", ignore = true)
+    PdfJobResponseDto toResponseDto(PdfJob job);
+}
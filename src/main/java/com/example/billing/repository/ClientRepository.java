@@ -14,6 +14,9 @@ public interface ClientRepository extends JpaRepository<Client, Long> {
     
     List<Client> findByIsActiveTrue();
     
+    // Reads only the version, to answer conditional GETs
+    Optional<EntityVersion> findVersionById(Long id);
+    
     List<Client> findByClientNameContainingIgnoreCaseAndIsActiveTrue(String clientName);
     
     Optional<Client> findByClientGstNumberAndIsActiveTrue(String gstNumber);
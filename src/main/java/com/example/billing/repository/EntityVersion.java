@@ -0,0 +1,11 @@
+package com.example.billing.repository;
+
+/**
+ * Projection of an entity's id and optimistic lock version, read without loading the entity.
+ */
+public interface EntityVersion {
+    
+    Long getId();
+    
+    Long getVersion();
+}
@@ -0,0 +1,35 @@
+package com.example.billing.repository;
+
+import com.example.billing.entity.IdempotencyKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Repository
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKey, UUID> {
+    
+    // Returns 1 if the key was free or expired and now belongs to the caller's transaction. A concurrent
+    // claim of the same key waits until that transaction ends and then returns 0, or 1 after a rollback.
+    @Modifying
+    @Query(value = "INSERT INTO idempotency_keys (key_hash, request_hash, expires_at) "
+            + "VALUES (:keyHash, :requestHash, :expiresAt) "
+            + "ON CONFLICT (key_hash) DO UPDATE SET request_hash = EXCLUDED.request_hash, invoice_id = NULL, "
+            + "expires_at = EXCLUDED.expires_at WHERE idempotency_keys.expires_at <= :now", nativeQuery = true)
+    int claim(@Param("keyHash") UUID keyHash,
+              @Param("requestHash") byte[] requestHash,
+              @Param("expiresAt") LocalDateTime expiresAt,
+              @Param("now") LocalDateTime now);
+    
+    @Modifying
+    @Query("UPDATE IdempotencyKey k SET k.invoiceId = :invoiceId WHERE k.keyHash = :keyHash")
+    int complete(@Param("keyHash") UUID keyHash, @Param("invoiceId") Long invoiceId);
+    
+    @Modifying
+    @Query(value = "DELETE FROM idempotency_keys WHERE expires_at <= :now", nativeQuery = true)
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -3,11 +3,13 @@ package com.example.billing.repository;
 import com.example.billing.entity.InvoiceCounter;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import jakarta.persistence.LockModeType;
+import java.time.LocalDateTime;
 import java.util.Optional;
 
 @Repository
@@ -18,4 +20,11 @@ public interface InvoiceCounterRepository extends JpaRepository<InvoiceCounter,
     Optional<InvoiceCounter> findByYearWithLock(@Param("year") Integer year);
     
     Optional<InvoiceCounter> findByYear(Integer year);
+    
+    // Moves the counter back to the last issued number, unless it was advanced past the reserved block
+    @Modifying
+    @Query("UPDATE InvoiceCounter ic SET ic.currentSequence = :lastIssued, ic.lastUpdated = :now "
+            + "WHERE ic.year = :year AND ic.currentSequence = :reservedEnd")
+    int releaseBlock(@Param("year") Integer year, @Param("reservedEnd") Long reservedEnd,
+                     @Param("lastIssued") Long lastIssued, @Param("now") LocalDateTime now);
 }
@@ -0,0 +1,51 @@
+package com.example.billing.repository;
+
+import com.example.billing.entity.InvoiceDailyRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface InvoiceDailyRollupRepository extends JpaRepository<InvoiceDailyRollup, InvoiceDailyRollup.Key>,
+        InvoiceDailyRollupRepositoryCustom {
+    
+    // Moves every committed delta into the rollups in one statement. Rows are upserted in key order so
+    // two concurrent folds cannot deadlock; a delta is only ever deleted, and so added, by one of them.
+    @Modifying
+    @Query(value = "WITH folded AS (DELETE FROM invoice_rollup_deltas "
+            + "RETURNING rollup_date, status, invoice_count, subtotal_amount, cgst_amount, sgst_amount, total_amount) "
+            + "INSERT INTO invoice_daily_rollups "
+            + "(rollup_date, status, invoice_count, subtotal_amount, cgst_amount, sgst_amount, total_amount) "
+            + "SELECT rollup_date, status, SUM(invoice_count), SUM(subtotal_amount), SUM(cgst_amount), "
+            + "SUM(sgst_amount), SUM(total_amount) "
+            + "FROM folded GROUP BY rollup_date, status ORDER BY rollup_date, status "
+            + "ON CONFLICT (rollup_date, status) DO UPDATE SET "
+            + "invoice_count = invoice_daily_rollups.invoice_count + EXCLUDED.invoice_count, "
+            + "subtotal_amount = invoice_daily_rollups.subtotal_amount + EXCLUDED.subtotal_amount, "
+            + "cgst_amount = invoice_daily_rollups.cgst_amount + EXCLUDED.cgst_amount, "
+            + "sgst_amount = invoice_daily_rollups.sgst_amount + EXCLUDED.sgst_amount, "
+            + "total_amount = invoice_daily_rollups.total_amount + EXCLUDED.total_amount", nativeQuery = true)
+    int foldDeltas();
+    
+    @Modifying
+    @Query(value = "DELETE FROM invoice_daily_rollups WHERE invoice_count = 0", nativeQuery = true)
+    int deleteEmpty();
+    
+    // Blocks invoice writes until the surrounding transaction ends, so a rebuild sees a stable table
+    @Modifying
+    @Query(value = "LOCK TABLE invoices IN SHARE MODE", nativeQuery = true)
+    void lockInvoicesForRebuild();
+    
+    @Modifying
+    @Query(value = "DELETE FROM invoice_daily_rollups", nativeQuery = true)
+    int deleteAllRollups();
+    
+    @Modifying
+    @Query(value = "INSERT INTO invoice_daily_rollups "
+            + "(rollup_date, status, invoice_count, subtotal_amount, cgst_amount, sgst_amount, total_amount) "
+            + "SELECT invoice_date, status, COUNT(*), COALESCE(SUM(subtotal_amount), 0), COALESCE(SUM(cgst_amount), 0), "
+            + "COALESCE(SUM(sgst_amount), 0), COALESCE(SUM(total_amount), 0) "
+            + "FROM invoices GROUP BY invoice_date, status", nativeQuery = true)
+    int insertFromInvoices();
+}
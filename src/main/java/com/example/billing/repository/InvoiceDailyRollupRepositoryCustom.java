@@ -0,0 +1,14 @@
+package com.example.billing.repository;
+
+import com.example.billing.dto.report.RevenueReportRowDto;
+import com.example.billing.enums.AggregatePeriod;
+import com.example.billing.enums.InvoiceStatus;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface InvoiceDailyRollupRepositoryCustom {
+    
+    // Sums the daily rollups per period and status; every argument except period may be null
+    List<RevenueReportRowDto> sumByPeriod(AggregatePeriod period, InvoiceStatus status, LocalDate startDate, LocalDate endDate);
+}
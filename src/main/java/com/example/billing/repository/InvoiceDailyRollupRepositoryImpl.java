@@ -0,0 +1,69 @@
+package com.example.billing.repository;
+
+import com.example.billing.dto.report.RevenueReportRowDto;
+import com.example.billing.enums.AggregatePeriod;
+import com.example.billing.enums.InvoiceStatus;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.query.NativeQuery;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+class InvoiceDailyRollupRepositoryImpl implements InvoiceDailyRollupRepositoryCustom {
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Override
+    public List<RevenueReportRowDto> sumByPeriod(AggregatePeriod period, InvoiceStatus status, LocalDate startDate, LocalDate endDate) {
+        // Deltas not folded in yet are added so reports include every committed invoice change.
+        // The truncation unit comes from the enum only; everything else is bound.
+        StringBuilder filters = new StringBuilder(" WHERE 1 = 1");
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        
+        if (status != null) {
+            filters.append(" AND status = :status");
+            parameters.put("status", status.name());
+        }
+        if (startDate != null) {
+            filters.append(" AND rollup_date >= :startDate");
+            parameters.put("startDate", startDate);
+        }
+        if (endDate != null) {
+            filters.append(" AND rollup_date <= :endDate");
+            parameters.put("endDate", endDate);
+        }
+        String columns = "rollup_date, status, invoice_count, subtotal_amount, cgst_amount, sgst_amount, total_amount";
+        String sql = "SELECT CAST(date_trunc('" + period.name().toLowerCase() + "', rollup_date) AS date) AS period, status, "
+                + "SUM(invoice_count) AS invoice_count, SUM(subtotal_amount) AS subtotal_amount, "
+                + "SUM(cgst_amount) AS cgst_amount, SUM(sgst_amount) AS sgst_amount, SUM(total_amount) AS total_amount "
+                + "FROM (SELECT " + columns + " FROM invoice_daily_rollups" + filters
+                + " UNION ALL SELECT " + columns + " FROM invoice_rollup_deltas" + filters + ") AS rollups "
+                + "GROUP BY 1, 2 HAVING SUM(invoice_count) > 0 ORDER BY 1, 2";
+        
+        NativeQuery<?> query = entityManager.createNativeQuery(sql).unwrap(NativeQuery.class);
+        query.addScalar("period", LocalDate.class)
+                .addScalar("status", String.class)
+                .addScalar("invoice_count", Long.class)
+                .addScalar("subtotal_amount", BigDecimal.class)
+                .addScalar("cgst_amount", BigDecimal.class)
+                .addScalar("sgst_amount", BigDecimal.class)
+                .addScalar("total_amount", BigDecimal.class);
+        parameters.forEach(query::setParameter);
+        
+        return query.setTupleTransformer((row, aliases) -> RevenueReportRowDto.builder()
+                        .period((LocalDate) row[0])
+                        .status(InvoiceStatus.valueOf((String) row[1]))
+                        .count((Long) row[2])
+                        .subtotalAmount((BigDecimal) row[3])
+                        .cgstAmount((BigDecimal) row[4])
+                        .sgstAmount((BigDecimal) row[5])
+                        .totalAmount((BigDecimal) row[6])
+                        .build())
+                .getResultList();
+    }
+}
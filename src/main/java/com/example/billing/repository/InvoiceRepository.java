@@ -1,39 +1,30 @@
 package com.example.billing.repository;
 
 import com.example.billing.entity.Invoice;
-import com.example.billing.enums.InvoiceStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface InvoiceRepository extends JpaRepository<Invoice, Long> {
+public interface InvoiceRepository extends JpaRepository<Invoice, Long>, InvoiceRepositoryCustom {
     
     Optional<Invoice> findByInvoiceNumber(String invoiceNumber);
     
-    // Get all invoices ordered by ID descending (newest first)
-    List<Invoice> findAllByOrderByIdDesc();
-    
-    List<Invoice> findByStatusOrderByIdDesc(InvoiceStatus status);
-    
-    // Date filtering methods
-    List<Invoice> findByInvoiceDateBetweenOrderByIdDesc(LocalDate startDate, LocalDate endDate);
-    
-    List<Invoice> findByStatusAndInvoiceDateBetweenOrderByIdDesc(InvoiceStatus status, LocalDate startDate, LocalDate endDate);
+    // Reads only the version, to answer conditional GETs
+    Optional<EntityVersion> findVersionById(Long id);
     
-    List<Invoice> findByInvoiceDateOrderByIdDesc(LocalDate invoiceDate);
+    // Which of the given ids exist, without loading the invoices
+    @Query("SELECT i.id FROM Invoice i WHERE i.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
     
-    List<Invoice> findByStatusAndInvoiceDateOrderByIdDesc(InvoiceStatus status, LocalDate invoiceDate);
-    
-    // Due date filtering methods
-    List<Invoice> findByDueDateBetweenOrderByIdDesc(LocalDate startDate, LocalDate endDate);
-    
-    List<Invoice> findByStatusAndDueDateBetweenOrderByIdDesc(InvoiceStatus status, LocalDate startDate, LocalDate endDate);
+    // Get all invoices ordered by ID descending (newest first). Filtered lists go through
+    // InvoiceRepositoryCustom#findByFilter.
+    List<Invoice> findAllByOrderByIdDesc();
     
     // Find invoices by customer name (useful for search)
     List<Invoice> findByCustomerNameContainingIgnoreCaseOrderByIdDesc(String customerName);
@@ -41,15 +32,18 @@ public interface InvoiceRepository extends JpaRepository<Invoice, Long> {
     // Find invoices by customer email
     List<Invoice> findByCustomerEmailOrderByIdDesc(String customerEmail);
     
+    // Line item containment queries are served by idx_invoices_line_items (db/migration/V8). The JSON
+    // document is built with jsonb_build_object because a parameter inside a string literal is never bound.
+    
     // Check if any invoice line items contain a specific product (using JSON query)
-    @Query(value = "SELECT COUNT(*) > 0 FROM invoices WHERE line_items @> '[{\"productId\": ?1}]'", nativeQuery = true)
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM invoices WHERE line_items @> jsonb_build_array(jsonb_build_object('productId', CAST(?1 AS bigint))))", nativeQuery = true)
     boolean existsByProductId(Long productId);
     
     // Find invoices containing a specific product (using JSON query)
-    @Query(value = "SELECT * FROM invoices WHERE line_items @> '[{\"productId\": ?1}]' ORDER BY id DESC", nativeQuery = true)
+    @Query(value = "SELECT * FROM invoices WHERE line_items @> jsonb_build_array(jsonb_build_object('productId', CAST(?1 AS bigint))) ORDER BY id DESC", nativeQuery = true)
     List<Invoice> findByProductId(Long productId);
     
     // Search invoices by product name in line items (using JSON query)
-    @Query(value = "SELECT * FROM invoices WHERE line_items @> '[{\"productName\": ?1}]' ORDER BY id DESC", nativeQuery = true)
+    @Query(value = "SELECT * FROM invoices WHERE line_items @> jsonb_build_array(jsonb_build_object('productName', CAST(?1 AS text))) ORDER BY id DESC", nativeQuery = true)
     List<Invoice> findByProductName(String productName);
 }
@@ -0,0 +1,53 @@
+package com.example.billing.repository;
+
+import com.example.billing.dto.invoice.InvoiceAggregateDto;
+import com.example.billing.dto.invoice.InvoiceFilterDto;
+import com.example.billing.dto.invoice.InvoiceSearchResultDto;
+import com.example.billing.dto.invoice.InvoiceSummaryDto;
+import com.example.billing.dto.report.ProductSalesRowDto;
+import com.example.billing.entity.Invoice;
+import com.example.billing.enums.AggregatePeriod;
+import com.example.billing.enums.InvoiceStatus;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Invoice list queries built from an {@link InvoiceFilterDto}. Results are ordered newest first;
+ * {@code beforeId} continues after the last invoice of a previous page and may be null.
+ * The filter's {@code dateFilter} must already be resolved into a start and end date.
+ */
+public interface InvoiceRepositoryCustom {
+    
+    List<Invoice> findByFilter(InvoiceFilterDto filter, Long beforeId, Limit limit);
+    
+    /**
+     * Streams every matching invoice, newest first, fetching rows from the database in batches.
+     * Invoices are detached once read, so memory use does not grow with the result. Must be
+     * consumed and closed within a transaction.
+     */
+    Stream<Invoice> streamByFilter(InvoiceFilterDto filter);
+    
+    // Selects only the ids, for callers that load and process one invoice at a time
+    List<Long> findIdsByFilter(InvoiceFilterDto filter, Long beforeId, Limit limit);
+    
+    // Selects only the summary columns; line items are never loaded
+    List<InvoiceSummaryDto> findSummariesByFilter(InvoiceFilterDto filter, Long beforeId, Limit limit);
+    
+    /**
+     * Invoices whose customer name, phone, GST number or invoice number contain the query or
+     * closely resemble it, best match first. The query must be lower case.
+     */
+    List<InvoiceSearchResultDto> search(String query, int limit);
+    
+    // Counts and amount sums per invoice date period and status, ordered by period then status
+    List<InvoiceAggregateDto> aggregateByFilter(InvoiceFilterDto filter, AggregatePeriod period);
+    
+    /**
+     * Quantity sold, revenue and number of invoices per product over the line items of the matching
+     * invoices, highest revenue first. Status and both dates are optional.
+     */
+    List<ProductSalesRowDto> productSales(InvoiceStatus status, LocalDate startDate, LocalDate endDate);
+}
@@ -0,0 +1,264 @@
+package com.example.billing.repository;
+
+import com.example.billing.dto.invoice.InvoiceAggregateDto;
+import com.example.billing.dto.invoice.InvoiceFilterDto;
+import com.example.billing.dto.invoice.InvoiceSearchResultDto;
+import com.example.billing.dto.invoice.InvoiceSummaryDto;
+import com.example.billing.dto.report.ProductSalesRowDto;
+import com.example.billing.entity.Invoice;
+import com.example.billing.enums.AggregatePeriod;
+import com.example.billing.enums.InvoiceStatus;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.jpa.AvailableHints;
+import org.hibernate.query.NativeQuery;
+import org.springframework.data.domain.Limit;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Criteria implementation of {@link InvoiceRepositoryCustom}. Predicates are only added for the
+ * filters that are set, so each combination maps onto one of the composite indexes on
+ * {@code invoices} (see the db/migration scripts).
+ */
+class InvoiceRepositoryImpl implements InvoiceRepositoryCustom {
+    
+    // Must match the expression of idx_invoices_search_trgm (db/migration/V7)
+    private static final String SEARCH_DOCUMENT =
+            "lower(customer_name || ' ' || customer_phone || ' ' || coalesce(customer_gst_number, '') || ' ' || invoice_number)";
+    
+    private static final int STREAM_FETCH_SIZE = 500;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Override
+    public List<Invoice> findByFilter(InvoiceFilterDto filter, Long beforeId, Limit limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Invoice> query = cb.createQuery(Invoice.class);
+        Root<Invoice> invoice = query.from(Invoice.class);
+        
+        query.select(invoice)
+                .where(predicates(cb, invoice, filter, beforeId))
+                .orderBy(cb.desc(invoice.get("id")));
+        return limited(entityManager.createQuery(query), limit).getResultList();
+    }
+    
+    @Override
+    public Stream<Invoice> streamByFilter(InvoiceFilterDto filter) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Invoice> query = cb.createQuery(Invoice.class);
+        Root<Invoice> invoice = query.from(Invoice.class);
+        
+        query.select(invoice)
+                .where(predicates(cb, invoice, filter, null))
+                .orderBy(cb.desc(invoice.get("id")));
+        // The PostgreSQL driver only honours the fetch size inside a transaction; without it the whole
+        // result is buffered. Invoices have no lazy state, so each one can be detached as soon as it is read.
+        return entityManager.createQuery(query)
+                .setHint(AvailableHints.HINT_FETCH_SIZE, STREAM_FETCH_SIZE)
+                .setHint(AvailableHints.HINT_READ_ONLY, true)
+                .getResultStream()
+                .peek(entityManager::detach);
+    }
+    
+    @Override
+    public List<Long> findIdsByFilter(InvoiceFilterDto filter, Long beforeId, Limit limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Invoice> invoice = query.from(Invoice.class);
+        
+        query.select(invoice.get("id"))
+                .where(predicates(cb, invoice, filter, beforeId))
+                .orderBy(cb.desc(invoice.get("id")));
+        return limited(entityManager.createQuery(query), limit).getResultList();
+    }
+    
+    @Override
+    public List<InvoiceSummaryDto> findSummariesByFilter(InvoiceFilterDto filter, Long beforeId, Limit limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<InvoiceSummaryDto> query = cb.createQuery(InvoiceSummaryDto.class);
+        Root<Invoice> invoice = query.from(Invoice.class);
+        
+        query.select(cb.construct(InvoiceSummaryDto.class,
+                        invoice.get("id"),
+                        invoice.get("invoiceNumber"),
+                        invoice.get("customerName"),
+                        invoice.get("invoiceDate"),
+                        invoice.get("status"),
+                        invoice.get("totalAmount")))
+                .where(predicates(cb, invoice, filter, beforeId))
+                .orderBy(cb.desc(invoice.get("id")));
+        return limited(entityManager.createQuery(query), limit).getResultList();
+    }
+    
+    @Override
+    public List<InvoiceSearchResultDto> search(String query, int limit) {
+        // Substring matches and fuzzy word matches (typos) can both be answered from the trigram index
+        String sql = "SELECT id, invoice_number, customer_name, customer_phone, customer_gst_number, invoice_date, status, "
+                + "total_amount, word_similarity(:query, " + SEARCH_DOCUMENT + ") AS score "
+                + "FROM invoices "
+                + "WHERE " + SEARCH_DOCUMENT + " LIKE :pattern ESCAPE '\\' OR :query <% " + SEARCH_DOCUMENT + " "
+                + "ORDER BY score DESC, id DESC "
+                + "LIMIT :limit";
+        
+        NativeQuery<?> nativeQuery = entityManager.createNativeQuery(sql).unwrap(NativeQuery.class);
+        nativeQuery.addScalar("id", Long.class)
+                .addScalar("invoice_number", String.class)
+                .addScalar("customer_name", String.class)
+                .addScalar("customer_phone", String.class)
+                .addScalar("customer_gst_number", String.class)
+                .addScalar("invoice_date", LocalDate.class)
+                .addScalar("status", String.class)
+                .addScalar("total_amount", BigDecimal.class)
+                .addScalar("score", Double.class);
+        nativeQuery.setParameter("query", query);
+        nativeQuery.setParameter("pattern", "%" + escapeLike(query) + "%");
+        nativeQuery.setParameter("limit", limit);
+        
+        return nativeQuery.setTupleTransformer((row, aliases) -> InvoiceSearchResultDto.builder()
+                        .id((Long) row[0])
+                        .invoiceNumber((String) row[1])
+                        .customerName((String) row[2])
+                        .customerPhone((String) row[3])
+                        .customerGstNumber((String) row[4])
+                        .invoiceDate((LocalDate) row[5])
+                        .status(InvoiceStatus.valueOf((String) row[6]))
+                        .totalAmount((BigDecimal) row[7])
+                        .score((Double) row[8])
+                        .build())
+                .getResultList();
+    }
+    
+    @Override
+    public List<InvoiceAggregateDto> aggregateByFilter(InvoiceFilterDto filter, AggregatePeriod period) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<InvoiceAggregateDto> query = cb.createQuery(InvoiceAggregateDto.class);
+        Root<Invoice> invoice = query.from(Invoice.class);
+        
+        // date_trunc returns a timestamp; the unit comes from the enum only
+        Expression<LocalDate> periodStart = cb.function("date_trunc", LocalDateTime.class,
+                        cb.literal(period.name().toLowerCase()), invoice.get("invoiceDate"))
+                .as(LocalDate.class);
+        Path<InvoiceStatus> status = invoice.get("status");
+        
+        query.select(cb.construct(InvoiceAggregateDto.class,
+                        periodStart,
+                        status,
+                        cb.count(invoice),
+                        cb.coalesce(cb.sum(invoice.get("subtotalAmount")), BigDecimal.ZERO),
+                        cb.coalesce(cb.sum(invoice.get("totalGstAmount")), BigDecimal.ZERO),
+                        cb.coalesce(cb.sum(invoice.get("totalAmount")), BigDecimal.ZERO)))
+                .where(predicates(cb, invoice, filter, null))
+                .groupBy(periodStart, status)
+                .orderBy(cb.asc(periodStart), cb.asc(status));
+        return entityManager.createQuery(query).getResultList();
+    }
+    
+    @Override
+    public List<ProductSalesRowDto> productSales(InvoiceStatus status, LocalDate startDate, LocalDate endDate) {
+        // Line items are unpacked in the database; catalog products group by id, custom products by name
+        StringBuilder sql = new StringBuilder("SELECT item.\"productId\" AS product_id, "
+                + "MAX(item.\"productName\") AS product_name, "
+                + "COALESCE(SUM(item.quantity), 0) AS quantity, "
+                + "COALESCE(SUM(item.\"lineTotal\"), 0) AS revenue, "
+                + "COUNT(DISTINCT i.id) AS invoice_count "
+                + "FROM invoices i "
+                + "CROSS JOIN LATERAL jsonb_to_recordset(i.line_items) "
+                + "AS item(\"productId\" bigint, \"productName\" text, quantity integer, \"lineTotal\" numeric) "
+                + "WHERE 1 = 1");
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        
+        if (status != null) {
+            sql.append(" AND i.status = :status");
+            parameters.put("status", status.name());
+        }
+        if (startDate != null) {
+            sql.append(" AND i.invoice_date >= :startDate");
+            parameters.put("startDate", startDate);
+        }
+        if (endDate != null) {
+            sql.append(" AND i.invoice_date <= :endDate");
+            parameters.put("endDate", endDate);
+        }
+        sql.append(" GROUP BY item.\"productId\", CASE WHEN item.\"productId\" IS NULL THEN item.\"productName\" END"
+                + " ORDER BY revenue DESC, product_name");
+        
+        NativeQuery<?> query = entityManager.createNativeQuery(sql.toString()).unwrap(NativeQuery.class);
+        query.addScalar("product_id", Long.class)
+                .addScalar("product_name", String.class)
+                .addScalar("quantity", Long.class)
+                .addScalar("revenue", BigDecimal.class)
+                .addScalar("invoice_count", Long.class);
+        parameters.forEach(query::setParameter);
+        
+        return query.setTupleTransformer((row, aliases) -> ProductSalesRowDto.builder()
+                        .productId((Long) row[0])
+                        .productName((String) row[1])
+                        .quantity((Long) row[2])
+                        .revenue((BigDecimal) row[3])
+                        .invoiceCount((Long) row[4])
+                        .build())
+                .getResultList();
+    }
+    
+    private Predicate[] predicates(CriteriaBuilder cb, Root<Invoice> invoice, InvoiceFilterDto filter, Long beforeId) {
+        List<Predicate> predicates = new ArrayList<>();
+        
+        if (filter.getStatus() != null) {
+            predicates.add(cb.equal(invoice.get("status"), filter.getStatus()));
+        }
+        if (filter.getStartDate() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(invoice.get("invoiceDate"), filter.getStartDate()));
+        }
+        if (filter.getEndDate() != null) {
+            predicates.add(cb.lessThanOrEqualTo(invoice.get("invoiceDate"), filter.getEndDate()));
+        }
+        if (filter.getDueStartDate() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(invoice.get("dueDate"), filter.getDueStartDate()));
+        }
+        if (filter.getDueEndDate() != null) {
+            predicates.add(cb.lessThanOrEqualTo(invoice.get("dueDate"), filter.getDueEndDate()));
+        }
+        if (filter.getCustomer() != null && !filter.getCustomer().isBlank()) {
+            String pattern = "%" + escapeLike(filter.getCustomer().trim().toLowerCase()) + "%";
+            predicates.add(cb.like(cb.lower(invoice.get("customerName")), pattern, '\\'));
+        }
+        if (filter.getMinAmount() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(invoice.get("totalAmount"), filter.getMinAmount()));
+        }
+        if (filter.getMaxAmount() != null) {
+            predicates.add(cb.lessThanOrEqualTo(invoice.get("totalAmount"), filter.getMaxAmount()));
+        }
+        if (beforeId != null) {
+            predicates.add(cb.lessThan(invoice.get("id"), beforeId));
+        }
+        
+        return predicates.toArray(new Predicate[0]);
+    }
+    
+    private <T> TypedQuery<T> limited(TypedQuery<T> query, Limit limit) {
+        if (limit.isLimited()) {
+            query.setMaxResults(limit.max());
+        }
+        return query;
+    }
+    
+    private String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.billing.repository;
+
+import com.example.billing.entity.InvoiceRollupDelta;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Repository
+public interface InvoiceRollupDeltaRepository extends JpaRepository<InvoiceRollupDelta, Long> {
+    
+    // A plain insert: no row is shared with other writers, so nothing is locked until commit
+    @Modifying
+    @Query(value = "INSERT INTO invoice_rollup_deltas "
+            + "(rollup_date, status, invoice_count, subtotal_amount, cgst_amount, sgst_amount, total_amount) "
+            + "VALUES (:rollupDate, :status, :invoiceCount, :subtotalAmount, :cgstAmount, :sgstAmount, :totalAmount)",
+            nativeQuery = true)
+    void insertDelta(@Param("rollupDate") LocalDate rollupDate,
+                     @Param("status") String status,
+                     @Param("invoiceCount") long invoiceCount,
+                     @Param("subtotalAmount") BigDecimal subtotalAmount,
+                     @Param("cgstAmount") BigDecimal cgstAmount,
+                     @Param("sgstAmount") BigDecimal sgstAmount,
+                     @Param("totalAmount") BigDecimal totalAmount);
+    
+    @Modifying
+    @Query(value = "DELETE FROM invoice_rollup_deltas", nativeQuery = true)
+    int deleteAllDeltas();
+}
@@ -0,0 +1,20 @@
+package com.example.billing.repository;
+
+import com.example.billing.entity.InvoiceSeries;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface InvoiceSeriesRepository extends JpaRepository<InvoiceSeries, Long> {
+    
+    Optional<InvoiceSeries> findByCode(String code);
+    
+    List<InvoiceSeries> findAllByOrderByCodeAsc();
+    
+    boolean existsByCode(String code);
+    
+    boolean existsByPrefix(String prefix);
+}
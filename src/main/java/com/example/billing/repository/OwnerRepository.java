@@ -12,4 +12,9 @@ public interface OwnerRepository extends JpaRepository<Owner, Long> {
     Optional<Owner> findByIsActiveTrue();
     
     boolean existsByIsActiveTrue();
+    
+    // Read only the id and version, to answer conditional GETs
+    Optional<EntityVersion> findVersionById(Long id);
+    
+    Optional<EntityVersion> findVersionByIsActiveTrue();
 }
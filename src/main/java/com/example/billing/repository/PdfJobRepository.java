@@ -0,0 +1,24 @@
+package com.example.billing.repository;
+
+import com.example.billing.entity.PdfJob;
+import com.example.billing.enums.PdfJobStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface PdfJobRepository extends JpaRepository<PdfJob, Long> {
+    
+    List<PdfJob> findByStatusInOrderByIdAsc(Collection<PdfJobStatus> statuses);
+    
+    // Only finished jobs have a completion time, so queued and running jobs are never removed
+    @Modifying
+    @Query("DELETE FROM PdfJob j WHERE j.completedAt < :cutoff")
+    int deleteCompletedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -2,11 +2,20 @@ package com.example.billing.repository;
 
 import com.example.billing.entity.Product;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
     List<Product> findByNameContainingIgnoreCase(String name);
+    
+    // Reads only the version, to answer conditional GETs
+    Optional<EntityVersion> findVersionById(Long id);
+    
+    // Changes whenever a product is created (max id), deleted (count) or updated (sum of versions)
+    @Query(value = "SELECT COUNT(*) || '-' || COALESCE(MAX(id), 0) || '-' || COALESCE(SUM(version), 0) FROM products", nativeQuery = true)
+    String findCatalogVersion();
 }
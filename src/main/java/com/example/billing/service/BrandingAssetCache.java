@@ -0,0 +1,174 @@
+package com.example.billing.service;
+
+import com.example.billing.dto.owner.OwnerResponseDto;
+import com.itextpdf.io.image.ImageData;
+import com.itextpdf.io.image.ImageDataFactory;
+import com.itextpdf.styledxmlparser.resolver.resource.DefaultResourceRetriever;
+import com.itextpdf.styledxmlparser.resolver.resource.IResourceRetriever;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.ImageIO;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.Base64;
+import java.util.Objects;
+
+/**
+ * Decoded owner branding images shared by all PDF renders.
+ * The signature is stored as base64 on the owner and can be up to 10 MB; it is decoded,
+ * scaled down to what the invoice can show and re-encoded as PNG once per owner version
+ * instead of once per render.
+ */
+@Component
+@Slf4j
+public class BrandingAssetCache {
+    
+    // Host the HTML template uses to reference cached images; never resolved over the network
+    private static final String ASSET_HOST = "branding.invalid";
+    private static final String SIGNATURE_PATH = "/signature.png";
+    
+    // Signature is shown at most 100x50 pt; keep 4x that for print quality
+    private static final int MAX_SIGNATURE_WIDTH = 400;
+    private static final int MAX_SIGNATURE_HEIGHT = 200;
+    
+    private final IResourceRetriever defaultRetriever = new DefaultResourceRetriever();
+    
+    private volatile BrandingAssets current;
+    
+    /**
+     * Returns the decoded assets for the owner, decoding them only when the owner changed.
+     */
+    public BrandingAssets getAssets(OwnerResponseDto owner) {
+        if (owner == null) {
+            return BrandingAssets.EMPTY;
+        }
+        
+        String version = versionOf(owner);
+        BrandingAssets assets = current;
+        if (assets != null && assets.version().equals(version)) {
+            return assets;
+        }
+        
+        synchronized (this) {
+            assets = current;
+            if (assets == null || !assets.version().equals(version)) {
+                assets = load(owner, version);
+                current = assets;
+            }
+            return assets;
+        }
+    }
+    
+    /**
+     * Drops the decoded assets, e.g. when the owner was updated.
+     */
+    public void invalidate() {
+        current = null;
+        log.debug("Invalidated cached branding assets");
+    }
+    
+    /**
+     * URL the HTML template uses for the cached signature, or null when there is none.
+     */
+    public String signatureUrl(BrandingAssets assets) {
+        return assets.signaturePng() != null ? "https://" + ASSET_HOST + SIGNATURE_PATH : null;
+    }
+    
+    /**
+     * Resource retriever for a single html2pdf conversion that serves the cached images
+     * and falls back to the default retriever for everything else.
+     */
+    public IResourceRetriever createResourceRetriever(BrandingAssets assets) {
+        return new IResourceRetriever() {
+            @Override
+            public InputStream getInputStreamByUrl(URL url) throws IOException {
+                byte[] asset = assetFor(url);
+                return asset != null ? new ByteArrayInputStream(asset) : defaultRetriever.getInputStreamByUrl(url);
+            }
+            
+            @Override
+            public byte[] getByteArrayByUrl(URL url) throws IOException {
+                byte[] asset = assetFor(url);
+                return asset != null ? asset : defaultRetriever.getByteArrayByUrl(url);
+            }
+            
+            private byte[] assetFor(URL url) {
+                if (ASSET_HOST.equals(url.getHost()) && SIGNATURE_PATH.equals(url.getPath())) {
+                    return assets.signaturePng();
+                }
+                return null;
+            }
+        };
+    }
+    
+    private BrandingAssets load(OwnerResponseDto owner, String version) {
+        String signatureBase64 = owner.getSignatureBase64();
+        if (signatureBase64 == null || signatureBase64.isEmpty()) {
+            return new BrandingAssets(version, null, null);
+        }
+        
+        long start = System.nanoTime();
+        try {
+            byte[] decoded = Base64.getMimeDecoder().decode(signatureBase64);
+            byte[] normalized = normalize(decoded);
+            BrandingAssets assets = new BrandingAssets(version, normalized, ImageDataFactory.create(normalized));
+            log.debug("Decoded signature for owner {}: {} -> {} bytes in {} ms", owner.getId(), decoded.length,
+                    normalized.length, (System.nanoTime() - start) / 1_000_000);
+            return assets;
+        } catch (Exception e) {
+            // Leave the signature to the renderers' inline fallback, as before
+            log.warn("Could not decode signature of owner {}: {}", owner.getId(), e.getMessage());
+            return new BrandingAssets(version, null, null);
+        }
+    }
+    
+    // Scales the image down to the largest size the invoice shows and re-encodes it as PNG
+    private byte[] normalize(byte[] imageBytes) throws IOException {
+        BufferedImage source = ImageIO.read(new ByteArrayInputStream(imageBytes));
+        if (source == null) {
+            throw new IOException("Unsupported image format");
+        }
+        
+        double scale = Math.min(1.0, Math.min((double) MAX_SIGNATURE_WIDTH / source.getWidth(),
+                (double) MAX_SIGNATURE_HEIGHT / source.getHeight()));
+        int width = Math.max(1, (int) Math.round(source.getWidth() * scale));
+        int height = Math.max(1, (int) Math.round(source.getHeight() * scale));
+        
+        BufferedImage target = new BufferedImage(width, height,
+                source.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ImageIO.write(target, "png", outputStream);
+        return outputStream.toByteArray();
+    }
+    
+    // Owner id and last update identify a version; the length guards against updates within the timestamp resolution
+    private String versionOf(OwnerResponseDto owner) {
+        String signature = owner.getSignatureBase64();
+        return owner.getId() + ":" + Objects.toString(owner.getUpdatedAt()) + ":" + (signature != null ? signature.length() : -1);
+    }
+    
+    /**
+     * Branding images of one owner version. The image data is immutable and may be
+     * embedded into any number of documents.
+     */
+    public record BrandingAssets(String version, byte[] signaturePng, ImageData signatureImage) {
+        
+        static final BrandingAssets EMPTY = new BrandingAssets("", null, null);
+    }
+}
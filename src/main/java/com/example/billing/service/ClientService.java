@@ -6,12 +6,14 @@ import com.example.billing.dto.client.UpdateClientRequestDto;
 import com.example.billing.entity.Client;
 import com.example.billing.mapper.ClientMapper;
 import com.example.billing.repository.ClientRepository;
+import com.example.billing.repository.EntityVersion;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
@@ -29,6 +31,12 @@ public class ClientService {
         return clientMapper.toResponseDtoList(clients);
     }
     
+    // Reads only the id and version, for conditional GETs
+    @Transactional(readOnly = true)
+    public Optional<EntityVersion> getClientVersion(Long id) {
+        return clientRepository.findVersionById(id);
+    }
+    
     @Transactional(readOnly = true)
     public ClientResponseDto getClientById(Long id) {
         log.debug("Fetching client with id: {}", id);
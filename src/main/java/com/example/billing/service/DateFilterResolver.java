@@ -0,0 +1,93 @@
+package com.example.billing.service;
+
+import com.example.billing.dto.invoice.InvoiceFilterDto;
+import org.springframework.stereotype.Component;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+
+/**
+ * Resolves the named invoice date ranges ("today", "this_month", "last_quarter", ...) that the
+ * list, export, aggregate and report endpoints accept as {@code dateFilter}.
+ */
+@Component
+public class DateFilterResolver {
+    
+    /**
+     * Returns a copy of the filter with a named {@code dateFilter} replaced by the start and end
+     * date it stands for. Without a named range the given dates are kept.
+     */
+    public InvoiceFilterDto resolve(InvoiceFilterDto filter) {
+        String dateFilter = filter.getDateFilter();
+        LocalDate filterStartDate = filter.getStartDate();
+        LocalDate filterEndDate = filter.getEndDate();
+        
+        if (dateFilter != null && !dateFilter.isEmpty()) {
+            LocalDate today = LocalDate.now();
+            switch (dateFilter.toLowerCase()) {
+                case "today":
+                    filterStartDate = today;
+                    filterEndDate = today;
+                    break;
+                case "yesterday":
+                    filterStartDate = today.minusDays(1);
+                    filterEndDate = today.minusDays(1);
+                    break;
+                case "this_week":
+                    filterStartDate = today.with(DayOfWeek.MONDAY);
+                    filterEndDate = today.with(DayOfWeek.SUNDAY);
+                    break;
+                case "last_week":
+                    filterStartDate = today.minusWeeks(1).with(DayOfWeek.MONDAY);
+                    filterEndDate = today.minusWeeks(1).with(DayOfWeek.SUNDAY);
+                    break;
+                case "this_month":
+                    filterStartDate = today.withDayOfMonth(1);
+                    filterEndDate = today.withDayOfMonth(today.lengthOfMonth());
+                    break;
+                case "last_month":
+                    LocalDate lastMonth = today.minusMonths(1);
+                    filterStartDate = lastMonth.withDayOfMonth(1);
+                    filterEndDate = lastMonth.withDayOfMonth(lastMonth.lengthOfMonth());
+                    break;
+                case "this_quarter":
+                    int currentQuarter = (today.getMonthValue() - 1) / 3;
+                    filterStartDate = today.withMonth(currentQuarter * 3 + 1).withDayOfMonth(1);
+                    filterEndDate = filterStartDate.plusMonths(2).withDayOfMonth(filterStartDate.plusMonths(2).lengthOfMonth());
+                    break;
+                case "last_quarter":
+                    int lastQuarter = (today.getMonthValue() - 1) / 3 - 1;
+                    if (lastQuarter < 0) {
+                        lastQuarter = 3;
+                        filterStartDate = today.minusYears(1).withMonth(lastQuarter * 3 + 1).withDayOfMonth(1);
+                    } else {
+                        filterStartDate = today.withMonth(lastQuarter * 3 + 1).withDayOfMonth(1);
+                    }
+                    filterEndDate = filterStartDate.plusMonths(2).withDayOfMonth(filterStartDate.plusMonths(2).lengthOfMonth());
+                    break;
+                case "this_year":
+                    filterStartDate = today.withDayOfYear(1);
+                    filterEndDate = today.withDayOfYear(today.lengthOfYear());
+                    break;
+                case "last_year":
+                    filterStartDate = today.minusYears(1).withDayOfYear(1);
+                    filterEndDate = today.minusYears(1).withDayOfYear(today.minusYears(1).lengthOfYear());
+                    break;
+                case "last_30_days":
+                    filterStartDate = today.minusDays(30);
+                    filterEndDate = today;
+                    break;
+                case "last_90_days":
+                    filterStartDate = today.minusDays(90);
+                    filterEndDate = today;
+                    break;
+            }
+        }
+        
+        return filter.toBuilder()
+                .startDate(filterStartDate)
+                .endDate(filterEndDate)
+                .dateFilter(null)
+                .build();
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.billing.service;
+
+import com.example.billing.dto.invoice.InvoiceResponseDto;
+import com.example.billing.dto.owner.OwnerResponseDto;
+import com.itextpdf.html2pdf.ConverterProperties;
+import com.itextpdf.html2pdf.HtmlConverter;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.context.Context;
+
+import java.io.OutputStream;
+import java.util.Locale;
+
+/**
+ * Renders {@code templates/invoice-template.html} with Thymeleaf and converts it with html2pdf.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class HtmlInvoicePdfRenderer implements InvoicePdfRenderer {
+    
+    public static final String NAME = "html";
+    
+    private final TemplateEngine templateEngine;
+    private final PdfRenderingEngine pdfRenderingEngine;
+    private final BrandingAssetCache brandingAssetCache;
+    
+    @Override
+    public String getName() {
+        return NAME;
+    }
+    
+    @Override
+    public void render(InvoiceResponseDto invoice, OwnerResponseDto owner, OutputStream outputStream) {
+        // Template processing happens before the first byte is written
+        BrandingAssetCache.BrandingAssets brandingAssets = brandingAssetCache.getAssets(owner);
+        String htmlContent = renderHtml(invoice, owner, brandingAssetCache.signatureUrl(brandingAssets));
+        
+        // Writer settings follow the configured output profile
+        PdfDocument pdfDocument = new PdfDocument(pdfRenderingEngine.createWriter(outputStream));
+        
+        // Converter properties share the font set loaded once at startup
+        ConverterProperties converterProperties = pdfRenderingEngine.createConverterProperties();
+        // Images referenced by the template are served from the decoded branding assets
+        converterProperties.setResourceRetriever(brandingAssetCache.createResourceRetriever(brandingAssets));
+        
+        // Convert HTML to PDF with UTF-8 encoding and font support
+        HtmlConverter.convertToPdf(htmlContent, pdfDocument, converterProperties);
+    }
+    
+    private String renderHtml(InvoiceResponseDto invoice, OwnerResponseDto owner, String signatureUrl) {
+        // Create Thymeleaf context
+        Context context = new Context(Locale.getDefault());
+        context.setVariable("invoice", invoice);
+        context.setVariable("owner", owner);
+        context.setVariable("signatureUrl", signatureUrl);
+        
+        // Use the calculated amounts from the invoice entity
+        context.setVariable("subtotal", invoice.getSubtotalAmount());
+        context.setVariable("cgstRate", invoice.getCgstRate());
+        context.setVariable("sgstRate", invoice.getSgstRate());
+        context.setVariable("cgstAmount", invoice.getCgstAmount());
+        context.setVariable("sgstAmount", invoice.getSgstAmount());
+        context.setVariable("totalGstAmount", invoice.getTotalGstAmount());
+        context.setVariable("gstApplicable", invoice.getGstApplicable());
+        context.setVariable("transportChargesLabel", invoice.getTransportChargesLabel());
+        context.setVariable("transportCharges", invoice.getTransportCharges());
+        context.setVariable("miscChargesLabel", invoice.getMiscChargesLabel());
+        context.setVariable("miscCharges", invoice.getMiscCharges());
+        
+        // Process the template
+        String htmlContent = templateEngine.process("invoice-template", context);
+        
+        // Log the processed HTML content for debugging (only in debug mode)
+        if (log.isDebugEnabled()) {
+            log.debug("Processed HTML content length: {}", htmlContent.length());
+            if (owner != null && owner.getHeaderGodSymbol() != null) {
+                log.debug("God symbol in template: '{}'", owner.getHeaderGodSymbol());
+            }
+        }
+        
+        return htmlContent;
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.billing.service;
+
+import com.example.billing.entity.IdempotencyKey;
+import com.example.billing.exception.IdempotencyKeyConflictException;
+import com.example.billing.exception.IdempotencyKeyReusedException;
+import com.example.billing.repository.IdempotencyKeyRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Makes retried invoice creates with the same {@code Idempotency-Key} header create one invoice.
+ * The key is claimed with an insert in the transaction that creates the invoice, so a concurrent
+ * duplicate waits on the key's row until the first create commits and then gets its invoice,
+ * or takes over the key if it rolled back. Keys expire after {@code app.invoices.idempotency.ttl}
+ * and can then be used again.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional
+public class IdempotencyKeyService {
+    
+    static final int MAX_KEY_LENGTH = 255;
+    
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final ObjectMapper objectMapper;
+    
+    @Value("${app.invoices.idempotency.ttl:PT24H}")
+    private Duration ttl;
+    
+    /**
+     * Claims the key for the request within the caller's transaction. Returns the id of the invoice
+     * created with the key before, or empty if the caller now owns the key and must call
+     * {@link #complete} with the invoice it creates.
+     *
+     * @throws IdempotencyKeyReusedException if the key was used with a different request
+     * @throws IdempotencyKeyConflictException if the request owning the key has not finished
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Optional<Long> claim(String key, Object request) {
+        UUID keyHash = hashKey(key);
+        byte[] requestHash = hashRequest(request);
+        LocalDateTime now = LocalDateTime.now();
+        
+        if (idempotencyKeyRepository.claim(keyHash, requestHash, now.plus(ttl), now) == 1) {
+            return Optional.empty();
+        }
+        
+        IdempotencyKey existing = idempotencyKeyRepository.findById(keyHash)
+                .orElseThrow(() -> new IdempotencyKeyConflictException("Idempotency-Key could not be claimed, please retry"));
+        if (!Arrays.equals(existing.getRequestHash(), requestHash)) {
+            throw new IdempotencyKeyReusedException("Idempotency-Key was already used with a different request");
+        }
+        if (existing.getInvoiceId() == null) {
+            throw new IdempotencyKeyConflictException("A request with this Idempotency-Key is still in progress");
+        }
+        return Optional.of(existing.getInvoiceId());
+    }
+    
+    /**
+     * Records the invoice created for a key claimed with {@link #claim}.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void complete(String key, Long invoiceId) {
+        idempotencyKeyRepository.complete(hashKey(key), invoiceId);
+    }
+    
+    @Scheduled(initialDelayString = "${app.invoices.idempotency.purge-interval:PT1H}",
+            fixedDelayString = "${app.invoices.idempotency.purge-interval:PT1H}")
+    public void purgeExpired() {
+        int deleted = idempotencyKeyRepository.deleteExpired(LocalDateTime.now());
+        if (deleted > 0) {
+            log.info("Purged {} expired idempotency keys", deleted);
+        }
+    }
+    
+    private UUID hashKey(String key) {
+        if (key == null || key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new RuntimeException("Idempotency-Key must be between 1 and " + MAX_KEY_LENGTH + " characters");
+        }
+        ByteBuffer digest = ByteBuffer.wrap(sha256(key.getBytes(StandardCharsets.UTF_8)));
+        return new UUID(digest.getLong(), digest.getLong());
+    }
+    
+    private byte[] hashRequest(Object request) {
+        try {
+            return sha256(objectMapper.writeValueAsBytes(request));
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize request: " + e.getMessage(), e);
+        }
+    }
+    
+    private static byte[] sha256(byte[] data) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(data);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.billing.service;
+
+import com.example.billing.dto.invoice.InvoiceResponseDto;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * In-memory read-through cache of mapped invoices, addressable by id and by invoice number.
+ * The cache holds at most {@code app.invoices.cache.max-entries} invoices and evicts the least
+ * recently used one first. Cached DTOs are shared between callers and must not be modified.
+ */
+@Service
+@Slf4j
+public class InvoiceCacheService {
+    
+    @Value("${app.invoices.cache.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${app.invoices.cache.max-entries:1000}")
+    private int maxEntries;
+    
+    // Invoice id -> mapped invoice, in access order so the eldest entry is the LRU one
+    private final LinkedHashMap<Long, InvoiceResponseDto> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, Long> idsByNumber = new HashMap<>();
+    
+    // Bumped on every invalidation so a load that raced with an update is not cached
+    private long generation;
+    
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+    
+    /**
+     * Returns the cached invoice with the id, or loads it with the loader and caches the result.
+     */
+    public InvoiceResponseDto getById(Long id, Function<Long, InvoiceResponseDto> loader) {
+        if (!enabled) {
+            return loader.apply(id);
+        }
+        
+        long loadGeneration;
+        synchronized (this) {
+            InvoiceResponseDto cached = entries.get(id);
+            if (cached != null) {
+                hits.incrementAndGet();
+                return cached;
+            }
+            loadGeneration = generation;
+        }
+        
+        misses.incrementAndGet();
+        InvoiceResponseDto invoice = loader.apply(id);
+        put(invoice, loadGeneration);
+        return invoice;
+    }
+    
+    /**
+     * Returns the cached invoice with the invoice number, or loads it with the loader and caches the result.
+     */
+    public InvoiceResponseDto getByNumber(String invoiceNumber, Function<String, InvoiceResponseDto> loader) {
+        if (!enabled) {
+            return loader.apply(invoiceNumber);
+        }
+        
+        long loadGeneration;
+        synchronized (this) {
+            Long id = idsByNumber.get(invoiceNumber);
+            InvoiceResponseDto cached = id != null ? entries.get(id) : null;
+            if (cached != null) {
+                hits.incrementAndGet();
+                return cached;
+            }
+            loadGeneration = generation;
+        }
+        
+        misses.incrementAndGet();
+        InvoiceResponseDto invoice = loader.apply(invoiceNumber);
+        put(invoice, loadGeneration);
+        return invoice;
+    }
+    
+    /**
+     * Drops the cached copy of an invoice that is being updated or deleted. Inside a transaction the
+     * invoice is dropped again after commit, so a read that saw the old row in the meantime is not kept.
+     */
+    public void evict(Long invoiceId) {
+        if (!enabled) {
+            return;
+        }
+        
+        remove(invoiceId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    remove(invoiceId);
+                }
+            });
+        }
+    }
+    
+    /**
+     * Drops every cached invoice.
+     */
+    public synchronized void clear() {
+        generation++;
+        entries.clear();
+        idsByNumber.clear();
+        log.debug("Cleared invoice cache");
+    }
+    
+    public synchronized Map<String, Object> getStats() {
+        long hitCount = hits.get();
+        long missCount = misses.get();
+        long requests = hitCount + missCount;
+        
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("hitRatio", requests == 0 ? 0.0 : (double) hitCount / requests);
+        stats.put("evictions", evictions.get());
+        stats.put("invalidations", invalidations.get());
+        stats.put("entries", entries.size());
+        stats.put("maxEntries", maxEntries);
+        return stats;
+    }
+    
+    private synchronized void put(InvoiceResponseDto invoice, long loadGeneration) {
+        if (loadGeneration != generation) {
+            return;
+        }
+        
+        InvoiceResponseDto previous = entries.put(invoice.getId(), invoice);
+        if (previous != null && !previous.getInvoiceNumber().equals(invoice.getInvoiceNumber())) {
+            idsByNumber.remove(previous.getInvoiceNumber());
+        }
+        idsByNumber.put(invoice.getInvoiceNumber(), invoice.getId());
+        evictIfNeeded();
+    }
+    
+    private synchronized void remove(Long invoiceId) {
+        generation++;
+        InvoiceResponseDto removed = entries.remove(invoiceId);
+        if (removed != null) {
+            idsByNumber.remove(removed.getInvoiceNumber());
+            invalidations.incrementAndGet();
+            log.debug("Evicted cached invoice {}", invoiceId);
+        }
+    }
+    
+    // Caller must hold the monitor
+    private void evictIfNeeded() {
+        Iterator<Map.Entry<Long, InvoiceResponseDto>> iterator = entries.entrySet().iterator();
+        while (entries.size() > maxEntries && iterator.hasNext()) {
+            Map.Entry<Long, InvoiceResponseDto> eldest = iterator.next();
+            iterator.remove();
+            idsByNumber.remove(eldest.getValue().getInvoiceNumber());
+            evictions.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package com.example.billing.service;
+
+import com.example.billing.dto.invoice.InvoiceFilterDto;
+import com.example.billing.entity.Invoice;
+import com.example.billing.enums.ExportFormat;
+import com.example.billing.repository.InvoiceRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Writes invoices as CSV or newline-delimited JSON straight from a database cursor. Each row is
+ * written as soon as it is read and nothing is collected, so memory use is the same for a thousand
+ * or a million invoices. With line items, every line item becomes its own row carrying the
+ * invoice columns; invoices without line items still get one row.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class InvoiceExportService {
+    
+    private static final List<Column<Invoice>> INVOICE_COLUMNS = List.of(
+            new Column<>("invoiceId", Invoice::getId),
+            new Column<>("invoiceNumber", Invoice::getInvoiceNumber),
+            new Column<>("invoiceDate", Invoice::getInvoiceDate),
+            new Column<>("dueDate", Invoice::getDueDate),
+            new Column<>("status", Invoice::getStatus),
+            new Column<>("customerName", Invoice::getCustomerName),
+            new Column<>("customerPhone", Invoice::getCustomerPhone),
+            new Column<>("customerEmail", Invoice::getCustomerEmail),
+            new Column<>("customerGstNumber", Invoice::getCustomerGstNumber),
+            new Column<>("subtotalAmount", Invoice::getSubtotalAmount),
+            new Column<>("cgstAmount", Invoice::getCgstAmount),
+            new Column<>("sgstAmount", Invoice::getSgstAmount),
+            new Column<>("totalGstAmount", Invoice::getTotalGstAmount),
+            new Column<>("transportCharges", Invoice::getTransportCharges),
+            new Column<>("miscCharges", Invoice::getMiscCharges),
+            new Column<>("totalAmount", Invoice::getTotalAmount));
+    
+    private static final List<Column<Invoice.InvoiceLineItem>> LINE_ITEM_COLUMNS = List.of(
+            new Column<>("serialNumber", Invoice.InvoiceLineItem::getSerialNumber),
+            new Column<>("productId", Invoice.InvoiceLineItem::getProductId),
+            new Column<>("productName", Invoice.InvoiceLineItem::getProductName),
+            new Column<>("description", Invoice.InvoiceLineItem::getDescription),
+            new Column<>("quantity", Invoice.InvoiceLineItem::getQuantity),
+            new Column<>("unitPrice", Invoice.InvoiceLineItem::getUnitPrice),
+            new Column<>("lineTotal", Invoice.InvoiceLineItem::getLineTotal));
+    
+    private final InvoiceRepository invoiceRepository;
+    private final DateFilterResolver dateFilterResolver;
+    private final ObjectMapper objectMapper;
+    
+    /**
+     * Writes every invoice matching the filter, newest first, and returns the number of invoices written.
+     */
+    @Transactional(readOnly = true)
+    public long export(InvoiceFilterDto filter, ExportFormat format, boolean includeLineItems, OutputStream outputStream)
+            throws IOException {
+        log.debug("Exporting invoices as {} (line items: {}) with filters: {}", format, includeLineItems, filter);
+        
+        RowWriter writer = format == ExportFormat.CSV ? new CsvRowWriter(outputStream) : new NdjsonRowWriter(outputStream);
+        long count = 0;
+        try (Stream<Invoice> invoices = invoiceRepository.streamByFilter(dateFilterResolver.resolve(filter))) {
+            writer.start(includeLineItems);
+            Iterator<Invoice> iterator = invoices.iterator();
+            while (iterator.hasNext()) {
+                Invoice invoice = iterator.next();
+                List<Invoice.InvoiceLineItem> lineItems = invoice.getLineItems();
+                if (includeLineItems && lineItems != null && !lineItems.isEmpty()) {
+                    for (Invoice.InvoiceLineItem lineItem : lineItems) {
+                        writer.row(invoice, lineItem, true);
+                    }
+                } else {
+                    writer.row(invoice, null, includeLineItems);
+                }
+                count++;
+            }
+            writer.finish();
+        }
+        log.debug("Exported {} invoices as {}", count, format);
+        return count;
+    }
+    
+    private record Column<T>(String name, Function<T, Object> getter) {
+        
+        Object valueOf(T source) {
+            return source != null ? getter.apply(source) : null;
+        }
+    }
+    
+    private interface RowWriter {
+        
+        void start(boolean includeLineItems) throws IOException;
+        
+        void row(Invoice invoice, Invoice.InvoiceLineItem lineItem, boolean includeLineItems) throws IOException;
+        
+        void finish() throws IOException;
+    }
+    
+    private static final class CsvRowWriter implements RowWriter {
+        
+        private final Writer writer;
+        
+        CsvRowWriter(OutputStream outputStream) {
+            this.writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        }
+        
+        @Override
+        public void start(boolean includeLineItems) throws IOException {
+            StringBuilder header = new StringBuilder();
+            for (Column<Invoice> column : INVOICE_COLUMNS) {
+                appendField(header, column.name());
+            }
+            if (includeLineItems) {
+                for (Column<Invoice.InvoiceLineItem> column : LINE_ITEM_COLUMNS) {
+                    appendField(header, column.name());
+                }
+            }
+            endRow(header);
+        }
+        
+        @Override
+        public void row(Invoice invoice, Invoice.InvoiceLineItem lineItem, boolean includeLineItems) throws IOException {
+            StringBuilder row = new StringBuilder(256);
+            for (Column<Invoice> column : INVOICE_COLUMNS) {
+                appendField(row, column.valueOf(invoice));
+            }
+            if (includeLineItems) {
+                for (Column<Invoice.InvoiceLineItem> column : LINE_ITEM_COLUMNS) {
+                    appendField(row, column.valueOf(lineItem));
+                }
+            }
+            endRow(row);
+        }
+        
+        @Override
+        public void finish() throws IOException {
+            writer.flush();
+        }
+        
+        // Every field is followed by a separator; endRow replaces the last one with the line break
+        private void endRow(StringBuilder row) throws IOException {
+            row.setCharAt(row.length() - 1, '\r');
+            writer.write(row.append('\n').toString());
+        }
+        
+        // RFC 4180: quote fields containing a separator, quote or line break and double embedded quotes
+        private static void appendField(StringBuilder row, Object value) {
+            if (value != null) {
+                String text = value.toString();
+                if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+                    row.append('"').append(text.replace("\"", "\"\"")).append('"');
+                } else {
+                    row.append(text);
+                }
+            }
+            row.append(',');
+        }
+    }
+    
+    private final class NdjsonRowWriter implements RowWriter {
+        
+        private final OutputStream outputStream;
+        private JsonGenerator generator;
+        
+        NdjsonRowWriter(OutputStream outputStream) {
+            this.outputStream = outputStream;
+        }
+        
+        @Override
+        public void start(boolean includeLineItems) throws IOException {
+            generator = objectMapper.getFactory().createGenerator(outputStream);
+            // The response stream belongs to the caller
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // One object per line instead of Jackson's default space between root values
+            generator.setRootValueSeparator(null);
+        }
+        
+        @Override
+        public void row(Invoice invoice, Invoice.InvoiceLineItem lineItem, boolean includeLineItems) throws IOException {
+            generator.writeStartObject();
+            for (Column<Invoice> column : INVOICE_COLUMNS) {
+                generator.writeObjectField(column.name(), column.valueOf(invoice));
+            }
+            if (includeLineItems) {
+                for (Column<Invoice.InvoiceLineItem> column : LINE_ITEM_COLUMNS) {
+                    generator.writeObjectField(column.name(), column.valueOf(lineItem));
+                }
+            }
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+        
+        @Override
+        public void finish() throws IOException {
+            generator.close();
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.billing.service;
+
+import com.example.billing.dto.invoice.InvoiceItemDto;
+import com.example.billing.entity.Invoice;
+import com.example.billing.entity.Product;
+import com.example.billing.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Turns the requested items of a created or updated invoice into line items and their subtotal.
+ * Catalog products of all items are looked up with one query, however many lines the invoice has.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class InvoiceLineItemAssembler {
+    
+    private final ProductRepository productRepository;
+    
+    /**
+     * Line items of an invoice and their subtotal, before GST and additional charges.
+     */
+    public record LineItems(List<Invoice.InvoiceLineItem> items, BigDecimal subtotalAmount) {
+    }
+    
+    /**
+     * Builds the line items, failing with every missing product listed if any catalog product does not exist.
+     */
+    public LineItems assemble(List<InvoiceItemDto> itemDtos) {
+        Map<Long, Product> products = findProducts(itemDtos);
+        
+        List<Long> missing = itemDtos.stream()
+                .filter(itemDto -> !isCustomProduct(itemDto))
+                .map(InvoiceItemDto::getProductId)
+                .filter(productId -> !products.containsKey(productId))
+                .distinct()
+                .toList();
+        if (!missing.isEmpty()) {
+            throw new RuntimeException("Products not found with ids: " + missing);
+        }
+        return build(itemDtos);
+    }
+    
+    /**
+     * Loads the catalog products referenced by the given items, by id. Items of several invoices
+     * can be passed at once.
+     */
+    public Map<Long, Product> findProducts(Collection<InvoiceItemDto> itemDtos) {
+        Set<Long> productIds = itemDtos.stream()
+                .filter(itemDto -> itemDto != null && !isCustomProduct(itemDto))
+                .map(InvoiceItemDto::getProductId)
+                .collect(Collectors.toSet());
+        if (productIds.isEmpty()) {
+            return Map.of();
+        }
+        
+        Map<Long, Product> products = productRepository.findAllById(productIds).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        log.debug("Resolved {} of {} catalog products", products.size(), productIds.size());
+        return products;
+    }
+    
+    /**
+     * Builds the line items without looking anything up; products must already have been checked.
+     */
+    public LineItems build(List<InvoiceItemDto> itemDtos) {
+        List<Invoice.InvoiceLineItem> lineItems = new ArrayList<>(itemDtos.size());
+        BigDecimal subtotalAmount = BigDecimal.ZERO;
+        
+        for (int i = 0; i < itemDtos.size(); i++) {
+            InvoiceItemDto itemDto = itemDtos.get(i);
+            boolean isCustomProduct = isCustomProduct(itemDto);
+            
+            // Calculate line total (no tax at line level)
+            BigDecimal unitPrice = itemDto.getUnitPrice();
+            BigDecimal lineTotal = unitPrice.multiply(BigDecimal.valueOf(itemDto.getQuantity()));
+            
+            lineItems.add(Invoice.InvoiceLineItem.builder()
+                    .serialNumber(Objects.requireNonNullElse(itemDto.getSerialNumber(), i + 1))
+                    .productId(isCustomProduct ? null : itemDto.getProductId())
+                    .productName(itemDto.getProductName())
+                    .description(itemDto.getDescription())
+                    .quantity(itemDto.getQuantity())
+                    .unitPrice(unitPrice)
+                    .lineTotal(lineTotal)
+                    .isCustomProduct(isCustomProduct)
+                    .build());
+            subtotalAmount = subtotalAmount.add(lineTotal);
+        }
+        return new LineItems(lineItems, subtotalAmount);
+    }
+    
+    // Items without a product id are custom products even when the flag is not set
+    public static boolean isCustomProduct(InvoiceItemDto itemDto) {
+        return Boolean.TRUE.equals(itemDto.getIsCustomProduct()) || itemDto.getProductId() == null;
+    }
+}
@@ -1,51 +1,198 @@
 package com.example.billing.service;
 
 import com.example.billing.entity.InvoiceCounter;
+import com.example.billing.enums.InvoiceNumberAllocation;
 import com.example.billing.repository.InvoiceCounterRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Hands out invoice numbers from the {@code invoice_counter} row with year 0, or from a numbering
+ * series (see {@link InvoiceSeriesService}) when the invoice names one or a default series is configured.
+ * <p>
+ * With {@code app.invoices.numbering.allocation=locked} (the default) the row is locked inside the
+ * caller's transaction, so numbers are gapless but concurrent invoice creates wait for each other
+ * until the whole invoice commits. With {@code block} the counter is advanced by
+ * {@code app.invoices.numbering.block-size} in a short transaction of its own and the numbers of
+ * that block are handed out from memory; the next block is reserved in the background once half of
+ * the current one is used.
+ * <p>
+ * Gap policy for {@code block}: numbers are unique and increase per application instance, but are
+ * not gapless. An invoice that fails to save does not give its number back, a crash loses the rest
+ * of the reserved block (at most {@code block-size} numbers) and several instances interleave their
+ * blocks. On a clean shutdown the unused rest of the block is returned if no other instance has
+ * reserved numbers since. Keep {@code locked} where consecutive numbering is required.
+ */
 @Service
+@Slf4j
 public class InvoiceNumberService {
     
+    private static final long BLOCK_WAIT_SECONDS = 10;
+    
     @Autowired
     private InvoiceCounterRepository invoiceCounterRepository;
     
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Autowired
+    private InvoiceSeriesService invoiceSeriesService;
+    
+    // Series used for invoices created without one; blank keeps the 12-digit main counter
+    @Value("${app.invoices.numbering.default-series:}")
+    private String defaultSeries;
+    
+    @Value("${app.invoices.numbering.allocation:locked}")
+    private InvoiceNumberAllocation allocation;
+    
+    @Value("${app.invoices.numbering.block-size:50}")
+    private int blockSize;
+    
+    private TransactionTemplate blockTransaction;
+    private ExecutorService blockExecutor;
+    
+    // Block numbers are taken from; replaced under the monitor once it is used up
+    private volatile NumberBlock currentBlock;
+    // Guarded by this
+    private CompletableFuture<NumberBlock> nextBlock;
+    
+    @PostConstruct
+    public void initialize() {
+        if (allocation != InvoiceNumberAllocation.BLOCK) {
+            return;
+        }
+        if (blockSize < 2) {
+            throw new IllegalStateException("app.invoices.numbering.block-size must be at least 2");
+        }
+        
+        blockTransaction = new TransactionTemplate(transactionManager);
+        blockTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        blockExecutor = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("invoice-number-"));
+        log.info("Invoice numbers are allocated in blocks of {}; numbering may have gaps", blockSize);
+    }
+    
+    /**
+     * Returns the unused rest of the current block to the counter, if nobody reserved numbers after it.
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (blockExecutor == null) {
+            return;
+        }
+        
+        blockExecutor.shutdownNow();
+        NumberBlock block;
+        NumberBlock prefetched;
+        synchronized (this) {
+            block = currentBlock;
+            prefetched = nextBlock != null && nextBlock.isDone() && !nextBlock.isCompletedExceptionally()
+                    ? nextBlock.join() : null;
+        }
+        if (block == null) {
+            return;
+        }
+        // Exhaust the block first so no number from the returned range can still be handed out
+        long firstUnused = block.next.getAndSet(block.end + 1);
+        if (firstUnused > block.end) {
+            return;
+        }
+        // An already reserved next block can be returned too if it directly follows the current one
+        long reservedEnd = prefetched != null && prefetched.first == block.end + 1 ? prefetched.end : block.end;
+        try {
+            Integer released = blockTransaction.execute(status ->
+                    invoiceCounterRepository.releaseBlock(0, reservedEnd, firstUnused - 1, LocalDateTime.now()));
+            if (released != null && released > 0) {
+                log.info("Returned unused invoice numbers {}-{} to the counter", firstUnused, reservedEnd);
+            } else {
+                log.info("Invoice numbers {}-{} were not returned, the counter has moved on", firstUnused, reservedEnd);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not return unused invoice numbers {}-{}: {}", firstUnused, reservedEnd, e.getMessage());
+        }
+    }
+    
+    /**
+     * Generates the number for a new invoice from the given series, else from the default series,
+     * else from the main counter.
+     */
+    @Transactional
+    public String generateInvoiceNumber(String series, LocalDate invoiceDate) {
+        String seriesCode = series != null && !series.isBlank() ? series.trim() : defaultSeries;
+        if (seriesCode == null || seriesCode.isBlank()) {
+            return generateNextInvoiceNumber();
+        }
+        return invoiceSeriesService.nextInvoiceNumber(seriesCode, invoiceDate);
+    }
+    
+    /**
+     * Generates {@code count} numbers for new invoices of the same series and date in one step: a
+     * single counter update or sequence call instead of one per invoice.
+     */
+    @Transactional
+    public List<String> generateInvoiceNumbers(String series, LocalDate invoiceDate, int count) {
+        String seriesCode = series != null && !series.isBlank() ? series.trim() : defaultSeries;
+        if (seriesCode != null && !seriesCode.isBlank()) {
+            return invoiceSeriesService.nextInvoiceNumbers(seriesCode, invoiceDate, count);
+        }
+        
+        List<String> numbers = new ArrayList<>(count);
+        if (allocation == InvoiceNumberAllocation.BLOCK) {
+            for (int i = 0; i < count; i++) {
+                numbers.add(String.format("%012d", nextFromBlock()));
+            }
+        } else {
+            long last = incrementCounter(count).getCurrentSequence();
+            for (long sequence = last - count + 1; sequence <= last; sequence++) {
+                numbers.add(String.format("%012d", sequence));
+            }
+        }
+        return numbers;
+    }
+    
     /**
      * Generates the next invoice number in format 000000000001
      * Simple 12-digit sequential number
      */
     @Transactional
     public String generateNextInvoiceNumber() {
-        // Get or create the main counter
-        InvoiceCounter counter = invoiceCounterRepository.findByYearWithLock(0)
-                .orElse(null);
-        
-        if (counter == null) {
-            // Create new counter
-            counter = new InvoiceCounter();
-            counter.setYear(0); // Use 0 to indicate main counter
-            counter.setCurrentSequence(0L);
-            counter.setLastUpdated(LocalDateTime.now());
-        }
-        
-        // Increment sequence
-        counter.setCurrentSequence(counter.getCurrentSequence() + 1);
-        
-        // Save the counter
-        counter = invoiceCounterRepository.save(counter);
+        long sequence = allocation == InvoiceNumberAllocation.BLOCK
+                ? nextFromBlock()
+                : incrementCounter(1).getCurrentSequence();
         
         // Generate invoice number in format 000000000001 (12 digits)
-        return String.format("%012d", counter.getCurrentSequence());
+        return String.format("%012d", sequence);
     }
     
     /**
      * Gets the current sequence number
      */
     public Long getCurrentSequence() {
+        // In block mode the counter row is ahead of the numbers issued so far
+        NumberBlock block = currentBlock;
+        if (block != null) {
+            return Math.min(block.next.get(), block.end + 1) - 1;
+        }
         return invoiceCounterRepository.findByYear(0)
                 .map(InvoiceCounter::getCurrentSequence)
                 .orElse(0L);
@@ -64,5 +211,92 @@ public class InvoiceNumberService {
         counter.setLastUpdated(LocalDateTime.now());
         
         invoiceCounterRepository.save(counter);
+        
+        // Numbers reserved before the reset must not be handed out any more
+        synchronized (this) {
+            currentBlock = null;
+            nextBlock = null;
+        }
+    }
+    
+    // Locks the counter row and advances it; the lock is held until the surrounding transaction ends
+    private InvoiceCounter incrementCounter(long amount) {
+        // Get or create the main counter
+        InvoiceCounter counter = invoiceCounterRepository.findByYearWithLock(0)
+                .orElse(null);
+        
+        if (counter == null) {
+            // Create new counter
+            counter = new InvoiceCounter();
+            counter.setYear(0); // Use 0 to indicate main counter
+            counter.setCurrentSequence(0L);
+            counter.setLastUpdated(LocalDateTime.now());
+        }
+        
+        counter.setCurrentSequence(counter.getCurrentSequence() + amount);
+        return invoiceCounterRepository.save(counter);
+    }
+    
+    private long nextFromBlock() {
+        while (true) {
+            NumberBlock block = currentBlock;
+            if (block != null) {
+                long sequence = block.next.getAndIncrement();
+                if (sequence <= block.end) {
+                    if (sequence == block.prefetchAt) {
+                        prefetch();
+                    }
+                    return sequence;
+                }
+            }
+            advance(block);
+        }
+    }
+    
+    // Reserves the next block in its own transaction on the background thread
+    private synchronized void prefetch() {
+        if (nextBlock == null) {
+            nextBlock = CompletableFuture.supplyAsync(this::reserveBlock, blockExecutor);
+        }
+    }
+    
+    private synchronized void advance(NumberBlock exhausted) {
+        if (currentBlock != exhausted) {
+            // Another thread already moved on to a new block
+            return;
+        }
+        prefetch();
+        CompletableFuture<NumberBlock> pending = nextBlock;
+        nextBlock = null;
+        try {
+            currentBlock = pending.get(BLOCK_WAIT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while reserving invoice numbers", e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new RuntimeException("Failed to reserve invoice numbers: " + e.getMessage(), e);
+        }
+    }
+    
+    private NumberBlock reserveBlock() {
+        InvoiceCounter counter = blockTransaction.execute(status -> incrementCounter(blockSize));
+        long end = counter.getCurrentSequence();
+        log.debug("Reserved invoice numbers {}-{}", end - blockSize + 1, end);
+        return new NumberBlock(end - blockSize + 1, end);
+    }
+    
+    private static final class NumberBlock {
+        
+        private final long first;
+        private final AtomicLong next;
+        private final long end;
+        private final long prefetchAt;
+        
+        NumberBlock(long first, long end) {
+            this.first = first;
+            this.next = new AtomicLong(first);
+            this.end = end;
+            this.prefetchAt = first + (end - first) / 2;
+        }
     }
 }
@@ -0,0 +1,24 @@
+package com.example.billing.service;
+
+import com.example.billing.dto.invoice.InvoiceResponseDto;
+import com.example.billing.dto.owner.OwnerResponseDto;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Turns an invoice and the owner branding into a PDF document.
+ * The active implementation is selected with {@code app.pdf.renderer}.
+ */
+public interface InvoicePdfRenderer {
+    
+    /**
+     * Name used to select this renderer in configuration
+     */
+    String getName();
+    
+    /**
+     * Writes the PDF to the stream without closing it. Owner may be null when no active owner exists.
+     */
+    void render(InvoiceResponseDto invoice, OwnerResponseDto owner, OutputStream outputStream) throws IOException;
+}
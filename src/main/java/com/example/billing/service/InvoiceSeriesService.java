@@ -0,0 +1,184 @@
+package com.example.billing.service;
+
+import com.example.billing.dto.series.CreateInvoiceSeriesRequestDto;
+import com.example.billing.dto.series.InvoiceNumberPreviewDto;
+import com.example.billing.dto.series.InvoiceSeriesResponseDto;
+import com.example.billing.entity.InvoiceSeries;
+import com.example.billing.mapper.InvoiceSeriesMapper;
+import com.example.billing.repository.InvoiceSeriesRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Numbering series backed by PostgreSQL sequences. {@code nextval} never waits for other
+ * transactions, so concurrent invoice creates do not serialize on a counter row; like any
+ * sequence, a rolled back create leaves a gap. Series that reset each financial year use one
+ * sequence per year, created on first use, so the first invoice dated in a new financial year
+ * starts again at 1. The financial year starts in {@code app.invoices.numbering.financial-year-start-month}
+ * (April by default).
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional
+public class InvoiceSeriesService {
+    
+    static final String FINANCIAL_YEAR_PLACEHOLDER = "{FY}";
+    
+    private final InvoiceSeriesRepository invoiceSeriesRepository;
+    private final InvoiceSeriesMapper invoiceSeriesMapper;
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    
+    @Value("${app.invoices.numbering.financial-year-start-month:4}")
+    private int financialYearStartMonth;
+    
+    // Sequences already created or found, so CREATE SEQUENCE runs once per sequence and JVM
+    private final Set<String> knownSequences = ConcurrentHashMap.newKeySet();
+    
+    @Transactional(readOnly = true)
+    public List<InvoiceSeriesResponseDto> getAllSeries() {
+        log.debug("Fetching all invoice series");
+        return invoiceSeriesMapper.toResponseDtoList(invoiceSeriesRepository.findAllByOrderByCodeAsc());
+    }
+    
+    public InvoiceSeriesResponseDto createSeries(CreateInvoiceSeriesRequestDto createDto) {
+        log.debug("Creating invoice series: {}", createDto.getCode());
+        
+        if (invoiceSeriesRepository.existsByCode(createDto.getCode())) {
+            throw new RuntimeException("Invoice series already exists: " + createDto.getCode());
+        }
+        if (invoiceSeriesRepository.existsByPrefix(createDto.getPrefix())) {
+            throw new RuntimeException("Another invoice series already uses the prefix: " + createDto.getPrefix());
+        }
+        // Otherwise every financial year would issue the same numbers again
+        if (Boolean.TRUE.equals(createDto.getResetEachFinancialYear())
+                && !createDto.getPrefix().contains(FINANCIAL_YEAR_PLACEHOLDER)) {
+            throw new RuntimeException("A series that resets each financial year needs " + FINANCIAL_YEAR_PLACEHOLDER
+                    + " in its prefix");
+        }
+        
+        InvoiceSeries savedSeries = invoiceSeriesRepository.save(invoiceSeriesMapper.toEntity(createDto));
+        log.info("Invoice series created successfully with code: {}", savedSeries.getCode());
+        return invoiceSeriesMapper.toResponseDto(savedSeries);
+    }
+    
+    /**
+     * Takes the next number of the series for an invoice dated {@code invoiceDate}.
+     */
+    public String nextInvoiceNumber(String code, LocalDate invoiceDate) {
+        InvoiceSeries series = findSeries(code);
+        int financialYear = financialYearOf(invoiceDate);
+        String sequenceName = sequenceName(series, financialYear);
+        
+        ensureSequence(sequenceName);
+        Long sequence = jdbcTemplate.queryForObject("SELECT nextval('" + sequenceName + "')", Long.class);
+        return format(series, financialYear, sequence);
+    }
+    
+    /**
+     * Takes {@code count} numbers of the series in one round trip, in increasing order. Creates running
+     * at the same time may take numbers in between, so they are not necessarily consecutive.
+     */
+    public List<String> nextInvoiceNumbers(String code, LocalDate invoiceDate, int count) {
+        InvoiceSeries series = findSeries(code);
+        int financialYear = financialYearOf(invoiceDate);
+        String sequenceName = sequenceName(series, financialYear);
+        
+        ensureSequence(sequenceName);
+        List<Long> sequences = jdbcTemplate.queryForList(
+                "SELECT nextval('" + sequenceName + "') AS value FROM generate_series(1, ?) ORDER BY value", Long.class, count);
+        return sequences.stream().map(sequence -> format(series, financialYear, sequence)).toList();
+    }
+    
+    /**
+     * Shows the number the next invoice of the series dated {@code invoiceDate} would get, without
+     * taking it. A concurrent create may still take that number first.
+     */
+    @Transactional(readOnly = true)
+    public InvoiceNumberPreviewDto previewNextInvoiceNumber(String code, LocalDate invoiceDate) {
+        InvoiceSeries series = findSeries(code);
+        int financialYear = financialYearOf(invoiceDate);
+        String sequenceName = sequenceName(series, financialYear);
+        
+        long nextSequence = 1L;
+        if (Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, sequenceName))) {
+            Map<String, Object> state = jdbcTemplate.queryForMap("SELECT last_value, is_called FROM " + sequenceName);
+            long lastValue = ((Number) state.get("last_value")).longValue();
+            nextSequence = Boolean.TRUE.equals(state.get("is_called")) ? lastValue + 1 : lastValue;
+        }
+        
+        return InvoiceNumberPreviewDto.builder()
+                .series(series.getCode())
+                .invoiceDate(invoiceDate)
+                .financialYear(Boolean.TRUE.equals(series.getResetEachFinancialYear()) ? financialYearLabel(financialYear) : null)
+                .nextSequence(nextSequence)
+                .nextInvoiceNumber(format(series, financialYear, nextSequence))
+                .build();
+    }
+    
+    private InvoiceSeries findSeries(String code) {
+        return invoiceSeriesRepository.findByCode(code)
+                .orElseThrow(() -> new RuntimeException("Invoice series not found: " + code));
+    }
+    
+    // Calendar year in which the financial year containing the date starts
+    private int financialYearOf(LocalDate date) {
+        return date.getMonthValue() >= financialYearStartMonth ? date.getYear() : date.getYear() - 1;
+    }
+    
+    // 2024-25 for a financial year starting in April 2024; just 2024 when it follows the calendar year
+    private String financialYearLabel(int financialYear) {
+        if (financialYearStartMonth == 1) {
+            return String.valueOf(financialYear);
+        }
+        return String.format("%d-%02d", financialYear, (financialYear + 1) % 100);
+    }
+    
+    private String format(InvoiceSeries series, int financialYear, long sequence) {
+        return series.getPrefix().replace(FINANCIAL_YEAR_PLACEHOLDER, financialYearLabel(financialYear))
+                + String.format("%0" + series.getPadding() + "d", sequence);
+    }
+    
+    // Built from the numeric id and year only, so it is safe to use as an SQL identifier
+    private String sequenceName(InvoiceSeries series, int financialYear) {
+        return Boolean.TRUE.equals(series.getResetEachFinancialYear())
+                ? "invoice_series_" + series.getId() + "_fy" + financialYear
+                : "invoice_series_" + series.getId();
+    }
+    
+    // Creates the sequence in its own transaction, so it survives a rollback of the invoice that needed it
+    private void ensureSequence(String sequenceName) {
+        if (knownSequences.contains(sequenceName)) {
+            return;
+        }
+        
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.execute("CREATE SEQUENCE IF NOT EXISTS " + sequenceName));
+            log.info("Created invoice number sequence {}", sequenceName);
+        } catch (DataAccessException e) {
+            // Two instances creating the same sequence at once; one of them fails even with IF NOT EXISTS
+            Boolean exists = jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, sequenceName);
+            if (!Boolean.TRUE.equals(exists)) {
+                throw e;
+            }
+        }
+        knownSequences.add(sequenceName);
+    }
+}
@@ -1,29 +1,52 @@
 package com.example.billing.service;
 
+import com.example.billing.dto.invoice.CreateInvoiceBatchRequestDto;
 import com.example.billing.dto.invoice.CreateInvoiceRequestDto;
+import com.example.billing.dto.invoice.InvoiceBatchItemResultDto;
+import com.example.billing.dto.invoice.InvoiceBatchResponseDto;
+import com.example.billing.dto.invoice.InvoiceAggregatesResponseDto;
+import com.example.billing.dto.invoice.InvoiceFilterDto;
 import com.example.billing.dto.invoice.InvoiceItemDto;
+import com.example.billing.dto.invoice.InvoicePageResponseDto;
+import com.example.billing.dto.invoice.InvoiceSummaryDto;
+import com.example.billing.dto.invoice.InvoiceSummaryPageResponseDto;
 import com.example.billing.dto.invoice.InvoiceResponseDto;
+import com.example.billing.dto.invoice.InvoiceSearchResultDto;
 import com.example.billing.dto.invoice.UpdateInvoiceRequestDto;
+import com.example.billing.dto.report.ProductSalesReportResponseDto;
 import com.example.billing.entity.Invoice;
-import com.example.billing.entity.Product;
+import com.example.billing.enums.AggregatePeriod;
+import com.example.billing.enums.InvoiceBatchItemStatus;
 import com.example.billing.enums.InvoiceStatus;
+import com.example.billing.event.InvoiceSavedEvent;
 import com.example.billing.mapper.InvoiceMapper;
+import com.example.billing.repository.EntityVersion;
 import com.example.billing.repository.InvoiceRepository;
-import com.example.billing.repository.ProductRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import com.example.billing.service.InvoiceNumberService;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
-import java.time.DayOfWeek;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
@@ -31,10 +54,19 @@ import java.util.List;
 @Transactional
 public class InvoiceService {
     
+    private static final int MIN_SEARCH_LENGTH = 3;
+    
     private final InvoiceRepository invoiceRepository;
-    private final ProductRepository productRepository;
     private final InvoiceMapper invoiceMapper;
+    private final InvoiceLineItemAssembler invoiceLineItemAssembler;
     private final InvoiceNumberService invoiceNumberService;
+    private final PdfCacheService pdfCacheService;
+    private final InvoiceCacheService invoiceCacheService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final DateFilterResolver dateFilterResolver;
+    private final RevenueRollupService revenueRollupService;
+    private final IdempotencyKeyService idempotencyKeyService;
+    private final Validator validator;
     
     @Transactional(readOnly = true)
     public List<InvoiceResponseDto> getAllInvoices() {
@@ -44,142 +76,268 @@ public class InvoiceService {
     }
     
     @Transactional(readOnly = true)
-    public List<InvoiceResponseDto> getInvoicesWithFilters(InvoiceStatus status, LocalDate startDate, LocalDate endDate, String dateFilter) {
-        log.debug("Fetching invoices with filters: status={}, startDate={}, endDate={}, dateFilter={}", 
-                status, startDate, endDate, dateFilter);
+    public List<InvoiceResponseDto> getInvoicesWithFilters(InvoiceFilterDto filter) {
+        log.debug("Fetching invoices with filters: {}", filter);
         
-        // Calculate date range based on dateFilter if provided
-        LocalDate filterStartDate = startDate;
-        LocalDate filterEndDate = endDate;
-        
-        if (dateFilter != null && !dateFilter.isEmpty()) {
-            LocalDate today = LocalDate.now();
-            switch (dateFilter.toLowerCase()) {
-                case "today":
-                    filterStartDate = today;
-                    filterEndDate = today;
-                    break;
-                case "yesterday":
-                    filterStartDate = today.minusDays(1);
-                    filterEndDate = today.minusDays(1);
-                    break;
-                case "this_week":
-                    filterStartDate = today.with(DayOfWeek.MONDAY);
-                    filterEndDate = today.with(DayOfWeek.SUNDAY);
-                    break;
-                case "last_week":
-                    filterStartDate = today.minusWeeks(1).with(DayOfWeek.MONDAY);
-                    filterEndDate = today.minusWeeks(1).with(DayOfWeek.SUNDAY);
-                    break;
-                case "this_month":
-                    filterStartDate = today.withDayOfMonth(1);
-                    filterEndDate = today.withDayOfMonth(today.lengthOfMonth());
-                    break;
-                case "last_month":
-                    LocalDate lastMonth = today.minusMonths(1);
-                    filterStartDate = lastMonth.withDayOfMonth(1);
-                    filterEndDate = lastMonth.withDayOfMonth(lastMonth.lengthOfMonth());
-                    break;
-                case "this_quarter":
-                    int currentQuarter = (today.getMonthValue() - 1) / 3;
-                    filterStartDate = today.withMonth(currentQuarter * 3 + 1).withDayOfMonth(1);
-                    filterEndDate = filterStartDate.plusMonths(2).withDayOfMonth(filterStartDate.plusMonths(2).lengthOfMonth());
-                    break;
-                case "last_quarter":
-                    int lastQuarter = (today.getMonthValue() - 1) / 3 - 1;
-                    if (lastQuarter < 0) {
-                        lastQuarter = 3;
-                        filterStartDate = today.minusYears(1).withMonth(lastQuarter * 3 + 1).withDayOfMonth(1);
-                    } else {
-                        filterStartDate = today.withMonth(lastQuarter * 3 + 1).withDayOfMonth(1);
-                    }
-                    filterEndDate = filterStartDate.plusMonths(2).withDayOfMonth(filterStartDate.plusMonths(2).lengthOfMonth());
-                    break;
-                case "this_year":
-                    filterStartDate = today.withDayOfYear(1);
-                    filterEndDate = today.withDayOfYear(today.lengthOfYear());
-                    break;
-                case "last_year":
-                    filterStartDate = today.minusYears(1).withDayOfYear(1);
-                    filterEndDate = today.minusYears(1).withDayOfYear(today.minusYears(1).lengthOfYear());
-                    break;
-                case "last_30_days":
-                    filterStartDate = today.minusDays(30);
-                    filterEndDate = today;
-                    break;
-                case "last_90_days":
-                    filterStartDate = today.minusDays(90);
-                    filterEndDate = today;
-                    break;
-            }
-        }
+        List<Invoice> invoices = invoiceRepository.findByFilter(dateFilterResolver.resolve(filter), null, Limit.unlimited());
+        return invoiceMapper.toResponseDtoList(invoices);
+    }
+    
+    /**
+     * Returns one page of invoices, newest first, with the same filters as {@link #getInvoicesWithFilters}.
+     * Pages are addressed by the id of the last invoice on the previous page, so later pages cost
+     * the same as the first one and are stable while new invoices are created.
+     */
+    @Transactional(readOnly = true)
+    public InvoicePageResponseDto getInvoicePage(InvoiceFilterDto filter, String cursor, int limit) {
+        log.debug("Fetching invoice page: filters={}, cursor={}, limit={}", filter, cursor, limit);
+        
+        // Fetch one extra row to find out whether another page follows
+        List<Invoice> invoices = invoiceRepository.findByFilter(dateFilterResolver.resolve(filter), decodeCursor(cursor), Limit.of(limit + 1));
+        
+        boolean hasMore = invoices.size() > limit;
+        List<Invoice> page = hasMore ? invoices.subList(0, limit) : invoices;
+        
+        return InvoicePageResponseDto.builder()
+                .items(invoiceMapper.toResponseDtoList(page))
+                .nextCursor(hasMore ? encodeCursor(page.get(page.size() - 1).getId()) : null)
+                .build();
+    }
+    
+    /**
+     * Same as {@link #getInvoicePage} but returns only the fields shown in list views,
+     * read through a projection that does not load the line items.
+     */
+    @Transactional(readOnly = true)
+    public InvoiceSummaryPageResponseDto getInvoiceSummaryPage(InvoiceFilterDto filter, String cursor, int limit) {
+        log.debug("Fetching invoice summary page: filters={}, cursor={}, limit={}", filter, cursor, limit);
+        
+        List<InvoiceSummaryDto> summaries = invoiceRepository.findSummariesByFilter(dateFilterResolver.resolve(filter), decodeCursor(cursor),
+                Limit.of(limit + 1));
+        
+        boolean hasMore = summaries.size() > limit;
+        List<InvoiceSummaryDto> page = hasMore ? summaries.subList(0, limit) : summaries;
+        
+        return InvoiceSummaryPageResponseDto.builder()
+                .items(page)
+                .nextCursor(hasMore ? encodeCursor(page.get(page.size() - 1).getId()) : null)
+                .build();
+    }
+    
+    /**
+     * Ranked invoice search over customer name, phone, GST number and invoice number.
+     * Queries shorter than three characters cannot use the trigram index and return nothing.
+     */
+    @Transactional(readOnly = true)
+    public List<InvoiceSearchResultDto> searchInvoices(String query, int limit) {
+        log.debug("Searching invoices: query={}, limit={}", query, limit);
         
-        List<Invoice> invoices;
-        
-        // Apply filters based on available parameters
-        if (status != null && filterStartDate != null && filterEndDate != null) {
-            invoices = invoiceRepository.findByStatusAndInvoiceDateBetweenOrderByIdDesc(status, filterStartDate, filterEndDate);
-        } else if (status != null) {
-            invoices = invoiceRepository.findByStatusOrderByIdDesc(status);
-        } else if (filterStartDate != null && filterEndDate != null) {
-            invoices = invoiceRepository.findByInvoiceDateBetweenOrderByIdDesc(filterStartDate, filterEndDate);
-        } else {
-            invoices = invoiceRepository.findAllByOrderByIdDesc();
+        String normalized = query != null ? query.trim().toLowerCase() : "";
+        if (normalized.length() < MIN_SEARCH_LENGTH) {
+            return List.of();
         }
+        return invoiceRepository.search(normalized, limit);
+    }
+    
+    /**
+     * Invoice counts and amount totals per status and invoice date period, computed by the database.
+     * Accepts the same filters as {@link #getInvoicesWithFilters}.
+     */
+    @Transactional(readOnly = true)
+    public InvoiceAggregatesResponseDto getInvoiceAggregates(InvoiceFilterDto filter, String groupBy) {
+        log.debug("Aggregating invoices by {} with filters: {}", groupBy, filter);
         
-        return invoiceMapper.toResponseDtoList(invoices);
+        AggregatePeriod period = AggregatePeriod.fromParameter(groupBy);
+        InvoiceFilterDto resolved = dateFilterResolver.resolve(filter);
+        return InvoiceAggregatesResponseDto.builder()
+                .groupBy(period)
+                .startDate(resolved.getStartDate())
+                .endDate(resolved.getEndDate())
+                .buckets(invoiceRepository.aggregateByFilter(resolved, period))
+                .build();
+    }
+    
+    /**
+     * Quantity, revenue and invoice count per product for an invoice date range, computed by the
+     * database from the line items.
+     */
+    @Transactional(readOnly = true)
+    public ProductSalesReportResponseDto getProductSalesReport(InvoiceStatus status, LocalDate startDate, LocalDate endDate,
+                                                               String dateFilter) {
+        log.debug("Building product sales report: status={}, startDate={}, endDate={}, dateFilter={}",
+                status, startDate, endDate, dateFilter);
+        
+        InvoiceFilterDto range = dateFilterResolver.resolve(InvoiceFilterDto.builder()
+                .startDate(startDate)
+                .endDate(endDate)
+                .dateFilter(dateFilter)
+                .build());
+        return ProductSalesReportResponseDto.builder()
+                .status(status)
+                .startDate(range.getStartDate())
+                .endDate(range.getEndDate())
+                .rows(invoiceRepository.productSales(status, range.getStartDate(), range.getEndDate()))
+                .build();
     }
     
+    // Reads only the id and version, for conditional GETs
     @Transactional(readOnly = true)
+    public Optional<EntityVersion> getInvoiceVersion(Long id) {
+        return invoiceRepository.findVersionById(id);
+    }
+    
+    // Cache hits must not borrow a connection, so only the load on a miss runs in a transaction
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public InvoiceResponseDto getInvoiceById(Long id) {
         log.debug("Fetching invoice with id: {}", id);
-        Invoice invoice = invoiceRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Invoice not found with id: " + id));
-        return invoiceMapper.toResponseDto(invoice);
+        return invoiceCacheService.getById(id, invoiceId -> invoiceRepository.findById(invoiceId)
+                .map(invoiceMapper::toResponseDto)
+                .orElseThrow(() -> new RuntimeException("Invoice not found with id: " + invoiceId)));
+    }
+    
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public InvoiceResponseDto getInvoiceByNumber(String invoiceNumber) {
+        log.debug("Fetching invoice with number: {}", invoiceNumber);
+        return invoiceCacheService.getByNumber(invoiceNumber, number -> invoiceRepository.findByInvoiceNumber(number)
+                .map(invoiceMapper::toResponseDto)
+                .orElseThrow(() -> new RuntimeException("Invoice not found with number: " + number)));
+    }
+    
+    /**
+     * Creates the invoice once per idempotency key. Repeating the request with the same key, also
+     * concurrently, returns the invoice created first instead of taking another number; a different
+     * request with a used key is rejected. Without a key this is {@link #createInvoice(CreateInvoiceRequestDto)}.
+     */
+    public InvoiceResponseDto createInvoice(CreateInvoiceRequestDto requestDto, String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return createInvoice(requestDto);
+        }
+        
+        Optional<Long> existingId = idempotencyKeyService.claim(idempotencyKey, requestDto);
+        if (existingId.isPresent()) {
+            log.info("Returning invoice {} created earlier with the same Idempotency-Key", existingId.get());
+            return invoiceRepository.findById(existingId.get())
+                    .map(invoiceMapper::toResponseDto)
+                    .orElseThrow(() -> new RuntimeException("Invoice created with this Idempotency-Key was deleted: " + existingId.get()));
+        }
+        
+        InvoiceResponseDto invoice = createInvoice(requestDto);
+        idempotencyKeyService.complete(idempotencyKey, invoice.getId());
+        return invoice;
     }
     
     public InvoiceResponseDto createInvoice(CreateInvoiceRequestDto requestDto) {
         log.debug("Creating invoice for customer: {}", requestDto.getCustomerName());
         
-        // Create line items with dynamic pricing from request
-        List<Invoice.InvoiceLineItem> lineItems = new ArrayList<>();
-        BigDecimal subtotalAmount = BigDecimal.ZERO;
-        
-        for (int i = 0; i < requestDto.getItems().size(); i++) {
-            InvoiceItemDto itemDto = requestDto.getItems().get(i);
-            
-            // Determine if this is a custom product
-            boolean isCustomProduct = Boolean.TRUE.equals(itemDto.getIsCustomProduct()) || itemDto.getProductId() == null;
-            
-            if (!isCustomProduct && itemDto.getProductId() != null) {
-                // Regular product - verify it exists
-                Product product = productRepository.findById(itemDto.getProductId())
-                        .orElseThrow(() -> new RuntimeException("Product not found with id: " + itemDto.getProductId()));
-                log.debug("Using existing product: {} (ID: {})", product.getName(), product.getId());
+        InvoiceLineItemAssembler.LineItems lineItems = invoiceLineItemAssembler.assemble(requestDto.getItems());
+        Invoice invoice = buildInvoice(requestDto, lineItems,
+                invoiceNumberService.generateInvoiceNumber(requestDto.getSeries(), requestDto.getInvoiceDate()));
+        
+        Invoice savedInvoice = invoiceRepository.save(invoice);
+        revenueRollupService.applyChange(null, RevenueRollupService.Contribution.of(savedInvoice));
+        eventPublisher.publishEvent(new InvoiceSavedEvent(savedInvoice.getId()));
+        log.debug("Created invoice with id: {} and number: {}", savedInvoice.getId(), savedInvoice.getInvoiceNumber());
+        
+        return invoiceMapper.toResponseDto(savedInvoice);
+    }
+    
+    /**
+     * Creates many invoices in one transaction. Every invoice is validated first; invalid ones are
+     * reported and skipped while the others are created. Numbers are taken once per series and
+     * invoice date, the rows are inserted in JDBC batches and the rollups get one update per date.
+     * A failure while saving, such as an unknown series, still rejects the whole batch.
+     */
+    public InvoiceBatchResponseDto createInvoices(CreateInvoiceBatchRequestDto batchDto) {
+        List<CreateInvoiceRequestDto> requests = batchDto.getInvoices();
+        log.debug("Creating batch of {} invoices", requests.size());
+        
+        // One query for the catalog products of the whole batch
+        Set<Long> existingProductIds = invoiceLineItemAssembler.findProducts(requests.stream()
+                        .filter(request -> request != null && request.getItems() != null)
+                        .flatMap(request -> request.getItems().stream())
+                        .toList())
+                .keySet();
+        
+        InvoiceBatchItemResultDto[] results = new InvoiceBatchItemResultDto[requests.size()];
+        // Valid invoices grouped by series and invoice date, which is what a number depends on
+        Map<List<Object>, List<Integer>> groups = new LinkedHashMap<>();
+        for (int i = 0; i < requests.size(); i++) {
+            Map<String, String> errors = validateBatchItem(requests.get(i), existingProductIds);
+            if (errors.isEmpty()) {
+                CreateInvoiceRequestDto request = requests.get(i);
+                groups.computeIfAbsent(Arrays.asList(request.getSeries(), request.getInvoiceDate()), key -> new ArrayList<>()).add(i);
             } else {
-                // Custom product - no validation needed
-                log.debug("Using custom product: {}", itemDto.getProductName());
+                results[i] = InvoiceBatchItemResultDto.builder()
+                        .index(i)
+                        .status(InvoiceBatchItemStatus.FAILED)
+                        .errors(errors)
+                        .build();
             }
-            
-            // Calculate line total (no tax at line level)
-            BigDecimal unitPrice = itemDto.getUnitPrice();
-            BigDecimal quantity = BigDecimal.valueOf(itemDto.getQuantity());
-            BigDecimal lineTotal = unitPrice.multiply(quantity);
-            
-            Invoice.InvoiceLineItem lineItem = Invoice.InvoiceLineItem.builder()
-                    .serialNumber(itemDto.getSerialNumber() != null ? itemDto.getSerialNumber() : i + 1)
-                    .productId(isCustomProduct ? null : itemDto.getProductId())
-                    .productName(itemDto.getProductName())
-                    .description(itemDto.getDescription())
-                    .quantity(itemDto.getQuantity())
-                    .unitPrice(unitPrice)
-                    .lineTotal(lineTotal)
-                    .isCustomProduct(isCustomProduct)
+        }
+        
+        List<Integer> indexes = new ArrayList<>();
+        List<Invoice> invoices = new ArrayList<>();
+        for (Map.Entry<List<Object>, List<Integer>> group : groups.entrySet()) {
+            List<String> numbers = invoiceNumberService.generateInvoiceNumbers((String) group.getKey().get(0),
+                    (LocalDate) group.getKey().get(1), group.getValue().size());
+            for (int n = 0; n < group.getValue().size(); n++) {
+                int index = group.getValue().get(n);
+                indexes.add(index);
+                CreateInvoiceRequestDto request = requests.get(index);
+                invoices.add(buildInvoice(request, invoiceLineItemAssembler.build(request.getItems()), numbers.get(n)));
+            }
+        }
+        
+        List<Invoice> savedInvoices = invoiceRepository.saveAll(invoices);
+        revenueRollupService.applyCreated(savedInvoices);
+        for (int n = 0; n < savedInvoices.size(); n++) {
+            Invoice savedInvoice = savedInvoices.get(n);
+            eventPublisher.publishEvent(new InvoiceSavedEvent(savedInvoice.getId()));
+            results[indexes.get(n)] = InvoiceBatchItemResultDto.builder()
+                    .index(indexes.get(n))
+                    .status(InvoiceBatchItemStatus.CREATED)
+                    .invoiceId(savedInvoice.getId())
+                    .invoiceNumber(savedInvoice.getInvoiceNumber())
                     .build();
-            
-            lineItems.add(lineItem);
-            subtotalAmount = subtotalAmount.add(lineTotal);
         }
+        log.info("Created {} of {} invoices in batch", savedInvoices.size(), requests.size());
+        
+        return InvoiceBatchResponseDto.builder()
+                .total(requests.size())
+                .created(savedInvoices.size())
+                .failed(requests.size() - savedInvoices.size())
+                .results(Arrays.asList(results))
+                .build();
+    }
+    
+    // The checks @Valid runs for a single create, plus the product lookup, keyed like validation errors
+    private Map<String, String> validateBatchItem(CreateInvoiceRequestDto requestDto, Set<Long> existingProductIds) {
+        Map<String, String> errors = new LinkedHashMap<>();
+        if (requestDto == null) {
+            errors.put("invoice", "Invoice is required");
+            return errors;
+        }
+        for (ConstraintViolation<CreateInvoiceRequestDto> violation : validator.validate(requestDto)) {
+            errors.put(violation.getPropertyPath().toString(), violation.getMessage());
+        }
+        if (requestDto.getItems() != null) {
+            for (int i = 0; i < requestDto.getItems().size(); i++) {
+                InvoiceItemDto itemDto = requestDto.getItems().get(i);
+                if (itemDto == null) {
+                    errors.put("items[" + i + "]", "Invoice item is required");
+                } else if (!InvoiceLineItemAssembler.isCustomProduct(itemDto)
+                        && !existingProductIds.contains(itemDto.getProductId())) {
+                    errors.put("items[" + i + "].productId", "Product not found with id: " + itemDto.getProductId());
+                }
+            }
+        }
+        return errors;
+    }
+    
+    // Amounts of a new invoice with the given line items
+    private Invoice buildInvoice(CreateInvoiceRequestDto requestDto, InvoiceLineItemAssembler.LineItems lineItems,
+                                 String invoiceNumber) {
+        BigDecimal subtotalAmount = lineItems.subtotalAmount();
         
         // Calculate GST if applicable
         BigDecimal cgstAmount = BigDecimal.ZERO;
@@ -206,8 +364,8 @@ public class InvoiceService {
         BigDecimal totalAmount = subtotalAmount.add(totalGstAmount).add(transportCharges).add(miscCharges);
         
         // Create invoice with customer details from request and JSON line items
-        Invoice invoice = Invoice.builder()
-                .invoiceNumber(generateInvoiceNumber())
+        return Invoice.builder()
+                .invoiceNumber(invoiceNumber)
                 .customerName(requestDto.getCustomerName())
                 .customerEmail(requestDto.getCustomerEmail())
                 .customerPhone(requestDto.getCustomerPhone())
@@ -229,13 +387,8 @@ public class InvoiceService {
                 .miscChargesLabel(requestDto.getMiscChargesLabel())
                 .miscCharges(miscCharges)
                 .totalAmount(totalAmount)
-                .lineItems(lineItems)
+                .lineItems(lineItems.items())
                 .build();
-        
-        Invoice savedInvoice = invoiceRepository.save(invoice);
-        log.debug("Created invoice with id: {} and number: {}", savedInvoice.getId(), savedInvoice.getInvoiceNumber());
-        
-        return invoiceMapper.toResponseDto(savedInvoice);
     }
     
     public InvoiceResponseDto updateInvoice(Long id, UpdateInvoiceRequestDto requestDto) {
@@ -243,6 +396,7 @@ public class InvoiceService {
         
         Invoice invoice = invoiceRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Invoice not found with id: " + id));
+        RevenueRollupService.Contribution previous = RevenueRollupService.Contribution.of(invoice);
         
         // Update customer details
         invoice.setCustomerName(requestDto.getCustomerName());
@@ -269,58 +423,9 @@ public class InvoiceService {
         invoice.setMiscCharges(requestDto.getMiscCharges());
         
         // Update line items
-        List<Invoice.InvoiceLineItem> lineItems = new ArrayList<>();
-        BigDecimal subtotalAmount = BigDecimal.ZERO;
-        
-        for (int i = 0; i < requestDto.getItems().size(); i++) {
-            InvoiceItemDto itemDto = requestDto.getItems().get(i);
-            
-            // Validate product if not custom
-            if (!itemDto.getIsCustomProduct() && itemDto.getProductId() != null) {
-                Product product = productRepository.findById(itemDto.getProductId())
-                        .orElseThrow(() -> new RuntimeException("Product not found with id: " + itemDto.getProductId()));
-                
-                // Calculate line total
-                BigDecimal unitPrice = itemDto.getUnitPrice();
-                BigDecimal quantity = BigDecimal.valueOf(itemDto.getQuantity());
-                BigDecimal lineTotal = unitPrice.multiply(quantity);
-                
-                Invoice.InvoiceLineItem lineItem = Invoice.InvoiceLineItem.builder()
-                        .serialNumber(i + 1)
-                        .productId(product.getId())
-                        .productName(product.getName())
-                        .description(itemDto.getDescription() != null ? itemDto.getDescription() : product.getName())
-                        .quantity(itemDto.getQuantity())
-                        .unitPrice(itemDto.getUnitPrice())
-                        .lineTotal(lineTotal)
-                        .isCustomProduct(false)
-                        .build();
-                
-                lineItems.add(lineItem);
-                subtotalAmount = subtotalAmount.add(lineTotal);
-            } else {
-                // Custom product
-                BigDecimal unitPrice = itemDto.getUnitPrice();
-                BigDecimal quantity = BigDecimal.valueOf(itemDto.getQuantity());
-                BigDecimal lineTotal = unitPrice.multiply(quantity);
-                
-                Invoice.InvoiceLineItem lineItem = Invoice.InvoiceLineItem.builder()
-                        .serialNumber(i + 1)
-                        .productId(null)
-                        .productName(itemDto.getProductName())
-                        .description(itemDto.getDescription())
-                        .quantity(itemDto.getQuantity())
-                        .unitPrice(itemDto.getUnitPrice())
-                        .lineTotal(lineTotal)
-                        .isCustomProduct(true)
-                        .build();
-                
-                lineItems.add(lineItem);
-                subtotalAmount = subtotalAmount.add(lineTotal);
-            }
-        }
-        
-        invoice.setLineItems(lineItems);
+        InvoiceLineItemAssembler.LineItems lineItems = invoiceLineItemAssembler.assemble(requestDto.getItems());
+        BigDecimal subtotalAmount = lineItems.subtotalAmount();
+        invoice.setLineItems(lineItems.items());
         invoice.setSubtotalAmount(subtotalAmount);
         
         // Recalculate GST if applicable
@@ -350,6 +455,10 @@ public class InvoiceService {
         invoice.setTotalAmount(totalAmount);
         
         Invoice savedInvoice = invoiceRepository.save(invoice);
+        revenueRollupService.applyChange(previous, RevenueRollupService.Contribution.of(savedInvoice));
+        pdfCacheService.evictInvoice(savedInvoice.getId());
+        invoiceCacheService.evict(savedInvoice.getId());
+        eventPublisher.publishEvent(new InvoiceSavedEvent(savedInvoice.getId()));
         log.debug("Updated invoice with id: {}", savedInvoice.getId());
         
         return invoiceMapper.toResponseDto(savedInvoice);
@@ -358,18 +467,20 @@ public class InvoiceService {
     public void deleteInvoice(Long id) {
         log.debug("Deleting invoice with id: {}", id);
         
-        if (!invoiceRepository.existsById(id)) {
-            throw new RuntimeException("Invoice not found with id: " + id);
-        }
+        Invoice invoice = invoiceRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Invoice not found with id: " + id));
         
-        invoiceRepository.deleteById(id);
+        invoiceRepository.delete(invoice);
+        revenueRollupService.applyChange(RevenueRollupService.Contribution.of(invoice), null);
+        pdfCacheService.evictInvoice(id);
+        invoiceCacheService.evict(id);
         log.debug("Deleted invoice with id: {}", id);
     }
     
     @Transactional(readOnly = true)
     public List<InvoiceResponseDto> getInvoicesByStatus(InvoiceStatus status) {
         log.debug("Fetching invoices with status: {}", status);
-        List<Invoice> invoices = invoiceRepository.findByStatusOrderByIdDesc(status);
+        List<Invoice> invoices = invoiceRepository.findByFilter(InvoiceFilterDto.builder().status(status).build(), null, Limit.unlimited());
         return invoiceMapper.toResponseDtoList(invoices);
     }
     
@@ -387,7 +498,19 @@ public class InvoiceService {
         return invoiceMapper.toResponseDtoList(invoices);
     }
     
-    private String generateInvoiceNumber() {
-        return invoiceNumberService.generateNextInvoiceNumber();
+    // Cursors are opaque to clients; they only carry the id of the last invoice on a page
+    private String encodeCursor(Long lastId) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(lastId.toString().getBytes(StandardCharsets.UTF_8));
+    }
+    
+    private Long decodeCursor(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            return Long.valueOf(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Invalid cursor: " + cursor);
+        }
     }
 }
@@ -0,0 +1,370 @@
+package com.example.billing.service;
+
+import com.example.billing.dto.invoice.InvoiceResponseDto;
+import com.example.billing.dto.owner.OwnerResponseDto;
+import com.itextpdf.io.image.ImageData;
+import com.itextpdf.io.image.ImageDataFactory;
+import com.itextpdf.kernel.colors.ColorConstants;
+import com.itextpdf.kernel.colors.DeviceRgb;
+import com.itextpdf.kernel.geom.PageSize;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.layout.Document;
+import com.itextpdf.layout.borders.Border;
+import com.itextpdf.layout.borders.SolidBorder;
+import com.itextpdf.layout.element.Cell;
+import com.itextpdf.layout.element.Div;
+import com.itextpdf.layout.element.Image;
+import com.itextpdf.layout.element.Paragraph;
+import com.itextpdf.layout.element.Table;
+import com.itextpdf.layout.properties.Property;
+import com.itextpdf.layout.properties.TextAlignment;
+import com.itextpdf.layout.properties.UnitValue;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Lays the invoice out directly with iText's layout module, skipping HTML parsing and CSS
+ * resolution. It shows the same fields as {@code invoice-template.html} in a simpler layout.
+ */
+@Component
+@RequiredArgsConstructor
+public class NativeInvoicePdfRenderer implements InvoicePdfRenderer {
+    
+    public static final String NAME = "native";
+    
+    private static final String[] FONT_FAMILY = {"Times New Roman", "Times", "serif"};
+    private static final DeviceRgb HEADER_BACKGROUND = new DeviceRgb(243, 244, 246);
+    private static final DeviceRgb BORDER_COLOR = new DeviceRgb(209, 213, 219);
+    
+    private final PdfRenderingEngine pdfRenderingEngine;
+    private final BrandingAssetCache brandingAssetCache;
+    
+    @Override
+    public String getName() {
+        return NAME;
+    }
+    
+    @Override
+    public void render(InvoiceResponseDto invoice, OwnerResponseDto owner, OutputStream outputStream) {
+        Locale locale = Locale.getDefault();
+        DecimalFormat amountFormat = new DecimalFormat("0.00", DecimalFormatSymbols.getInstance(locale));
+        DecimalFormat rateFormat = new DecimalFormat("0.0", DecimalFormatSymbols.getInstance(locale));
+        DateTimeFormatter dateFormat = DateTimeFormatter.ofPattern("MMM dd, yyyy", locale);
+        
+        // Writer settings follow the configured output profile
+        PdfDocument pdfDocument = new PdfDocument(pdfRenderingEngine.createWriter(outputStream));
+        
+        Document document = new Document(pdfDocument, PageSize.A4);
+        document.setMargins(28, 28, 28, 28);
+        document.setFontProvider(pdfRenderingEngine.createFontProvider());
+        document.setFontFamily(FONT_FAMILY);
+        document.setFontSize(10);
+        
+        addGodHeader(document, owner);
+        addHeader(document, invoice, owner);
+        addInvoiceDetails(document, invoice, amountFormat, dateFormat);
+        addItems(document, invoice, amountFormat, rateFormat);
+        addBankDetails(document, owner);
+        addTermsAndSignature(document, owner);
+        addFooter(document, owner);
+        
+        document.close();
+    }
+    
+    private void addGodHeader(Document document, OwnerResponseDto owner) {
+        if (owner == null || (owner.getHeaderGodSymbol() == null && owner.getHeaderName() == null)) {
+            return;
+        }
+        if (hasText(owner.getHeaderGodSymbol())) {
+            document.add(new Paragraph(godSymbolText(owner.getHeaderGodSymbol()))
+                    .setTextAlignment(TextAlignment.CENTER)
+                    .setFontSize(14)
+                    .setMargin(0));
+        }
+        if (hasText(owner.getHeaderName())) {
+            document.add(bold(new Paragraph(owner.getHeaderName()))
+                    .setTextAlignment(TextAlignment.CENTER)
+                    .setMargin(0));
+        }
+    }
+    
+    private void addHeader(Document document, InvoiceResponseDto invoice, OwnerResponseDto owner) {
+        Table header = new Table(UnitValue.createPercentArray(new float[]{65, 35})).useAllAvailableWidth();
+        
+        Div company = new Div();
+        company.add(bold(new Paragraph(owner != null ? owner.getBusinessName() : "Your Business Name")).setFontSize(18).setMargin(0));
+        if (owner != null) {
+            if (owner.getOwnerName() != null) {
+                company.add(new Paragraph(owner.getOwnerName()).setMargin(0));
+            }
+            if (hasText(owner.getFullAddress())) {
+                company.add(new Paragraph(owner.getFullAddress()).setMargin(0));
+            } else {
+                StringBuilder address = new StringBuilder();
+                appendIfPresent(address, "", owner.getAddressLine1());
+                appendIfPresent(address, ", ", owner.getAddressLine2());
+                appendIfPresent(address, ", ", owner.getCity());
+                appendIfPresent(address, " - ", owner.getPincode());
+                appendIfPresent(address, ", ", owner.getState());
+                if (address.length() > 0) {
+                    company.add(new Paragraph(address.toString()).setMargin(0));
+                }
+            }
+            
+            StringBuilder contact = new StringBuilder();
+            if (owner.getContactNumber() != null) {
+                contact.append("Ph: ").append(owner.getContactNumber());
+            } else if (owner.getPhone() != null) {
+                contact.append("Ph: ").append(owner.getPhone());
+            }
+            appendIfPresent(contact, " | Email: ", owner.getEmail());
+            appendIfPresent(contact, " | GST: ", owner.getGstNumber());
+            if (contact.length() > 0) {
+                company.add(new Paragraph(contact.toString()).setMargin(0));
+            }
+        }
+        header.addCell(noBorder(new Cell().add(company)));
+        
+        Div title = new Div().setTextAlignment(TextAlignment.RIGHT);
+        title.add(bold(new Paragraph("INVOICE")).setFontSize(20).setMargin(0));
+        title.add(bold(new Paragraph(invoice.getInvoiceNumber())).setMargin(0));
+        title.add(new Paragraph(String.valueOf(invoice.getStatus())).setMargin(0));
+        header.addCell(noBorder(new Cell().add(title)));
+        
+        document.add(header.setMarginBottom(10));
+    }
+    
+    private void addInvoiceDetails(Document document, InvoiceResponseDto invoice,
+                                   DecimalFormat amountFormat, DateTimeFormatter dateFormat) {
+        Table details = new Table(UnitValue.createPercentArray(new float[]{60, 40})).useAllAvailableWidth();
+        
+        Div billTo = new Div();
+        billTo.add(bold(new Paragraph("Bill To")).setMargin(0));
+        billTo.add(bold(new Paragraph(invoice.getCustomerName())).setMargin(0));
+        for (String line : new String[]{invoice.getCustomerEmail(), invoice.getCustomerPhone(), invoice.getCustomerAddress()}) {
+            if (hasText(line)) {
+                billTo.add(new Paragraph(line).setMargin(0));
+            }
+        }
+        if (hasText(invoice.getCustomerGstNumber())) {
+            billTo.add(new Paragraph("Customer GST: " + invoice.getCustomerGstNumber()).setMargin(0));
+        }
+        details.addCell(noBorder(new Cell().add(billTo)));
+        
+        Div meta = new Div();
+        meta.add(bold(new Paragraph("Invoice Details")).setMargin(0));
+        meta.add(new Paragraph("Date: " + invoice.getInvoiceDate().format(dateFormat)).setMargin(0));
+        meta.add(new Paragraph("Due: " + invoice.getDueDate().format(dateFormat)).setMargin(0));
+        meta.add(new Paragraph("Total: ₹" + amountFormat.format(invoice.getTotalAmount())).setMargin(0));
+        details.addCell(noBorder(new Cell().add(meta)));
+        
+        document.add(details.setMarginBottom(10));
+    }
+    
+    private void addItems(Document document, InvoiceResponseDto invoice,
+                          DecimalFormat amountFormat, DecimalFormat rateFormat) {
+        Table items = new Table(UnitValue.createPercentArray(new float[]{8, 45, 12, 17, 18})).useAllAvailableWidth();
+        for (String heading : new String[]{"S.No", "Product/Service", "Qty", "Unit Price", "Amount"}) {
+            items.addHeaderCell(bordered(new Cell().add(bold(new Paragraph(heading))))
+                    .setBackgroundColor(HEADER_BACKGROUND));
+        }
+        
+        if (invoice.getLineItems() != null) {
+            for (InvoiceResponseDto.InvoiceLineItemDto item : invoice.getLineItems()) {
+                items.addCell(bordered(new Cell().add(new Paragraph(String.valueOf(item.getSerialNumber())))));
+                items.addCell(bordered(new Cell().add(new Paragraph(String.valueOf(item.getProductName())))));
+                items.addCell(bordered(new Cell().add(new Paragraph(String.valueOf(item.getQuantity())))));
+                items.addCell(amountCell("₹" + amountFormat.format(item.getUnitPrice())));
+                items.addCell(amountCell("₹" + amountFormat.format(item.getLineTotal())));
+            }
+        }
+        
+        List<String[]> totals = new ArrayList<>();
+        totals.add(new String[]{"Subtotal:", "₹" + amountFormat.format(invoice.getSubtotalAmount())});
+        if (isPositive(invoice.getTransportCharges())) {
+            String label = invoice.getTransportChargesLabel() != null ? invoice.getTransportChargesLabel() : "Transport Charges";
+            totals.add(new String[]{label + ":", "₹" + amountFormat.format(invoice.getTransportCharges())});
+        }
+        if (isPositive(invoice.getMiscCharges())) {
+            String label = invoice.getMiscChargesLabel() != null ? invoice.getMiscChargesLabel() : "Misc";
+            totals.add(new String[]{label + ":", "₹" + amountFormat.format(invoice.getMiscCharges())});
+        }
+        if (Boolean.TRUE.equals(invoice.getGstApplicable()) && isPositive(invoice.getCgstAmount())) {
+            totals.add(new String[]{"CGST (" + rateFormat.format(invoice.getCgstRate()) + "%):",
+                    "₹" + amountFormat.format(invoice.getCgstAmount())});
+        }
+        if (Boolean.TRUE.equals(invoice.getGstApplicable()) && isPositive(invoice.getSgstAmount())) {
+            totals.add(new String[]{"SGST (" + rateFormat.format(invoice.getSgstRate()) + "%):",
+                    "₹" + amountFormat.format(invoice.getSgstAmount())});
+        }
+        totals.add(new String[]{"TOTAL:", "₹" + amountFormat.format(invoice.getTotalAmount())});
+        
+        for (int i = 0; i < totals.size(); i++) {
+            boolean grandTotal = i == totals.size() - 1;
+            Paragraph label = new Paragraph(totals.get(i)[0]);
+            Paragraph amount = new Paragraph(totals.get(i)[1]);
+            items.addCell(bordered(new Cell(1, 3)));
+            items.addCell(bordered(new Cell().add(grandTotal ? bold(label) : label)).setTextAlignment(TextAlignment.RIGHT));
+            items.addCell(bordered(new Cell().add(grandTotal ? bold(amount) : amount)).setTextAlignment(TextAlignment.RIGHT));
+        }
+        
+        document.add(items.setMarginBottom(10));
+    }
+    
+    private void addBankDetails(Document document, OwnerResponseDto owner) {
+        if (owner == null || (owner.getPrimaryBankName() == null && owner.getBankName() == null)) {
+            return;
+        }
+        
+        List<Div> sections = new ArrayList<>();
+        if (owner.getPrimaryBankName() != null) {
+            sections.add(bankSection("Primary Bank", "Bank Name:", owner.getPrimaryBankName(),
+                    owner.getPrimaryAccountHolderName(), owner.getPrimaryAccountNumber(), owner.getPrimaryIfscCode()));
+        }
+        if (owner.getSecondaryBankName() != null) {
+            sections.add(bankSection("Secondary Bank", "Bank Name:", owner.getSecondaryBankName(),
+                    owner.getSecondaryAccountHolderName(), owner.getSecondaryAccountNumber(), owner.getSecondaryIfscCode()));
+        }
+        if (owner.getPrimaryBankName() == null && owner.getBankName() != null) {
+            sections.add(bankSection("Bank Details", "Bank:", owner.getBankName(),
+                    owner.getAccountHolderName(), owner.getAccountNumber(), owner.getRoutingNumber()));
+        }
+        
+        document.add(bold(new Paragraph("Payment Information")).setMargin(0));
+        Table banks = new Table(UnitValue.createPercentArray(new float[]{50, 50})).useAllAvailableWidth();
+        for (Div section : sections) {
+            banks.addCell(noBorder(new Cell().add(section)));
+        }
+        if (sections.size() == 1) {
+            banks.addCell(noBorder(new Cell()));
+        }
+        document.add(banks.setMarginBottom(10));
+    }
+    
+    private Div bankSection(String title, String bankLabel, String bankName,
+                            String accountHolder, String accountNumber, String ifsc) {
+        Div section = new Div();
+        section.add(bold(new Paragraph(title)).setMargin(0));
+        section.add(new Paragraph(bankLabel + " " + bankName).setMargin(0));
+        if (hasText(accountHolder)) {
+            section.add(new Paragraph("Account Holder: " + accountHolder).setMargin(0));
+        }
+        if (hasText(accountNumber)) {
+            section.add(new Paragraph("Account Number: " + accountNumber).setMargin(0));
+        }
+        if (hasText(ifsc)) {
+            section.add(new Paragraph("IFSC: " + ifsc).setMargin(0));
+        }
+        return section;
+    }
+    
+    private void addTermsAndSignature(Document document, OwnerResponseDto owner) {
+        if (owner == null || (!hasText(owner.getTermsAndConditions()) && !hasText(owner.getSignatureBase64()))) {
+            return;
+        }
+        
+        Table terms = new Table(UnitValue.createPercentArray(new float[]{65, 35})).useAllAvailableWidth();
+        Div left = new Div();
+        left.add(bold(new Paragraph("Terms & Conditions")).setMargin(0));
+        if (owner.getTermsAndConditions() != null) {
+            left.add(new Paragraph(owner.getTermsAndConditions()).setMarginTop(6));
+        }
+        terms.addCell(noBorder(new Cell().add(left)));
+        
+        Cell right = noBorder(new Cell()).setTextAlignment(TextAlignment.CENTER);
+        if (hasText(owner.getSignatureBase64())) {
+            // Decoded once per owner version; fall back to the raw upload if it could not be normalized
+            ImageData signatureData = brandingAssetCache.getAssets(owner).signatureImage();
+            if (signatureData == null) {
+                signatureData = ImageDataFactory.create(Base64.getMimeDecoder().decode(owner.getSignatureBase64()));
+            }
+            Image signature = new Image(signatureData);
+            signature.setMaxWidth(100);
+            signature.setMaxHeight(50);
+            right.add(signature);
+            right.add(new Paragraph("For " + owner.getBusinessName()));
+        }
+        terms.addCell(right);
+        
+        document.add(terms.setMarginBottom(10));
+    }
+    
+    private void addFooter(Document document, OwnerResponseDto owner) {
+        String footer = "Thank you for your business!";
+        if (owner != null && hasText(owner.getInvoiceFooterText())) {
+            footer = owner.getInvoiceFooterText();
+        } else if (owner != null && owner.getInvoiceFooter() != null) {
+            footer = owner.getInvoiceFooter();
+        }
+        document.add(new Paragraph(footer)
+                .setTextAlignment(TextAlignment.CENTER)
+                .setFontColor(ColorConstants.DARK_GRAY));
+    }
+    
+    // Same substitutions as invoice-template.html for symbols the fonts cannot show
+    private String godSymbolText(String symbol) {
+        if (symbol.contains("ॐ") || symbol.contains("🕉")) {
+            return "OM";
+        }
+        if (symbol.contains("✡")) {
+            return "STAR";
+        }
+        if (symbol.contains("☪")) {
+            return "CRESCENT";
+        }
+        if (symbol.contains("✝")) {
+            return "CROSS";
+        }
+        if (symbol.contains("☸")) {
+            return "WHEEL";
+        }
+        if (symbol.contains("○")) {
+            return "O";
+        }
+        return symbol;
+    }
+    
+    private Cell amountCell(String text) {
+        return bordered(new Cell().add(new Paragraph(text))).setTextAlignment(TextAlignment.RIGHT);
+    }
+    
+    private Cell bordered(Cell cell) {
+        cell.setBorder(new SolidBorder(BORDER_COLOR, 0.5f));
+        cell.setPadding(4);
+        return cell;
+    }
+    
+    private Cell noBorder(Cell cell) {
+        cell.setBorder(Border.NO_BORDER);
+        return cell;
+    }
+    
+    private Paragraph bold(Paragraph paragraph) {
+        paragraph.setProperty(Property.FONT_WEIGHT, "bold");
+        return paragraph;
+    }
+    
+    private void appendIfPresent(StringBuilder builder, String separator, String value) {
+        if (value != null) {
+            builder.append(builder.length() > 0 ? separator : "").append(value);
+        }
+    }
+    
+    private boolean isPositive(BigDecimal value) {
+        return value != null && value.compareTo(BigDecimal.ZERO) > 0;
+    }
+    
+    private boolean hasText(String value) {
+        return value != null && !value.isEmpty();
+    }
+}
@@ -5,6 +5,7 @@ import com.example.billing.dto.owner.OwnerResponseDto;
 import com.example.billing.dto.owner.UpdateOwnerRequestDto;
 import com.example.billing.entity.Owner;
 import com.example.billing.mapper.OwnerMapper;
+import com.example.billing.repository.EntityVersion;
 import com.example.billing.repository.OwnerRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -12,6 +13,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
@@ -21,6 +23,8 @@ public class OwnerService {
     
     private final OwnerRepository ownerRepository;
     private final OwnerMapper ownerMapper;
+    private final PdfCacheService pdfCacheService;
+    private final BrandingAssetCache brandingAssetCache;
     
     @Transactional(readOnly = true)
     public List<OwnerResponseDto> getAllOwners() {
@@ -37,6 +41,17 @@ public class OwnerService {
         return ownerMapper.toResponseDto(owner);
     }
     
+    // Read only the id and version, for conditional GETs
+    @Transactional(readOnly = true)
+    public Optional<EntityVersion> getOwnerVersion(Long id) {
+        return ownerRepository.findVersionById(id);
+    }
+    
+    @Transactional(readOnly = true)
+    public Optional<EntityVersion> getActiveOwnerVersion() {
+        return ownerRepository.findVersionByIsActiveTrue();
+    }
+    
     @Transactional(readOnly = true)
     public OwnerResponseDto getActiveOwner() {
         log.debug("Fetching active owner");
@@ -76,6 +91,8 @@ public class OwnerService {
         }
         
         Owner savedOwner = ownerRepository.save(owner);
+        pdfCacheService.clear();
+        brandingAssetCache.invalidate();
         log.debug("Created owner with id: {}", savedOwner.getId());
         
         return ownerMapper.toResponseDto(savedOwner);
@@ -99,6 +116,8 @@ public class OwnerService {
         }
         
         Owner savedOwner = ownerRepository.save(owner);
+        pdfCacheService.clear();
+        brandingAssetCache.invalidate();
         log.debug("Updated owner with id: {}", savedOwner.getId());
         
         return ownerMapper.toResponseDto(savedOwner);
@@ -112,6 +131,8 @@ public class OwnerService {
         }
         
         ownerRepository.deleteById(id);
+        pdfCacheService.clear();
+        brandingAssetCache.invalidate();
         log.debug("Deleted owner with id: {}", id);
     }
     
@@ -129,6 +150,8 @@ public class OwnerService {
         owner.setIsActive(true);
         
         Owner savedOwner = ownerRepository.save(owner);
+        pdfCacheService.clear();
+        brandingAssetCache.invalidate();
         log.debug("Set owner {} as active", savedOwner.getBusinessName());
         
         return ownerMapper.toResponseDto(savedOwner);
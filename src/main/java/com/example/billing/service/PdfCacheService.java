@@ -0,0 +1,290 @@
+package com.example.billing.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * On-disk cache of generated invoice PDFs, stored under {@code app.upload.dir}.
+ * Entries are keyed by a SHA-256 hash of the renderer and output profile, the invoice id and version
+ * and the active owner's id and version, so any change to these produces a new key. The cache is
+ * bounded by total file size and evicts the least recently used entries first.
+ */
+@Service
+@Slf4j
+public class PdfCacheService {
+    
+    private static final String PDF_EXTENSION = ".pdf";
+    private static final String SPOOL_EXTENSION = ".tmp";
+    
+    @Value("${app.upload.dir:uploads}")
+    private String uploadDir;
+    
+    @Value("${app.pdf.cache.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${app.pdf.cache.max-size-mb:256}")
+    private long maxSizeMb;
+    
+    private Path cacheDir;
+    
+    // Cache key -> file size, in access order so the eldest entry is the LRU one
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<Long, String> keysByInvoiceId = new ConcurrentHashMap<>();
+    private long totalBytes;
+    
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    
+    @PostConstruct
+    public void initialize() {
+        if (!enabled) {
+            log.info("PDF cache is disabled");
+            return;
+        }
+        
+        cacheDir = Paths.get(uploadDir, "pdf-cache");
+        try {
+            Files.createDirectories(cacheDir);
+            
+            // Rebuild the LRU index from files left by a previous run, oldest first
+            List<Path> files;
+            try (Stream<Path> stream = Files.list(cacheDir)) {
+                files = stream.sorted(Comparator.comparingLong(this::lastModified)).toList();
+            }
+            // Spool files of renders that were cut short by a shutdown are never published
+            for (Path file : files) {
+                if (file.getFileName().toString().endsWith(SPOOL_EXTENSION)) {
+                    Files.deleteIfExists(file);
+                }
+            }
+            files = files.stream().filter(path -> path.getFileName().toString().endsWith(PDF_EXTENSION)).toList();
+            synchronized (this) {
+                for (Path file : files) {
+                    String fileName = file.getFileName().toString();
+                    long size = Files.size(file);
+                    entries.put(fileName.substring(0, fileName.length() - PDF_EXTENSION.length()), size);
+                    totalBytes += size;
+                }
+                evictIfNeeded();
+            }
+            log.info("PDF cache ready at {} with {} entries ({} bytes)", cacheDir.toAbsolutePath(), entries.size(), totalBytes);
+        } catch (IOException e) {
+            log.warn("PDF cache directory {} is not usable, caching disabled: {}", cacheDir, e.getMessage());
+            enabled = false;
+        }
+    }
+    
+    /**
+     * Computes the key of an invoice version rendered in the named output variant with the given
+     * owner version; the owner may be null when no active owner exists. Only identifiers are hashed:
+     * every edit of an invoice or owner bumps its {@code @Version}, so computing the key costs the
+     * same for any invoice size and branding assets.
+     */
+    public String cacheKey(String outputVariant, Long invoiceId, Long invoiceVersion, Long ownerId, Long ownerVersion) {
+        String identity = String.join("|", outputVariant, String.valueOf(invoiceId), String.valueOf(invoiceVersion),
+                String.valueOf(ownerId), String.valueOf(ownerVersion));
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(identity.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("Failed to compute PDF cache key: " + e.getMessage(), e);
+        }
+    }
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    /**
+     * Whether a PDF is stored under the key. Unlike {@link #copyTo} this does not count as a hit or miss.
+     */
+    public synchronized boolean contains(String key) {
+        return enabled && entries.containsKey(key);
+    }
+    
+    /**
+     * Copies the cached PDF for the key to the output stream, if present, and records a hit or a miss.
+     */
+    public boolean copyTo(Long invoiceId, String key, OutputStream outputStream) throws IOException {
+        if (!enabled) {
+            misses.incrementAndGet();
+            return false;
+        }
+        
+        synchronized (this) {
+            if (entries.get(key) == null) {
+                misses.incrementAndGet();
+                return false;
+            }
+        }
+        
+        InputStream inputStream;
+        try {
+            inputStream = Files.newInputStream(fileFor(key));
+        } catch (IOException e) {
+            // File was evicted or removed underneath us; treat it as a miss
+            log.debug("Cached PDF {} could not be opened: {}", key, e.getMessage());
+            removeEntry(key);
+            misses.incrementAndGet();
+            return false;
+        }
+        
+        try (inputStream) {
+            inputStream.transferTo(outputStream);
+        }
+        hits.incrementAndGet();
+        keysByInvoiceId.put(invoiceId, key);
+        return true;
+    }
+    
+    /**
+     * Creates an empty file to render a PDF into before any of it is sent. It lives in the cache
+     * directory so {@link #publish} can move it into place, or in the system temp directory when
+     * the cache is disabled. The caller deletes the file if it is not published.
+     */
+    public Path createSpoolFile(String key) throws IOException {
+        if (!enabled) {
+            return Files.createTempFile("invoice-pdf-", SPOOL_EXTENSION);
+        }
+        return Files.createTempFile(cacheDir, key, SPOOL_EXTENSION);
+    }
+    
+    /**
+     * Moves a completely rendered spool file into the cache under the key. A no-op when the cache
+     * is disabled; failures are logged, as the PDF was already delivered.
+     */
+    public void publish(Long invoiceId, String key, Path spoolFile) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            commit(invoiceId, key, spoolFile);
+        } catch (IOException e) {
+            log.warn("Failed to cache PDF for invoice {}: {}", invoiceId, e.getMessage());
+        }
+    }
+    
+    private void commit(Long invoiceId, String key, Path tempFile) throws IOException {
+        long size = Files.size(tempFile);
+        Files.move(tempFile, fileFor(key), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        
+        synchronized (this) {
+            Long previousSize = entries.put(key, size);
+            totalBytes += size - (previousSize != null ? previousSize : 0L);
+            evictIfNeeded();
+        }
+        
+        String previousKey = keysByInvoiceId.put(invoiceId, key);
+        if (previousKey != null && !previousKey.equals(key)) {
+            removeEntry(previousKey);
+        }
+    }
+    
+    /**
+     * Drops the cached PDF of an invoice that was updated or deleted.
+     */
+    public void evictInvoice(Long invoiceId) {
+        String key = keysByInvoiceId.remove(invoiceId);
+        if (key != null) {
+            removeEntry(key);
+            log.debug("Evicted cached PDF for invoice {}", invoiceId);
+        }
+    }
+    
+    /**
+     * Drops every cached PDF, e.g. when the owner branding changes.
+     */
+    public synchronized void clear() {
+        for (String key : List.copyOf(entries.keySet())) {
+            deleteFile(key);
+        }
+        entries.clear();
+        keysByInvoiceId.clear();
+        totalBytes = 0;
+        log.debug("Cleared PDF cache");
+    }
+    
+    public synchronized Map<String, Object> getStats() {
+        long hitCount = hits.get();
+        long missCount = misses.get();
+        long requests = hitCount + missCount;
+        
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("hitRatio", requests == 0 ? 0.0 : (double) hitCount / requests);
+        stats.put("evictions", evictions.get());
+        stats.put("entries", entries.size());
+        stats.put("sizeBytes", totalBytes);
+        stats.put("maxSizeBytes", maxSizeBytes());
+        return stats;
+    }
+    
+    private synchronized void removeEntry(String key) {
+        Long size = entries.remove(key);
+        if (size != null) {
+            totalBytes -= size;
+        }
+        deleteFile(key);
+    }
+    
+    // Caller must hold the monitor
+    private void evictIfNeeded() {
+        Iterator<Map.Entry<String, Long>> iterator = entries.entrySet().iterator();
+        while (totalBytes > maxSizeBytes() && iterator.hasNext()) {
+            Map.Entry<String, Long> eldest = iterator.next();
+            iterator.remove();
+            totalBytes -= eldest.getValue();
+            deleteFile(eldest.getKey());
+            evictions.incrementAndGet();
+        }
+    }
+    
+    private void deleteFile(String key) {
+        try {
+            Files.deleteIfExists(fileFor(key));
+        } catch (IOException e) {
+            log.warn("Failed to delete cached PDF {}: {}", key, e.getMessage());
+        }
+    }
+    
+    private Path fileFor(String key) {
+        return cacheDir.resolve(key + PDF_EXTENSION);
+    }
+    
+    private long maxSizeBytes() {
+        return maxSizeMb * 1024 * 1024;
+    }
+    
+    private long lastModified(Path path) {
+        try {
+            return Files.getLastModifiedTime(path).toMillis();
+        } catch (IOException e) {
+            return 0L;
+        }
+    }
+}
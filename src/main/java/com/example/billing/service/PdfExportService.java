@@ -0,0 +1,180 @@
+package com.example.billing.service;
+
+import com.example.billing.dto.invoice.InvoiceFilterDto;
+import com.example.billing.dto.invoice.InvoiceResponseDto;
+import com.example.billing.mapper.InvoiceMapper;
+import com.example.billing.repository.InvoiceRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Renders many invoice PDFs on a bounded worker pool and writes them into a ZIP
+ * stream as each one finishes. Invoices are loaded one at a time by the render tasks
+ * and matching ids are read a page at a time, so only a small window of invoices and
+ * rendered PDFs is in memory at any time; the archive itself is never buffered.
+ * Renders bypass the PDF cache.
+ */
+@Service
+@Slf4j
+public class PdfExportService {
+    
+    private static final int ID_PAGE_SIZE = 500;
+    
+    private final PdfService pdfService;
+    private final InvoiceRepository invoiceRepository;
+    private final InvoiceMapper invoiceMapper;
+    private final DateFilterResolver dateFilterResolver;
+    private final ExecutorService pdfExportExecutor;
+    
+    @Value("${app.pdf.export.max-in-flight:8}")
+    private int maxInFlight;
+    
+    public PdfExportService(PdfService pdfService,
+                            InvoiceRepository invoiceRepository,
+                            InvoiceMapper invoiceMapper,
+                            DateFilterResolver dateFilterResolver,
+                            @Qualifier("pdfExportExecutor") ExecutorService pdfExportExecutor) {
+        this.pdfService = pdfService;
+        this.invoiceRepository = invoiceRepository;
+        this.invoiceMapper = invoiceMapper;
+        this.dateFilterResolver = dateFilterResolver;
+        this.pdfExportExecutor = pdfExportExecutor;
+    }
+    
+    /**
+     * Ids of the invoices matching the filter, newest first, read {@value #ID_PAGE_SIZE} at a time
+     * as the iterator advances. The filter is checked right away, so an invalid one fails before
+     * any response is written.
+     */
+    public Iterator<Long> invoiceIds(InvoiceFilterDto filter) {
+        return new IdPageIterator(dateFilterResolver.resolve(filter));
+    }
+    
+    public void writeZip(Iterator<Long> invoiceIds, OutputStream outputStream) throws IOException {
+        log.debug("Exporting invoice PDFs as ZIP");
+        
+        ZipOutputStream zip = new ZipOutputStream(outputStream);
+        // PDF content streams are already compressed
+        zip.setLevel(Deflater.BEST_SPEED);
+        
+        CompletionService<RenderedPdf> completionService = new ExecutorCompletionService<>(pdfExportExecutor);
+        List<Future<RenderedPdf>> pending = new ArrayList<>();
+        List<String> failures = new ArrayList<>();
+        Iterator<Long> remaining = invoiceIds;
+        int exported = 0;
+        
+        try {
+            // Keep at most maxInFlight renders queued or finished-but-unwritten
+            int inFlight = 0;
+            while (inFlight < maxInFlight && remaining.hasNext()) {
+                pending.add(completionService.submit(renderTask(remaining.next())));
+                inFlight++;
+            }
+            
+            while (inFlight > 0) {
+                Future<RenderedPdf> completed = completionService.take();
+                pending.remove(completed);
+                inFlight--;
+                
+                try {
+                    RenderedPdf pdf = completed.get();
+                    zip.putNextEntry(new ZipEntry("invoice-" + pdf.invoiceNumber() + ".pdf"));
+                    zip.write(pdf.content());
+                    zip.closeEntry();
+                    exported++;
+                } catch (ExecutionException e) {
+                    log.error("Skipping invoice in PDF export: {}", e.getCause().getMessage());
+                    failures.add(e.getCause().getMessage());
+                }
+                
+                if (remaining.hasNext()) {
+                    pending.add(completionService.submit(renderTask(remaining.next())));
+                    inFlight++;
+                }
+            }
+            
+            if (!failures.isEmpty()) {
+                zip.putNextEntry(new ZipEntry("export-errors.txt"));
+                zip.write(String.join(System.lineSeparator(), failures).getBytes(StandardCharsets.UTF_8));
+                zip.closeEntry();
+            }
+            zip.finish();
+            zip.flush();
+            log.debug("Exported {} invoice PDFs, {} failed", exported, failures.size());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("PDF export interrupted", e);
+        } finally {
+            // Client went away or export failed; stop rendering what nobody will read
+            pending.forEach(future -> future.cancel(true));
+        }
+    }
+    
+    private Callable<RenderedPdf> renderTask(Long invoiceId) {
+        return () -> {
+            try {
+                InvoiceResponseDto invoice = invoiceRepository.findById(invoiceId)
+                        .map(invoiceMapper::toResponseDto)
+                        .orElseThrow(() -> new RuntimeException("not found"));
+                return new RenderedPdf(invoice.getInvoiceNumber(), pdfService.renderInvoicePdf(invoice));
+            } catch (RuntimeException e) {
+                throw new RuntimeException("Invoice " + invoiceId + ": " + e.getMessage(), e);
+            }
+        };
+    }
+    
+    // Pages through the matching ids with the same keyset as the invoice list
+    private final class IdPageIterator implements Iterator<Long> {
+        
+        private final InvoiceFilterDto filter;
+        private Iterator<Long> page = List.<Long>of().iterator();
+        private Long lastId;
+        private boolean lastPage;
+        
+        IdPageIterator(InvoiceFilterDto filter) {
+            this.filter = filter;
+        }
+        
+        @Override
+        public boolean hasNext() {
+            if (!page.hasNext() && !lastPage) {
+                List<Long> ids = invoiceRepository.findIdsByFilter(filter, lastId, Limit.of(ID_PAGE_SIZE));
+                lastPage = ids.size() < ID_PAGE_SIZE;
+                page = ids.iterator();
+            }
+            return page.hasNext();
+        }
+        
+        @Override
+        public Long next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            lastId = page.next();
+            return lastId;
+        }
+    }
+    
+    private record RenderedPdf(String invoiceNumber, byte[] content) {
+    }
+}
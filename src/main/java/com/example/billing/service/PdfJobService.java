@@ -0,0 +1,278 @@
+package com.example.billing.service;
+
+import com.example.billing.dto.invoice.InvoiceResponseDto;
+import com.example.billing.dto.pdfjob.CreatePdfJobRequestDto;
+import com.example.billing.dto.pdfjob.PdfJobResponseDto;
+import com.example.billing.entity.PdfJob;
+import com.example.billing.enums.PdfJobStatus;
+import com.example.billing.mapper.PdfJobMapper;
+import com.example.billing.repository.InvoiceRepository;
+import com.example.billing.repository.PdfJobRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Renders invoice PDFs in the background. Jobs are stored in {@code pdf_jobs} before they are
+ * handed to a bounded worker pool, results are written under {@code app.upload.dir/pdf-jobs}.
+ * Jobs that were queued or running when the application stopped are queued again on startup.
+ * Finished jobs and their result files are removed once {@code app.pdf.jobs.retention} has passed.
+ */
+@Service
+@Slf4j
+public class PdfJobService {
+    
+    private static final int MAX_ERROR_LENGTH = 1000;
+    
+    private final PdfJobRepository pdfJobRepository;
+    private final PdfJobMapper pdfJobMapper;
+    private final InvoiceRepository invoiceRepository;
+    private final InvoiceService invoiceService;
+    private final PdfService pdfService;
+    private final PdfExportService pdfExportService;
+    private final ThreadPoolExecutor pdfJobExecutor;
+    
+    @Value("${app.upload.dir:uploads}")
+    private String uploadDir;
+    
+    @Value("${app.pdf.jobs.retention:PT24H}")
+    private Duration retention;
+    
+    private Path resultDir;
+    
+    public PdfJobService(PdfJobRepository pdfJobRepository,
+                         PdfJobMapper pdfJobMapper,
+                         InvoiceRepository invoiceRepository,
+                         InvoiceService invoiceService,
+                         PdfService pdfService,
+                         PdfExportService pdfExportService,
+                         @Qualifier("pdfJobExecutor") ThreadPoolExecutor pdfJobExecutor) {
+        this.pdfJobRepository = pdfJobRepository;
+        this.pdfJobMapper = pdfJobMapper;
+        this.invoiceRepository = invoiceRepository;
+        this.invoiceService = invoiceService;
+        this.pdfService = pdfService;
+        this.pdfExportService = pdfExportService;
+        this.pdfJobExecutor = pdfJobExecutor;
+    }
+    
+    @PostConstruct
+    public void initialize() {
+        resultDir = Paths.get(uploadDir, "pdf-jobs");
+        try {
+            Files.createDirectories(resultDir);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not create PDF job directory " + resultDir, e);
+        }
+    }
+    
+    /**
+     * Stores a new job and queues it. Fails when an invoice does not exist, and throws
+     * {@link RejectedExecutionException} when the queue is full; the job row is removed again in that case.
+     */
+    public PdfJobResponseDto submit(CreatePdfJobRequestDto requestDto) {
+        // A repeated id would be a duplicate ZIP entry
+        List<Long> invoiceIds = List.copyOf(new LinkedHashSet<>(requestDto.getInvoiceIds()));
+        Set<Long> existing = new HashSet<>(invoiceRepository.findExistingIds(invoiceIds));
+        List<Long> missing = invoiceIds.stream().filter(id -> !existing.contains(id)).toList();
+        if (!missing.isEmpty()) {
+            throw new RuntimeException("Invoices not found with ids: " + missing);
+        }
+        
+        PdfJob job = pdfJobRepository.save(PdfJob.builder()
+                .status(PdfJobStatus.QUEUED)
+                .invoiceIds(invoiceIds)
+                .build());
+        
+        try {
+            pdfJobExecutor.execute(() -> run(job.getId()));
+        } catch (RejectedExecutionException e) {
+            pdfJobRepository.delete(job);
+            log.warn("PDF job queue is full, rejected job for {} invoices", job.getInvoiceIds().size());
+            throw new RejectedExecutionException("PDF job queue is full, please retry later", e);
+        }
+        
+        log.debug("Queued PDF job {} for {} invoices", job.getId(), job.getInvoiceIds().size());
+        return toResponseDto(job);
+    }
+    
+    public PdfJobResponseDto getJob(Long id) {
+        return toResponseDto(findJob(id));
+    }
+    
+    /**
+     * Returns the result file of a completed job.
+     */
+    public Path getResultFile(Long id) {
+        PdfJob job = findJob(id);
+        if (job.getStatus() != PdfJobStatus.COMPLETED) {
+            throw new RuntimeException("PDF job " + id + " is not completed, status: " + job.getStatus());
+        }
+        Path result = Paths.get(job.getResultPath());
+        if (!Files.isReadable(result)) {
+            throw new RuntimeException("Result of PDF job " + id + " is no longer available");
+        }
+        return result;
+    }
+    
+    public Map<String, Object> getQueueStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("threads", pdfJobExecutor.getMaximumPoolSize());
+        stats.put("active", pdfJobExecutor.getActiveCount());
+        stats.put("queued", pdfJobExecutor.getQueue().size());
+        stats.put("remainingCapacity", pdfJobExecutor.getQueue().remainingCapacity());
+        return stats;
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeUnfinishedJobs() {
+        List<PdfJob> unfinished = pdfJobRepository.findByStatusInOrderByIdAsc(List.of(PdfJobStatus.QUEUED, PdfJobStatus.RUNNING));
+        if (unfinished.isEmpty()) {
+            return;
+        }
+        
+        int resumed = 0;
+        for (PdfJob job : unfinished) {
+            // A RUNNING job was interrupted by the shutdown and is simply rendered again
+            job.setStatus(PdfJobStatus.QUEUED);
+            job.setStartedAt(null);
+            try {
+                pdfJobRepository.save(job);
+                pdfJobExecutor.execute(() -> run(job.getId()));
+                resumed++;
+            } catch (RejectedExecutionException e) {
+                markFailed(job, "PDF job queue was full after restart, please resubmit");
+            }
+        }
+        log.info("Resumed {} of {} unfinished PDF jobs", resumed, unfinished.size());
+    }
+    
+    /**
+     * Removes jobs that finished more than the retention ago, and result files as old as that.
+     * Files are swept by age rather than through the rows, so results whose row is already gone and
+     * temporary files left by a crash are removed too.
+     */
+    @Scheduled(initialDelayString = "${app.pdf.jobs.purge-interval:PT1H}",
+            fixedDelayString = "${app.pdf.jobs.purge-interval:PT1H}")
+    @Transactional
+    public void purgeExpired() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+        int deleted = pdfJobRepository.deleteCompletedBefore(cutoff);
+        
+        FileTime fileCutoff = FileTime.from(cutoff.atZone(ZoneId.systemDefault()).toInstant());
+        int deletedFiles = 0;
+        try (Stream<Path> files = Files.list(resultDir)) {
+            for (Path file : files.toList()) {
+                if (Files.getLastModifiedTime(file).compareTo(fileCutoff) < 0 && deleteQuietly(file)) {
+                    deletedFiles++;
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Could not list PDF job directory {}: {}", resultDir, e.getMessage());
+        }
+        if (deleted > 0 || deletedFiles > 0) {
+            log.info("Purged {} expired PDF jobs and {} result files", deleted, deletedFiles);
+        }
+    }
+    
+    private void run(Long jobId) {
+        PdfJob job = pdfJobRepository.findById(jobId).orElse(null);
+        if (job == null || job.getStatus() != PdfJobStatus.QUEUED) {
+            return;
+        }
+        
+        job.setStatus(PdfJobStatus.RUNNING);
+        job.setStartedAt(LocalDateTime.now());
+        pdfJobRepository.save(job);
+        
+        Path tempFile = null;
+        try {
+            String fileName;
+            tempFile = Files.createTempFile(resultDir, "job-" + jobId + "-", ".tmp");
+            try (OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(tempFile))) {
+                if (job.isBatch()) {
+                    fileName = "invoices-" + LocalDate.now() + ".zip";
+                    pdfExportService.writeZip(job.getInvoiceIds().iterator(), outputStream);
+                } else {
+                    InvoiceResponseDto invoice = invoiceService.getInvoiceById(job.getInvoiceIds().get(0));
+                    fileName = "invoice-" + invoice.getInvoiceNumber() + ".pdf";
+                    pdfService.writeInvoicePdf(invoice, outputStream);
+                }
+            }
+            
+            Path result = resultDir.resolve("job-" + jobId + (job.isBatch() ? ".zip" : ".pdf"));
+            Files.move(tempFile, result, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            
+            job.setStatus(PdfJobStatus.COMPLETED);
+            job.setResultPath(result.toString());
+            job.setResultFileName(fileName);
+            job.setCompletedAt(LocalDateTime.now());
+            pdfJobRepository.save(job);
+            log.debug("PDF job {} completed", jobId);
+        } catch (Exception e) {
+            log.error("PDF job {} failed: {}", jobId, e.getMessage());
+            deleteQuietly(tempFile);
+            markFailed(job, e.getMessage());
+        }
+    }
+    
+    private void markFailed(PdfJob job, String message) {
+        job.setStatus(PdfJobStatus.FAILED);
+        job.setErrorMessage(message != null && message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message);
+        job.setCompletedAt(LocalDateTime.now());
+        pdfJobRepository.save(job);
+    }
+    
+    private boolean deleteQuietly(Path file) {
+        if (file == null) {
+            return false;
+        }
+        try {
+            return Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Failed to delete PDF job file {}: {}", file, e.getMessage());
+            return false;
+        }
+    }
+    
+    private PdfJob findJob(Long id) {
+        return pdfJobRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("PDF job not found with id: " + id));
+    }
+    
+    private PdfJobResponseDto toResponseDto(PdfJob job) {
+        PdfJobResponseDto responseDto = pdfJobMapper.toResponseDto(job);
+        if (job.getStatus() == PdfJobStatus.COMPLETED) {
+            responseDto.setDownloadUrl("/api/pdf-jobs/" + job.getId() + "/download");
+        }
+        return responseDto;
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.billing.service;
+
+import com.example.billing.event.InvoiceSavedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Renders an invoice PDF into the PDF cache once the transaction that created or updated
+ * the invoice has committed, so the first download is usually served from the cache.
+ * Background renders run on a small bounded pool; when it is saturated the render is
+ * skipped and the download renders on demand as before.
+ */
+@Service
+@Slf4j
+public class PdfPrerenderService {
+    
+    private final InvoiceService invoiceService;
+    private final PdfService pdfService;
+    private final ThreadPoolExecutor pdfPrerenderExecutor;
+    
+    @Value("${app.pdf.prerender.enabled:true}")
+    private boolean enabled;
+    
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    
+    public PdfPrerenderService(InvoiceService invoiceService,
+                               PdfService pdfService,
+                               @Qualifier("pdfPrerenderExecutor") ThreadPoolExecutor pdfPrerenderExecutor) {
+        this.invoiceService = invoiceService;
+        this.pdfService = pdfService;
+        this.pdfPrerenderExecutor = pdfPrerenderExecutor;
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onInvoiceSaved(InvoiceSavedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        
+        try {
+            pdfPrerenderExecutor.execute(() -> prerender(event.invoiceId()));
+            submitted.incrementAndGet();
+        } catch (RejectedExecutionException e) {
+            dropped.incrementAndGet();
+            log.debug("Pre-render queue is full, invoice {} will be rendered on download", event.invoiceId());
+        }
+    }
+    
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("submitted", submitted.get());
+        stats.put("completed", completed.get());
+        stats.put("dropped", dropped.get());
+        stats.put("failed", failed.get());
+        stats.put("queued", pdfPrerenderExecutor.getQueue().size());
+        return stats;
+    }
+    
+    private void prerender(Long invoiceId) {
+        try {
+            // Load the committed state; a later update may already have changed it, which is fine
+            pdfService.prerenderInvoicePdf(invoiceService.getInvoiceById(invoiceId));
+            completed.incrementAndGet();
+        } catch (RuntimeException e) {
+            failed.incrementAndGet();
+            log.warn("Pre-rendering PDF for invoice {} failed: {}", invoiceId, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.billing.service;
+
+import com.itextpdf.html2pdf.ConverterProperties;
+import com.itextpdf.html2pdf.HtmlConverter;
+import com.itextpdf.kernel.font.PdfFont;
+import com.itextpdf.kernel.pdf.CompressionConstants;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.pdf.WriterProperties;
+import com.itextpdf.layout.font.FontInfo;
+import com.itextpdf.layout.font.FontProvider;
+import com.itextpdf.layout.font.FontSet;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * Long-lived PDF rendering engine shared by all invoice renders.
+ * Fonts are scanned once at startup into a {@link FontSet}; every render then gets
+ * a cheap per-document {@link FontProvider} over that shared set, because iText binds
+ * the {@code PdfFont} instances a provider creates to a single document.
+ */
+@Component
+@Slf4j
+public class PdfRenderingEngine {
+    
+    private static final String WARM_UP_HTML =
+            "<html><head><meta charset=\"UTF-8\"></head><body><p>warm-up ₹0.00</p></body></html>";
+    
+    @Value("${app.pdf.system-fonts:true}")
+    private boolean systemFontsEnabled;
+    
+    @Value("${app.pdf.warm-up:true}")
+    private boolean warmUpEnabled;
+    
+    @Value("${app.pdf.output-profile:compact}")
+    private String outputProfileName;
+    
+    private OutputProfile outputProfile;
+    private FontSet fontSet;
+    private long fontLoadMillis;
+    private long warmUpMillis;
+    
+    @PostConstruct
+    public void initialize() {
+        outputProfile = OutputProfile.valueOf(outputProfileName.trim().toUpperCase(Locale.ROOT));
+        long start = System.nanoTime();
+        
+        FontProvider fontProvider = new FontProvider();
+        fontProvider.addStandardPdfFonts();
+        
+        // In production/Docker, system fonts may not be available
+        // Use only standard PDF fonts for maximum compatibility
+        if (systemFontsEnabled) {
+            try {
+                fontProvider.addSystemFonts();
+            } catch (Exception e) {
+                log.warn("System fonts not available in production environment, using standard PDF fonts only");
+            }
+        }
+        
+        fontSet = fontProvider.getFontSet();
+        fontLoadMillis = (System.nanoTime() - start) / 1_000_000;
+        
+        if (warmUpEnabled) {
+            long warmUpStart = System.nanoTime();
+            try {
+                HtmlConverter.convertToPdf(WARM_UP_HTML, new PdfDocument(createWriter(OutputStream.nullOutputStream())),
+                        createConverterProperties());
+            } catch (Exception e) {
+                log.warn("PDF engine warm-up render failed: {}", e.getMessage());
+            }
+            warmUpMillis = (System.nanoTime() - warmUpStart) / 1_000_000;
+        }
+        
+        log.info("PDF rendering engine ready: {} fonts loaded in {} ms, warm-up render took {} ms, {} output",
+                fontSet.size(), fontLoadMillis, warmUpMillis, outputProfile);
+    }
+    
+    /**
+     * Creates converter properties for a single document. The font set is shared,
+     * the font provider and properties are not, so callers must not reuse the result
+     * across concurrent conversions.
+     */
+    public ConverterProperties createConverterProperties() {
+        ConverterProperties converterProperties = new ConverterProperties();
+        converterProperties.setCharset(StandardCharsets.UTF_8.name());
+        converterProperties.setFontProvider(createFontProvider());
+        return converterProperties;
+    }
+    
+    /**
+     * Creates a font provider over the shared font set for a single document.
+     * In the compact profile every embedded font is subset to the glyphs the document uses.
+     */
+    public FontProvider createFontProvider() {
+        if (outputProfile == OutputProfile.COMPATIBLE) {
+            return new FontProvider(fontSet);
+        }
+        return new FontProvider(fontSet) {
+            @Override
+            public PdfFont getPdfFont(FontInfo fontInfo, FontSet additionalFonts) {
+                PdfFont font = super.getPdfFont(fontInfo, additionalFonts);
+                font.setSubset(true);
+                return font;
+            }
+        };
+    }
+    
+    /**
+     * Creates a writer for a single document that leaves the target stream open.
+     * The compact profile compresses content at the highest level, packs objects into
+     * compressed object streams and reuses identical resources.
+     */
+    public PdfWriter createWriter(OutputStream outputStream) {
+        WriterProperties writerProperties = new WriterProperties();
+        if (outputProfile == OutputProfile.COMPACT) {
+            writerProperties.setFullCompressionMode(true)
+                    .setCompressionLevel(CompressionConstants.BEST_COMPRESSION)
+                    .useSmartMode();
+        }
+        PdfWriter pdfWriter = new PdfWriter(outputStream, writerProperties);
+        pdfWriter.setCloseStream(false);
+        return pdfWriter;
+    }
+    
+    public OutputProfile getOutputProfile() {
+        return outputProfile;
+    }
+    
+    public int getFontCount() {
+        return fontSet.size();
+    }
+    
+    public long getFontLoadMillis() {
+        return fontLoadMillis;
+    }
+    
+    public long getWarmUpMillis() {
+        return warmUpMillis;
+    }
+    
+    public enum OutputProfile {
+        // Smallest files: full compression, object streams, subset fonts
+        COMPACT,
+        // Writer and font defaults as used before output profiles existed
+        COMPATIBLE
+    }
+}
@@ -2,105 +2,184 @@ package com.example.billing.service;
 
 import com.example.billing.dto.invoice.InvoiceResponseDto;
 import com.example.billing.dto.owner.OwnerResponseDto;
-import com.itextpdf.html2pdf.ConverterProperties;
-import com.itextpdf.html2pdf.HtmlConverter;
-import com.itextpdf.kernel.pdf.PdfDocument;
-import com.itextpdf.kernel.pdf.PdfWriter;
-import com.itextpdf.layout.font.FontProvider;
+import com.example.billing.repository.EntityVersion;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.thymeleaf.TemplateEngine;
-import org.thymeleaf.context.Context;
 
+import java.io.BufferedOutputStream;
 import java.io.ByteArrayOutputStream;
-import java.math.BigDecimal;
-import java.nio.charset.StandardCharsets;
-import java.util.Locale;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class PdfService {
     
-    private final TemplateEngine templateEngine;
     private final OwnerService ownerService;
+    private final PdfCacheService pdfCacheService;
+    private final PdfRenderingEngine pdfRenderingEngine;
+    private final List<InvoicePdfRenderer> renderers;
+    
+    @Value("${app.pdf.renderer:html}")
+    private String rendererName;
+    
+    private InvoicePdfRenderer renderer;
+    
+    @PostConstruct
+    public void initialize() {
+        renderer = renderers.stream()
+                .filter(candidate -> candidate.getName().equalsIgnoreCase(rendererName))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("Unknown PDF renderer '" + rendererName + "', expected one of "
+                        + renderers.stream().map(InvoicePdfRenderer::getName).toList()));
+        log.info("Using '{}' invoice PDF renderer", renderer.getName());
+    }
+    
+    public String getRendererName() {
+        return renderer.getName();
+    }
+    
+    /**
+     * Renders the invoice into the PDF cache unless an up-to-date copy is already stored.
+     * Used by background pre-rendering; a no-op when the cache is disabled.
+     */
+    public void prerenderInvoicePdf(InvoiceResponseDto invoice) {
+        if (!pdfCacheService.isEnabled()) {
+            return;
+        }
+        
+        if (pdfCacheService.contains(cacheKey(invoice, findActiveOwnerVersion()))) {
+            return;
+        }
+        
+        Path spoolFile = null;
+        try {
+            OwnerResponseDto owner = findActiveOwner();
+            String cacheKey = cacheKey(invoice, owner);
+            spoolFile = renderToSpoolFile(invoice, owner, cacheKey);
+            pdfCacheService.publish(invoice.getId(), cacheKey, spoolFile);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to pre-render PDF: " + e.getMessage(), e);
+        } finally {
+            deleteSpoolFile(spoolFile);
+        }
+        log.debug("Pre-rendered PDF for invoice: {}", invoice.getInvoiceNumber());
+    }
     
     public byte[] generateInvoicePdf(InvoiceResponseDto invoice) {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        writeInvoicePdf(invoice, outputStream);
+        return outputStream.toByteArray();
+    }
+    
+    /**
+     * Renders the invoice without reading or writing the PDF cache. Used by bulk exports, which would
+     * otherwise evict the recently downloaded PDFs the cache is meant to keep.
+     */
+    public byte[] renderInvoicePdf(InvoiceResponseDto invoice) {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try {
+            renderer.render(invoice, findActiveOwner(), outputStream);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to generate PDF: " + e.getMessage(), e);
+        }
+        return outputStream.toByteArray();
+    }
+    
+    /**
+     * Writes the invoice PDF to the given stream without buffering the whole document in memory.
+     * Both renderers write to their output while they lay out pages, so a cache miss is rendered
+     * into a spool file first and only copied to the stream once it is complete: a failed render
+     * has written nothing and the caller can still send a regular error response. The finished
+     * spool file then becomes the cached copy. The stream is not closed.
+     */
+    public void writeInvoicePdf(InvoiceResponseDto invoice, OutputStream outputStream) {
         log.debug("Generating PDF for invoice: {}", invoice.getInvoiceNumber());
         
+        Path spoolFile = null;
         try {
-            // Get owner details for invoice header
-            OwnerResponseDto owner = null;
-            try {
-                owner = ownerService.getActiveOwner();
-            } catch (RuntimeException e) {
-                log.warn("No active owner found, using default values");
-            }
-            
-            // Create Thymeleaf context
-            Context context = new Context(Locale.getDefault());
-            context.setVariable("invoice", invoice);
-            context.setVariable("owner", owner);
-            
-            // Use the calculated amounts from the invoice entity
-            context.setVariable("subtotal", invoice.getSubtotalAmount());
-            context.setVariable("cgstRate", invoice.getCgstRate());
-            context.setVariable("sgstRate", invoice.getSgstRate());
-            context.setVariable("cgstAmount", invoice.getCgstAmount());
-            context.setVariable("sgstAmount", invoice.getSgstAmount());
-            context.setVariable("totalGstAmount", invoice.getTotalGstAmount());
-            context.setVariable("gstApplicable", invoice.getGstApplicable());
-            context.setVariable("transportChargesLabel", invoice.getTransportChargesLabel());
-            context.setVariable("transportCharges", invoice.getTransportCharges());
-            context.setVariable("miscChargesLabel", invoice.getMiscChargesLabel());
-            context.setVariable("miscCharges", invoice.getMiscCharges());
-            
-            // Process the template
-            String htmlContent = templateEngine.process("invoice-template", context);
-            
-            // Log the processed HTML content for debugging (only in debug mode)
-            if (log.isDebugEnabled()) {
-                log.debug("Processed HTML content length: {}", htmlContent.length());
-                if (owner != null && owner.getHeaderGodSymbol() != null) {
-                    log.debug("God symbol in template: '{}'", owner.getHeaderGodSymbol());
-                }
+            // Serve the stored copy when neither the invoice nor the owner changed; only the owner's
+            // version is read for this, not the owner and its branding assets
+            String cachedKey = cacheKey(invoice, findActiveOwnerVersion());
+            if (pdfCacheService.copyTo(invoice.getId(), cachedKey, outputStream)) {
+                log.debug("Served cached PDF for invoice: {}", invoice.getInvoiceNumber());
+                return;
             }
             
-            // Convert HTML to PDF with proper encoding
-            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-            
-            // Set up PDF writer and document with UTF-8 support
-            PdfWriter pdfWriter = new PdfWriter(outputStream);
-            PdfDocument pdfDocument = new PdfDocument(pdfWriter);
-            
-            // Configure converter properties for proper Unicode support
-            ConverterProperties converterProperties = new ConverterProperties();
-            converterProperties.setCharset(StandardCharsets.UTF_8.name());
-            
-            // Set up font provider for better Unicode support in production
-            FontProvider fontProvider = new FontProvider();
-            fontProvider.addStandardPdfFonts();
-            
-            // In production/Docker, system fonts may not be available
-            // Use only standard PDF fonts for maximum compatibility
-            try {
-                fontProvider.addSystemFonts();
-            } catch (Exception e) {
-                log.warn("System fonts not available in production environment, using standard PDF fonts only");
-            }
-            
-            converterProperties.setFontProvider(fontProvider);
-            
-            // Convert HTML to PDF with UTF-8 encoding and font support
-            HtmlConverter.convertToPdf(htmlContent, pdfDocument, converterProperties);
+            // Get owner details for invoice header; keyed by what was loaded in case the owner just changed
+            OwnerResponseDto owner = findActiveOwner();
+            String cacheKey = cacheKey(invoice, owner);
+            spoolFile = renderToSpoolFile(invoice, owner, cacheKey);
+            Files.copy(spoolFile, outputStream);
+            pdfCacheService.publish(invoice.getId(), cacheKey, spoolFile);
             
             log.debug("PDF generated successfully for invoice: {}", invoice.getInvoiceNumber());
-            return outputStream.toByteArray();
             
         } catch (Exception e) {
             log.error("Error generating PDF for invoice: {}", invoice.getInvoiceNumber(), e);
             throw new RuntimeException("Failed to generate PDF: " + e.getMessage(), e);
+        } finally {
+            deleteSpoolFile(spoolFile);
+        }
+    }
+    
+    // Renderer and output profile both change the bytes, so both are part of the cache key
+    private String outputVariant() {
+        return renderer.getName() + "/" + pdfRenderingEngine.getOutputProfile();
+    }
+    
+    private String cacheKey(InvoiceResponseDto invoice, EntityVersion owner) {
+        return owner == null
+                ? pdfCacheService.cacheKey(outputVariant(), invoice.getId(), invoice.getVersion(), null, null)
+                : pdfCacheService.cacheKey(outputVariant(), invoice.getId(), invoice.getVersion(), owner.getId(), owner.getVersion());
+    }
+    
+    private String cacheKey(InvoiceResponseDto invoice, OwnerResponseDto owner) {
+        return owner == null
+                ? pdfCacheService.cacheKey(outputVariant(), invoice.getId(), invoice.getVersion(), null, null)
+                : pdfCacheService.cacheKey(outputVariant(), invoice.getId(), invoice.getVersion(), owner.getId(), owner.getVersion());
+    }
+    
+    private Path renderToSpoolFile(InvoiceResponseDto invoice, OwnerResponseDto owner, String cacheKey) throws Exception {
+        Path spoolFile = pdfCacheService.createSpoolFile(cacheKey);
+        try (OutputStream spool = new BufferedOutputStream(Files.newOutputStream(spoolFile))) {
+            renderer.render(invoice, owner, spool);
+        } catch (Exception e) {
+            deleteSpoolFile(spoolFile);
+            throw e;
+        }
+        return spoolFile;
+    }
+    
+    // Published spool files were moved into the cache, so only leftovers are still there
+    private void deleteSpoolFile(Path spoolFile) {
+        if (spoolFile == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(spoolFile);
+        } catch (IOException e) {
+            log.warn("Failed to delete PDF spool file {}: {}", spoolFile, e.getMessage());
+        }
+    }
+    
+    private EntityVersion findActiveOwnerVersion() {
+        return ownerService.getActiveOwnerVersion().orElse(null);
+    }
+    
+    private OwnerResponseDto findActiveOwner() {
+        try {
+            return ownerService.getActiveOwner();
+        } catch (RuntimeException e) {
+            log.warn("No active owner found, using default values");
+            return null;
         }
     }
 }
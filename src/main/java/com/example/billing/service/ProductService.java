@@ -5,6 +5,7 @@ import com.example.billing.dto.product.ProductResponseDto;
 import com.example.billing.dto.product.UpdateProductRequestDto;
 import com.example.billing.entity.Product;
 import com.example.billing.mapper.ProductMapper;
+import com.example.billing.repository.EntityVersion;
 import com.example.billing.repository.ProductRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -12,6 +13,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
@@ -29,6 +31,20 @@ public class ProductService {
         return productMapper.toResponseDtoList(products);
     }
     
+    /**
+     * Changes whenever any product is created, updated or deleted; used as the ETag of the product list.
+     */
+    @Transactional(readOnly = true)
+    public String getCatalogVersion() {
+        return productRepository.findCatalogVersion();
+    }
+    
+    // Reads only the id and version, for conditional GETs
+    @Transactional(readOnly = true)
+    public Optional<EntityVersion> getProductVersion(Long id) {
+        return productRepository.findVersionById(id);
+    }
+    
     @Transactional(readOnly = true)
     public ProductResponseDto getProductById(Long id) {
         log.debug("Fetching product with id: {}", id);
@@ -0,0 +1,167 @@
+package com.example.billing.service;
+
+import com.example.billing.dto.invoice.InvoiceFilterDto;
+import com.example.billing.dto.report.RevenueReportResponseDto;
+import com.example.billing.entity.Invoice;
+import com.example.billing.enums.AggregatePeriod;
+import com.example.billing.enums.InvoiceStatus;
+import com.example.billing.repository.InvoiceDailyRollupRepository;
+import com.example.billing.repository.InvoiceRepository;
+import com.example.billing.repository.InvoiceRollupDeltaRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps the per-day, per-status invoice totals in {@code invoice_daily_rollups} up to date and
+ * serves revenue reports from them. Invoice writes insert the difference between the invoice
+ * before and after the change as delta rows inside their own transaction; the deltas are folded
+ * into the rollups on a schedule, and reports add the ones not folded yet, so reports never scan
+ * invoices and concurrent invoice writes never wait on a shared rollup row.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional
+public class RevenueRollupService {
+    
+    private final InvoiceDailyRollupRepository rollupRepository;
+    private final InvoiceRollupDeltaRepository deltaRepository;
+    private final InvoiceRepository invoiceRepository;
+    private final DateFilterResolver dateFilterResolver;
+    
+    /**
+     * What an invoice adds to the rollup of its date and status. Taken before and after a change.
+     */
+    public record Contribution(LocalDate date, InvoiceStatus status, BigDecimal subtotalAmount,
+                               BigDecimal cgstAmount, BigDecimal sgstAmount, BigDecimal totalAmount) {
+        
+        public static Contribution of(Invoice invoice) {
+            return new Contribution(invoice.getInvoiceDate(), invoice.getStatus(), orZero(invoice.getSubtotalAmount()),
+                    orZero(invoice.getCgstAmount()), orZero(invoice.getSgstAmount()), orZero(invoice.getTotalAmount()));
+        }
+        
+        private static BigDecimal orZero(BigDecimal amount) {
+            return amount != null ? amount : BigDecimal.ZERO;
+        }
+    }
+    
+    /**
+     * Moves an invoice's contribution from {@code before} to {@code after}. Either side may be
+     * null for a created or deleted invoice. Must run in the transaction that changed the invoice.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void applyChange(Contribution before, Contribution after) {
+        if (before != null && before.equals(after)) {
+            return;
+        }
+        if (before != null) {
+            deltaRepository.insertDelta(before.date(), before.status().name(), -1, before.subtotalAmount().negate(),
+                    before.cgstAmount().negate(), before.sgstAmount().negate(), before.totalAmount().negate());
+        }
+        if (after != null) {
+            deltaRepository.insertDelta(after.date(), after.status().name(), 1, after.subtotalAmount(),
+                    after.cgstAmount(), after.sgstAmount(), after.totalAmount());
+        }
+    }
+    
+    /**
+     * Adds newly created invoices with one delta row per date and status instead of one per
+     * invoice. Must run in the transaction that created them.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void applyCreated(List<Invoice> invoices) {
+        Map<List<Object>, Contribution> sums = new LinkedHashMap<>();
+        Map<List<Object>, Long> counts = new HashMap<>();
+        for (Invoice invoice : invoices) {
+            Contribution contribution = Contribution.of(invoice);
+            List<Object> key = List.of(contribution.date(), contribution.status());
+            sums.merge(key, contribution, (sum, added) -> new Contribution(sum.date(), sum.status(),
+                    sum.subtotalAmount().add(added.subtotalAmount()), sum.cgstAmount().add(added.cgstAmount()),
+                    sum.sgstAmount().add(added.sgstAmount()), sum.totalAmount().add(added.totalAmount())));
+            counts.merge(key, 1L, Long::sum);
+        }
+        sums.forEach((key, sum) -> deltaRepository.insertDelta(sum.date(), sum.status().name(), counts.get(key),
+                sum.subtotalAmount(), sum.cgstAmount(), sum.sgstAmount(), sum.totalAmount()));
+    }
+    
+    /**
+     * Adds the committed deltas to the rollups and removes them. Deltas of invoice writes still in
+     * flight are not visible yet and are picked up by the next run.
+     */
+    @Scheduled(initialDelayString = "${app.reports.rollups.fold-interval:PT10S}",
+            fixedDelayString = "${app.reports.rollups.fold-interval:PT10S}")
+    public void foldDeltas() {
+        int folded = rollupRepository.foldDeltas();
+        if (folded > 0) {
+            int emptied = rollupRepository.deleteEmpty();
+            log.debug("Folded invoice rollup deltas into {} rows, {} emptied rows removed", folded, emptied);
+        }
+    }
+    
+    /**
+     * Recomputes every rollup row from the invoices table. Invoice writes wait until it is done.
+     */
+    public Map<String, Object> rebuild() {
+        long start = System.nanoTime();
+        rollupRepository.lockInvoicesForRebuild();
+        // Every committed delta belongs to an invoice change the rebuild already sees
+        deltaRepository.deleteAllDeltas();
+        int deleted = rollupRepository.deleteAllRollups();
+        int inserted = rollupRepository.insertFromInvoices();
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        log.info("Rebuilt invoice rollups: {} rows replaced by {} in {} ms", deleted, inserted, millis);
+        
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("deletedRows", deleted);
+        result.put("insertedRows", inserted);
+        result.put("durationMillis", millis);
+        return result;
+    }
+    
+    // Fills the rollups on the first start after the table was added
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        if (rollupRepository.count() == 0 && invoiceRepository.count() > 0) {
+            log.info("Invoice rollups are empty, building them from existing invoices");
+            rebuild();
+        }
+    }
+    
+    /**
+     * Revenue per status and day, month or quarter of the invoice date, read from the rollups.
+     * The cost depends on the number of days in the range, not on the number of invoices.
+     */
+    @Transactional(readOnly = true)
+    public RevenueReportResponseDto getRevenueReport(InvoiceStatus status, LocalDate startDate, LocalDate endDate,
+                                                     String dateFilter, String groupBy) {
+        log.debug("Building revenue report by {}: status={}, startDate={}, endDate={}, dateFilter={}", 
+                groupBy, status, startDate, endDate, dateFilter);
+        
+        AggregatePeriod period = AggregatePeriod.fromParameter(groupBy);
+        InvoiceFilterDto range = dateFilterResolver.resolve(InvoiceFilterDto.builder()
+                .startDate(startDate)
+                .endDate(endDate)
+                .dateFilter(dateFilter)
+                .build());
+        
+        return RevenueReportResponseDto.builder()
+                .groupBy(period)
+                .startDate(range.getStartDate())
+                .endDate(range.getEndDate())
+                .rows(rollupRepository.sumByPeriod(period, status, range.getStartDate(), range.getEndDate()))
+                .build();
+    }
+}
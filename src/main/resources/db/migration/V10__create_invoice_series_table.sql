@@ -0,0 +1,10 @@
+-- Invoice numbering series (see InvoiceSeriesService). Each series draws its numbers from
+-- sequences named invoice_series_<id> or invoice_series_<id>_fy<year>, created on first use.
+CREATE TABLE IF NOT EXISTS invoice_series (
+    id BIGSERIAL PRIMARY KEY,
+    code VARCHAR(50) NOT NULL UNIQUE,
+    prefix VARCHAR(50) NOT NULL UNIQUE,
+    padding INTEGER NOT NULL,
+    reset_each_financial_year BOOLEAN NOT NULL,
+    created_at TIMESTAMP NOT NULL
+);
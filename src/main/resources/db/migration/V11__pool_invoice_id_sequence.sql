@@ -0,0 +1,18 @@
+-- Invoice ids are now allocated by Hibernate in blocks of 50 from invoices_id_seq (see Invoice.id),
+-- which lets it batch inserts. Apply before starting the new version. An identity column is turned
+-- into a plain sequence default, because Hibernate does not see identity sequences and would try to
+-- create its own; a serial sequence only gets the new increment. Safe to run more than once.
+DO $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM information_schema.columns
+               WHERE table_name = 'invoices' AND column_name = 'id' AND is_identity = 'YES') THEN
+        ALTER TABLE invoices ALTER COLUMN id DROP IDENTITY;
+    END IF;
+END $$;
+
+CREATE SEQUENCE IF NOT EXISTS invoices_id_seq OWNED BY invoices.id;
+ALTER SEQUENCE invoices_id_seq INCREMENT BY 50;
+-- Never moves the sequence back, so blocks already handed out are not issued again
+SELECT setval('invoices_id_seq', GREATEST((SELECT last_value FROM invoices_id_seq),
+                                          (SELECT COALESCE(MAX(id), 1) FROM invoices)));
+ALTER TABLE invoices ALTER COLUMN id SET DEFAULT nextval('invoices_id_seq');
@@ -0,0 +1,9 @@
+-- Idempotency-Key values of POST /api/invoices (see IdempotencyKeyService). Keys are stored as the
+-- first 128 bits of their SHA-256 and purged after app.invoices.idempotency.ttl.
+CREATE TABLE IF NOT EXISTS idempotency_keys (
+    key_hash UUID PRIMARY KEY,
+    request_hash BYTEA NOT NULL,
+    invoice_id BIGINT,
+    expires_at TIMESTAMP NOT NULL
+);
+CREATE INDEX IF NOT EXISTS idx_idempotency_keys_expires_at ON idempotency_keys (expires_at);
@@ -0,0 +1,12 @@
+-- Insert-only changes to invoice_daily_rollups, folded in by RevenueRollupService
+-- (app.reports.rollups.fold-interval). Reports add the rows not folded yet.
+CREATE TABLE IF NOT EXISTS invoice_rollup_deltas (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    rollup_date DATE NOT NULL,
+    status VARCHAR(255) NOT NULL,
+    invoice_count BIGINT NOT NULL,
+    subtotal_amount NUMERIC(16, 2) NOT NULL,
+    cgst_amount NUMERIC(16, 2) NOT NULL,
+    sgst_amount NUMERIC(16, 2) NOT NULL,
+    total_amount NUMERIC(16, 2) NOT NULL
+);
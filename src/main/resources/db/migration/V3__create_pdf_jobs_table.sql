@@ -0,0 +1,15 @@
+-- Background PDF render jobs (see PdfJobService)
+CREATE TABLE IF NOT EXISTS pdf_jobs (
+    id BIGSERIAL PRIMARY KEY,
+    status VARCHAR(255) NOT NULL,
+    invoice_ids JSONB NOT NULL,
+    result_path VARCHAR(500),
+    result_file_name VARCHAR(255),
+    error_message VARCHAR(1000),
+    created_at TIMESTAMP NOT NULL,
+    started_at TIMESTAMP,
+    completed_at TIMESTAMP
+);
+
+-- Unfinished jobs are looked up by status on startup
+CREATE INDEX IF NOT EXISTS idx_pdf_jobs_status ON pdf_jobs (status);
@@ -0,0 +1,3 @@
+-- Keyset pagination of GET /api/invoices walks id DESC within the status and date filters
+CREATE INDEX IF NOT EXISTS idx_invoices_status_id ON invoices (status, id DESC);
+CREATE INDEX IF NOT EXISTS idx_invoices_invoice_date_id ON invoices (invoice_date, id DESC);
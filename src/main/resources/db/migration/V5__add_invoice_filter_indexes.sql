@@ -0,0 +1,6 @@
+-- Composite indexes for the invoice list filters (InvoiceRepositoryImpl).
+-- Status-only and invoice-date-only lists use the keyset indexes from V4; status plus due date
+-- is served well enough by the due date index.
+CREATE INDEX IF NOT EXISTS idx_invoices_status_invoice_date ON invoices (status, invoice_date);
+CREATE INDEX IF NOT EXISTS idx_invoices_due_date ON invoices (due_date);
+CREATE INDEX IF NOT EXISTS idx_invoices_total_amount ON invoices (total_amount);
@@ -0,0 +1,19 @@
+-- Invoice totals per invoice date and status (see RevenueRollupService)
+CREATE TABLE IF NOT EXISTS invoice_daily_rollups (
+    rollup_date DATE NOT NULL,
+    status VARCHAR(255) NOT NULL,
+    invoice_count BIGINT NOT NULL,
+    subtotal_amount NUMERIC(16, 2) NOT NULL,
+    cgst_amount NUMERIC(16, 2) NOT NULL,
+    sgst_amount NUMERIC(16, 2) NOT NULL,
+    total_amount NUMERIC(16, 2) NOT NULL,
+    PRIMARY KEY (rollup_date, status)
+);
+
+-- Initial fill from existing invoices; the application also does this on startup when the table is empty
+INSERT INTO invoice_daily_rollups (rollup_date, status, invoice_count, subtotal_amount, cgst_amount, sgst_amount, total_amount)
+SELECT invoice_date, status, COUNT(*), COALESCE(SUM(subtotal_amount), 0), COALESCE(SUM(cgst_amount), 0),
+       COALESCE(SUM(sgst_amount), 0), COALESCE(SUM(total_amount), 0)
+FROM invoices
+GROUP BY invoice_date, status
+ON CONFLICT (rollup_date, status) DO NOTHING;
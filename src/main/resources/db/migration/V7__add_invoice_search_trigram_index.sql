@@ -0,0 +1,8 @@
+-- Trigram index for GET /api/invoices/search. The indexed expression must stay identical to
+-- InvoiceRepositoryImpl.SEARCH_DOCUMENT or the planner cannot use it.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS idx_invoices_search_trgm ON invoices USING gin (
+    (lower(customer_name || ' ' || customer_phone || ' ' || coalesce(customer_gst_number, '') || ' ' || invoice_number))
+    gin_trgm_ops
+);
@@ -0,0 +1,4 @@
+-- GIN index for the line_items containment queries (InvoiceRepository.existsByProductId,
+-- findByProductId, findByProductName). jsonb_path_ops only supports @>, which is all these
+-- queries use, and is smaller and faster to probe than the default jsonb_ops.
+CREATE INDEX IF NOT EXISTS idx_invoices_line_items ON invoices USING gin (line_items jsonb_path_ops);
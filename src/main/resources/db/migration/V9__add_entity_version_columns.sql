@@ -0,0 +1,18 @@
+-- Optimistic lock versions for invoices, owners, products and clients. They also serve as the ETags
+-- of GET /api/invoices/{id}, /api/owners, /api/products and /api/clients. Existing rows start at 0;
+-- the statements are safe to rerun after Hibernate already added the columns.
+ALTER TABLE invoices ADD COLUMN IF NOT EXISTS version bigint;
+UPDATE invoices SET version = 0 WHERE version IS NULL;
+ALTER TABLE invoices ALTER COLUMN version SET DEFAULT 0, ALTER COLUMN version SET NOT NULL;
+
+ALTER TABLE owners ADD COLUMN IF NOT EXISTS version bigint;
+UPDATE owners SET version = 0 WHERE version IS NULL;
+ALTER TABLE owners ALTER COLUMN version SET DEFAULT 0, ALTER COLUMN version SET NOT NULL;
+
+ALTER TABLE products ADD COLUMN IF NOT EXISTS version bigint;
+UPDATE products SET version = 0 WHERE version IS NULL;
+ALTER TABLE products ALTER COLUMN version SET DEFAULT 0, ALTER COLUMN version SET NOT NULL;
+
+ALTER TABLE clients ADD COLUMN IF NOT EXISTS version bigint;
+UPDATE clients SET version = 0 WHERE version IS NULL;
+ALTER TABLE clients ALTER COLUMN version SET DEFAULT 0, ALTER COLUMN version SET NOT NULL;
@@ -0,0 +1,63 @@
+package com.example.billing;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.boot.test.util.TestPropertyValues;
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Points a test context at an embedded PostgreSQL. The server is started once per test run and
+ * every context gets a database of its own, so tests that commit rows don't see each other's data.
+ * Use with {@code @ContextConfiguration(initializers = EmbeddedPostgresInitializer.class)}.
+ */
+public class EmbeddedPostgresInitializer implements ApplicationContextInitializer<ConfigurableApplicationContext> {
+    
+    private static final AtomicInteger DATABASES = new AtomicInteger();
+    
+    private static EmbeddedPostgres postgres;
+    
+    @Override
+    public void initialize(ConfigurableApplicationContext applicationContext) {
+        String database = "billing_test_" + DATABASES.incrementAndGet();
+        EmbeddedPostgres server = server();
+        try (Connection connection = server.getPostgresDatabase().getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE DATABASE " + database);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not create test database " + database, e);
+        }
+        TestPropertyValues.of(
+                "spring.datasource.url=" + server.getJdbcUrl("postgres", database),
+                "spring.datasource.username=postgres",
+                "spring.datasource.password=")
+                .applyTo(applicationContext);
+    }
+    
+    private static synchronized EmbeddedPostgres server() {
+        if (postgres == null) {
+            try {
+                // Cached contexts keep their pools open until the run ends
+                postgres = EmbeddedPostgres.builder()
+                        .setServerConfig("max_connections", "300")
+                        .start();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    postgres.close();
+                } catch (IOException ignored) {
+                    // The run is ending anyway
+                }
+            }));
+        }
+        return postgres;
+    }
+}
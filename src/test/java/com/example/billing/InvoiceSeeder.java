@@ -0,0 +1,73 @@
+package com.example.billing;
+
+import com.example.billing.entity.Invoice;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongFunction;
+
+/**
+ * Bulk-inserts invoices with plain JDBC batches, so tests and benchmarks can seed tens of
+ * thousands of rows in seconds rather than going through JPA. Ids come from
+ * {@code invoices_id_seq} like they do for the application.
+ */
+public final class InvoiceSeeder {
+    
+    private static final int BATCH_SIZE = 1_000;
+    // Line items only hold strings, numbers and flags, so no Java time support is needed
+    private static final ObjectMapper LINE_ITEMS_MAPPER = new ObjectMapper();
+    private static final String INSERT = "INSERT INTO invoices (id, invoice_number, customer_name, customer_email, "
+            + "customer_phone, customer_address, customer_gst_number, invoice_date, due_date, status, subtotal_amount, "
+            + "gst_applicable, cgst_rate, sgst_rate, cgst_amount, sgst_amount, total_gst_amount, transport_charges, "
+            + "misc_charges, total_amount, created_at, line_items) "
+            + "VALUES (nextval('invoices_id_seq'), ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?::jsonb)";
+    
+    private InvoiceSeeder() {
+    }
+    
+    /**
+     * Tops the invoices table up to {@code count} rows. Row {@code n} (1-based) is built by
+     * {@code invoiceFor}; rows already there are kept, so seeding an existing schema again is cheap.
+     *
+     * @return the number of rows inserted
+     */
+    public static int seed(JdbcTemplate jdbcTemplate, int count, LongFunction<Invoice> invoiceFor) {
+        Integer existing = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM invoices", Integer.class);
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        for (long n = existing + 1; n <= count; n++) {
+            batch.add(row(invoiceFor.apply(n)));
+            if (batch.size() == BATCH_SIZE) {
+                jdbcTemplate.batchUpdate(INSERT, batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT, batch);
+        }
+        return Math.max(0, count - existing);
+    }
+    
+    private static Object[] row(Invoice invoice) {
+        LocalDateTime createdAt = invoice.getCreatedAt() != null ? invoice.getCreatedAt() : LocalDateTime.now();
+        try {
+            return new Object[] {
+                    invoice.getInvoiceNumber(), invoice.getCustomerName(), invoice.getCustomerEmail(),
+                    invoice.getCustomerPhone(), invoice.getCustomerAddress(), invoice.getCustomerGstNumber(),
+                    Date.valueOf(invoice.getInvoiceDate()), Date.valueOf(invoice.getDueDate()), invoice.getStatus().name(),
+                    invoice.getSubtotalAmount(), Boolean.TRUE.equals(invoice.getGstApplicable()), invoice.getCgstRate(),
+                    invoice.getSgstRate(), invoice.getCgstAmount(), invoice.getSgstAmount(), invoice.getTotalGstAmount(),
+                    invoice.getTransportCharges(), invoice.getMiscCharges(), invoice.getTotalAmount(),
+                    Timestamp.valueOf(createdAt),
+                    LINE_ITEMS_MAPPER.writeValueAsString(invoice.getLineItems() != null ? invoice.getLineItems() : List.of())
+            };
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize line items of " + invoice.getInvoiceNumber(), e);
+        }
+    }
+}
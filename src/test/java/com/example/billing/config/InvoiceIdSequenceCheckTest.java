@@ -0,0 +1,64 @@
+package com.example.billing.config;
+
+import com.example.billing.EmbeddedPostgresInitializer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Runs the startup check against a schema created by Hibernate, which passes, and against the
+ * shapes an existing database has before V11 (identity column, sequence stepping by one), which
+ * must fail. Each test's changes are rolled back.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ContextConfiguration(initializers = EmbeddedPostgresInitializer.class)
+@Import(InvoiceIdSequenceCheck.class)
+@TestPropertySource(properties = "spring.jpa.show-sql=false")
+class InvoiceIdSequenceCheckTest {
+    
+    @Autowired
+    private InvoiceIdSequenceCheck invoiceIdSequenceCheck;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Test
+    void passesOnSchemaCreatedByHibernate() {
+        assertThatCode(invoiceIdSequenceCheck::verify).doesNotThrowAnyException();
+    }
+    
+    @Test
+    void rejectsSequenceSteppingByOne() {
+        jdbcTemplate.execute("ALTER SEQUENCE invoices_id_seq INCREMENT BY 1");
+        
+        assertThatThrownBy(invoiceIdSequenceCheck::verify)
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("V11__pool_invoice_id_sequence.sql")
+                .hasMessageContaining("increments by 1 instead of 50");
+    }
+    
+    @Test
+    void rejectsIdentityColumn() {
+        jdbcTemplate.execute("ALTER TABLE invoices ALTER COLUMN id ADD GENERATED BY DEFAULT AS IDENTITY");
+        
+        assertThatThrownBy(invoiceIdSequenceCheck::verify)
+                .hasMessageContaining("invoices.id is still an identity column");
+    }
+    
+    @Test
+    void rejectsMissingSequence() {
+        jdbcTemplate.execute("DROP SEQUENCE invoices_id_seq");
+        
+        assertThatThrownBy(invoiceIdSequenceCheck::verify)
+                .hasMessageContaining("invoices_id_seq does not exist");
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.billing.controller;
+
+import com.example.billing.repository.EntityVersion;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks ETag construction and the weak If-None-Match comparison in {@link ETags}.
+ */
+class ETagsTest {
+    
+    private static final String ETAG = "\"42-3\"";
+    
+    @Test
+    void buildsQuotedTagsFromVersions() {
+        assertThat(ETags.of("catalog", 7L)).isEqualTo("\"catalog-7\"");
+        assertThat(ETags.forVersion(version(42L, 3L))).isEqualTo(ETAG);
+    }
+    
+    @Test
+    void matchesExactAndWeakTags() {
+        assertThat(ETags.matches("\"42-3\"", ETAG)).isTrue();
+        assertThat(ETags.matches("W/\"42-3\"", ETAG)).isTrue();
+        assertThat(ETags.matches("\"42-2\"", ETAG)).isFalse();
+        assertThat(ETags.matches("W/\"42-2\"", ETAG)).isFalse();
+        // Tags are quoted strings, so an unquoted value never matches
+        assertThat(ETags.matches("42-3", ETAG)).isFalse();
+    }
+    
+    @Test
+    void matchesAnyTagInAList() {
+        assertThat(ETags.matches("\"41-1\", W/\"42-3\"", ETAG)).isTrue();
+        assertThat(ETags.matches("\"41-1\",\"42-3\"", ETAG)).isTrue();
+        assertThat(ETags.matches("\"41-1\", W/\"42-2\"", ETAG)).isFalse();
+    }
+    
+    @Test
+    void wildcardMatchesOnlyExistingEntities() {
+        assertThat(ETags.matches("*", ETAG)).isTrue();
+        assertThat(ETags.matches("\"41-1\", *", ETAG)).isTrue();
+        // No current tag means the entity does not exist
+        assertThat(ETags.matches("*", null)).isFalse();
+        assertThat(ETags.matches(null, ETAG)).isFalse();
+    }
+    
+    @Test
+    void notModifiedCarriesTheTagWithoutABody() {
+        ResponseEntity<Object> response = ETags.notModified(ETAG);
+        
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(response.getHeaders().getETag()).isEqualTo(ETAG);
+        assertThat(response.getHeaders().getCacheControl()).isEqualTo("no-cache");
+        assertThat(response.hasBody()).isFalse();
+    }
+    
+    private static EntityVersion version(Long id, Long version) {
+        return new EntityVersion() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+            
+            @Override
+            public Long getVersion() {
+                return version;
+            }
+        };
+    }
+}
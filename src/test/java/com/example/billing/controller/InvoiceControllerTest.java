@@ -0,0 +1,185 @@
+package com.example.billing.controller;
+
+import com.example.billing.dto.invoice.InvoiceFilterDto;
+import com.example.billing.dto.invoice.InvoicePageResponseDto;
+import com.example.billing.dto.invoice.InvoiceResponseDto;
+import com.example.billing.exception.IdempotencyKeyConflictException;
+import com.example.billing.exception.IdempotencyKeyReusedException;
+import com.example.billing.repository.EntityVersion;
+import com.example.billing.service.InvoiceCacheService;
+import com.example.billing.service.InvoiceExportService;
+import com.example.billing.service.InvoiceService;
+import com.example.billing.service.PdfExportService;
+import com.example.billing.service.PdfService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The invoice list in its paged and legacy array forms, and conditional GETs of a single invoice:
+ * a current If-None-Match tag is answered with 304 from the version projection alone, anything
+ * else loads the invoice. The shipped application.yml enables the unpaginated list. Misused
+ * idempotency keys on create get their own status codes.
+ */
+@WebMvcTest(InvoiceController.class)
+class InvoiceControllerTest {
+    
+    private static final String CREATE_REQUEST = """
+            {"customerName": "Ravi Kumar", "customerPhone": "9876543210", "invoiceDate": "2024-05-10",
+             "dueDate": "2024-06-09", "items": [{"productName": "Wheel Alignment", "quantity": 1,
+             "unitPrice": 500.00, "isCustomProduct": true}]}
+            """;
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @MockBean
+    private InvoiceService invoiceService;
+    
+    @MockBean
+    private PdfService pdfService;
+    
+    @MockBean
+    private PdfExportService pdfExportService;
+    
+    @MockBean
+    private InvoiceExportService invoiceExportService;
+    
+    @MockBean
+    private InvoiceCacheService invoiceCacheService;
+    
+    @Test
+    void listWithoutPagingParametersIsThePlainArrayTheFrontendReads() throws Exception {
+        when(invoiceService.getInvoicesWithFilters(any(InvoiceFilterDto.class))).thenReturn(List.of(invoice(2L, 0L), invoice(1L, 0L)));
+        
+        mockMvc.perform(get("/api/invoices").param("status", "UNPAID"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$").isArray())
+                .andExpect(jsonPath("$[0].invoiceNumber").value("INV-2"));
+        verify(invoiceService, never()).getInvoicePage(any(), any(), anyInt());
+    }
+    
+    @Test
+    void listWithLimitOrCursorIsPaged() throws Exception {
+        when(invoiceService.getInvoicePage(any(InvoiceFilterDto.class), isNull(), eq(2)))
+                .thenReturn(new InvoicePageResponseDto(List.of(invoice(2L, 0L), invoice(1L, 0L)), "MQ"));
+        when(invoiceService.getInvoicePage(any(InvoiceFilterDto.class), eq("MQ"), eq(50)))
+                .thenReturn(new InvoicePageResponseDto(List.of(), null));
+        
+        mockMvc.perform(get("/api/invoices").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[1].invoiceNumber").value("INV-1"))
+                .andExpect(jsonPath("$.nextCursor").value("MQ"));
+        mockMvc.perform(get("/api/invoices").param("cursor", "MQ"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items").isEmpty());
+        verify(invoiceService, never()).getInvoicesWithFilters(any());
+    }
+    
+    @Test
+    void currentTagIsNotModifiedWithoutLoadingTheInvoice() throws Exception {
+        when(invoiceService.getInvoiceVersion(42L)).thenReturn(Optional.of(version(42L, 3L)));
+        
+        for (String ifNoneMatch : new String[] {"\"42-3\"", "W/\"42-3\"", "\"42-1\", \"42-3\"", "*"}) {
+            mockMvc.perform(get("/api/invoices/42").header(HttpHeaders.IF_NONE_MATCH, ifNoneMatch))
+                    .andExpect(status().isNotModified())
+                    .andExpect(header().string(HttpHeaders.ETAG, "\"42-3\""))
+                    .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"))
+                    .andExpect(content().string(""));
+        }
+        verify(invoiceService, never()).getInvoiceById(any());
+    }
+    
+    @Test
+    void staleTagReturnsTheInvoiceWithTheCurrentTag() throws Exception {
+        when(invoiceService.getInvoiceVersion(42L)).thenReturn(Optional.of(version(42L, 3L)));
+        when(invoiceService.getInvoiceById(42L)).thenReturn(invoice(42L, 3L));
+        
+        mockMvc.perform(get("/api/invoices/42").header(HttpHeaders.IF_NONE_MATCH, "\"42-2\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"42-3\""))
+                .andExpect(jsonPath("$.invoiceNumber").value("INV-42"));
+    }
+    
+    @Test
+    void unconditionalGetSkipsTheVersionLookup() throws Exception {
+        when(invoiceService.getInvoiceById(42L)).thenReturn(invoice(42L, 3L));
+        
+        mockMvc.perform(get("/api/invoices/42"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"42-3\""))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"));
+        verify(invoiceService, never()).getInvoiceVersion(any());
+    }
+    
+    @Test
+    void wildcardForAMissingInvoiceFallsThroughToTheLookup() throws Exception {
+        when(invoiceService.getInvoiceVersion(7L)).thenReturn(Optional.empty());
+        when(invoiceService.getInvoiceById(7L)).thenThrow(new RuntimeException("Invoice not found with id: 7"));
+        
+        mockMvc.perform(get("/api/invoices/7").header(HttpHeaders.IF_NONE_MATCH, "*"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Invoice not found with id: 7"));
+    }
+    
+    @Test
+    void keyReusedWithAnotherRequestIsUnprocessable() throws Exception {
+        when(invoiceService.createInvoice(any(), eq("order-1")))
+                .thenThrow(new IdempotencyKeyReusedException("Idempotency-Key was already used with a different request"));
+        
+        mockMvc.perform(post("/api/invoices").header("Idempotency-Key", "order-1")
+                        .contentType(MediaType.APPLICATION_JSON).content(CREATE_REQUEST))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$.message").value("Idempotency-Key was already used with a different request"));
+    }
+    
+    @Test
+    void keyStillInProgressIsAConflict() throws Exception {
+        when(invoiceService.createInvoice(any(), eq("order-1")))
+                .thenThrow(new IdempotencyKeyConflictException("A request with this Idempotency-Key is still in progress"));
+        
+        mockMvc.perform(post("/api/invoices").header("Idempotency-Key", "order-1")
+                        .contentType(MediaType.APPLICATION_JSON).content(CREATE_REQUEST))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.status").value(409));
+    }
+    
+    private static InvoiceResponseDto invoice(Long id, Long version) {
+        return InvoiceResponseDto.builder().id(id).version(version).invoiceNumber("INV-" + id).build();
+    }
+    
+    private static EntityVersion version(Long id, Long version) {
+        return new EntityVersion() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+            
+            @Override
+            public Long getVersion() {
+                return version;
+            }
+        };
+    }
+}
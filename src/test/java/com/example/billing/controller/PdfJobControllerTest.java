@@ -0,0 +1,51 @@
+package com.example.billing.controller;
+
+import com.example.billing.service.PdfJobService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Maps the outcomes of a PDF job submission to HTTP responses.
+ */
+@WebMvcTest(PdfJobController.class)
+class PdfJobControllerTest {
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @MockBean
+    private PdfJobService pdfJobService;
+    
+    @Test
+    void fullQueueIsServiceUnavailableWithRetryAfter() throws Exception {
+        when(pdfJobService.submit(any())).thenThrow(new RejectedExecutionException("PDF job queue is full, please retry later"));
+        
+        mockMvc.perform(post("/api/pdf-jobs").contentType(MediaType.APPLICATION_JSON).content("{\"invoiceIds\": [1, 2]}"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "30"))
+                .andExpect(jsonPath("$.message").value("PDF job queue is full, please retry later"));
+    }
+    
+    @Test
+    void unknownInvoiceIsBadRequest() throws Exception {
+        when(pdfJobService.submit(any())).thenThrow(new RuntimeException("Invoices not found with ids: [9]"));
+        
+        mockMvc.perform(post("/api/pdf-jobs").contentType(MediaType.APPLICATION_JSON).content("{\"invoiceIds\": [9]}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Invoices not found with ids: [9]"));
+    }
+}
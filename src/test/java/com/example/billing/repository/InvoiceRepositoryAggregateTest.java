@@ -0,0 +1,114 @@
+package com.example.billing.repository;
+
+import com.example.billing.EmbeddedPostgresInitializer;
+import com.example.billing.dto.invoice.InvoiceFilterDto;
+import com.example.billing.entity.Invoice;
+import com.example.billing.enums.AggregatePeriod;
+import com.example.billing.enums.InvoiceStatus;
+import org.assertj.core.groups.Tuple;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Groups invoices in an embedded PostgreSQL by day, month and quarter through
+ * {@link InvoiceRepository#aggregateByFilter} and checks that the list filters narrow the buckets.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ContextConfiguration(initializers = EmbeddedPostgresInitializer.class)
+@TestPropertySource(properties = "spring.jpa.show-sql=false")
+class InvoiceRepositoryAggregateTest {
+    
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+    
+    @BeforeEach
+    void createInvoices() {
+        create("INV-1", "Ravi Kumar", LocalDate.of(2024, 4, 3), InvoiceStatus.PAID, "1000.00");
+        create("INV-2", "Ravi Kumar", LocalDate.of(2024, 4, 3), InvoiceStatus.PAID, "500.00");
+        create("INV-3", "Meera Iyer", LocalDate.of(2024, 4, 30), InvoiceStatus.UNPAID, "250.00");
+        create("INV-4", "Meera Iyer", LocalDate.of(2024, 5, 2), InvoiceStatus.PAID, "400.00");
+        create("INV-5", "Ravi Kumar", LocalDate.of(2024, 7, 1), InvoiceStatus.PAID, "100.00");
+    }
+    
+    @Test
+    void groupsByMonthAndStatus() {
+        assertThat(aggregate(InvoiceFilterDto.builder().build(), AggregatePeriod.MONTH))
+                .containsExactly(
+                        tuple(LocalDate.of(2024, 4, 1), InvoiceStatus.PAID, 2L, "1500.00", "3000.00"),
+                        tuple(LocalDate.of(2024, 4, 1), InvoiceStatus.UNPAID, 1L, "250.00", "500.00"),
+                        tuple(LocalDate.of(2024, 5, 1), InvoiceStatus.PAID, 1L, "400.00", "800.00"),
+                        tuple(LocalDate.of(2024, 7, 1), InvoiceStatus.PAID, 1L, "100.00", "200.00"));
+    }
+    
+    @Test
+    void groupsByDayAndQuarter() {
+        assertThat(aggregate(InvoiceFilterDto.builder().status(InvoiceStatus.PAID).build(), AggregatePeriod.DAY))
+                .extracting(row -> row.toList().get(0), row -> row.toList().get(2))
+                .containsExactly(
+                        tuple(LocalDate.of(2024, 4, 3), 2L),
+                        tuple(LocalDate.of(2024, 5, 2), 1L),
+                        tuple(LocalDate.of(2024, 7, 1), 1L));
+        
+        assertThat(aggregate(InvoiceFilterDto.builder().build(), AggregatePeriod.QUARTER))
+                .containsExactly(
+                        tuple(LocalDate.of(2024, 4, 1), InvoiceStatus.PAID, 3L, "1900.00", "3800.00"),
+                        tuple(LocalDate.of(2024, 4, 1), InvoiceStatus.UNPAID, 1L, "250.00", "500.00"),
+                        tuple(LocalDate.of(2024, 7, 1), InvoiceStatus.PAID, 1L, "100.00", "200.00"));
+    }
+    
+    @Test
+    void appliesListFilters() {
+        InvoiceFilterDto filter = InvoiceFilterDto.builder()
+                .customer("ravi")
+                .startDate(LocalDate.of(2024, 4, 1))
+                .endDate(LocalDate.of(2024, 6, 30))
+                .minAmount(new BigDecimal("1500.00"))
+                .build();
+        
+        // INV-2 totals 1000.00, under the minimum amount
+        assertThat(aggregate(filter, AggregatePeriod.MONTH))
+                .containsExactly(tuple(LocalDate.of(2024, 4, 1), InvoiceStatus.PAID, 1L, "1000.00", "2000.00"));
+        assertThat(aggregate(InvoiceFilterDto.builder().customer("nobody").build(), AggregatePeriod.MONTH)).isEmpty();
+    }
+    
+    private List<Tuple> aggregate(InvoiceFilterDto filter, AggregatePeriod period) {
+        return invoiceRepository.aggregateByFilter(filter, period).stream()
+                .map(row -> tuple(row.getPeriod(), row.getStatus(), row.getCount(),
+                        row.getSubtotalAmount().toPlainString(), row.getTotalAmount().toPlainString()))
+                .toList();
+    }
+    
+    // GST is charged at 50% so the totals differ from the subtotals
+    private void create(String invoiceNumber, String customerName, LocalDate invoiceDate, InvoiceStatus status, String subtotal) {
+        BigDecimal subtotalAmount = new BigDecimal(subtotal);
+        BigDecimal gst = subtotalAmount.multiply(new BigDecimal("0.50"));
+        invoiceRepository.save(Invoice.builder()
+                .invoiceNumber(invoiceNumber)
+                .customerName(customerName)
+                .customerPhone("9876543210")
+                .invoiceDate(invoiceDate)
+                .dueDate(invoiceDate.plusDays(30))
+                .status(status)
+                .subtotalAmount(subtotalAmount)
+                .gstApplicable(true)
+                .cgstAmount(gst)
+                .sgstAmount(gst)
+                .totalGstAmount(gst.add(gst))
+                .totalAmount(subtotalAmount.add(gst).add(gst))
+                .lineItems(List.of())
+                .build());
+    }
+}
@@ -0,0 +1,252 @@
+package com.example.billing.repository;
+
+import com.example.billing.EmbeddedPostgresInitializer;
+import com.example.billing.InvoiceSeeder;
+import com.example.billing.dto.invoice.InvoiceFilterDto;
+import com.example.billing.dto.invoice.InvoiceSearchResultDto;
+import com.example.billing.dto.report.ProductSalesRowDto;
+import com.example.billing.entity.Invoice;
+import com.example.billing.enums.InvoiceStatus;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the invoice filter queries against an embedded PostgreSQL with the index migrations
+ * applied and checks that a selective filter of each shape is planned on its index. Wide
+ * filters may legitimately walk the primary key backwards instead, so they are not covered.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ContextConfiguration(initializers = EmbeddedPostgresInitializer.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = {
+        "spring.jpa.show-sql=false",
+        // Inline filter values so the captured SQL can be explained as is
+        "spring.jpa.properties.hibernate.criteria.value_handling_mode=inline",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.example.billing.repository.InvoiceRepositoryQueryPlanTest$SqlRecorder"
+})
+class InvoiceRepositoryQueryPlanTest {
+    
+    // Below ~50k rows the planner prefers a seq scan over the two trigram bitmap scans of the search query
+    private static final int INVOICES = 50_000;
+    // Each product appears on ~25 invoices, as selective as a real catalog lookup
+    private static final int PRODUCTS = 2000;
+    private static final LocalDate FIRST_INVOICE_DATE = LocalDate.of(2020, 1, 1);
+    private static final List<String> FIRST_NAMES = List.of("Aarav", "Vivaan", "Aditya", "Arjun", "Sai", "Reyansh",
+            "Krishna", "Ishaan", "Ananya", "Diya", "Meera", "Saanvi", "Priya", "Kavya", "Lakshmi", "Ravi", "Suresh",
+            "Ramesh", "Deepa", "Anita");
+    private static final List<String> LAST_NAMES = List.of("Kumar", "Sharma", "Iyer", "Reddy", "Nair", "Patel",
+            "Gupta", "Singh", "Rao", "Menon", "Pillai", "Joshi", "Das", "Bose", "Verma", "Mehta", "Shah", "Naidu",
+            "Chopra", "Kapoor", "Banerjee", "Mishra", "Pandey", "Krishnan", "Subramanian");
+    
+    private static boolean seeded;
+    
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private DataSource dataSource;
+    
+    @BeforeEach
+    void seed() {
+        if (seeded) {
+            return;
+        }
+        new ResourceDatabasePopulator(
+                new ClassPathResource("db/migration/V4__add_invoice_keyset_indexes.sql"),
+                new ClassPathResource("db/migration/V5__add_invoice_filter_indexes.sql"),
+                new ClassPathResource("db/migration/V7__add_invoice_search_trigram_index.sql"),
+                new ClassPathResource("db/migration/V8__add_invoice_line_items_gin_index.sql")).execute(dataSource);
+        
+        // Five years of invoices created in date order; most are paid and few are overdue
+        InvoiceSeeder.seed(jdbcTemplate, INVOICES, i -> {
+            LocalDate invoiceDate = FIRST_INVOICE_DATE.plusDays(i * 1800L / INVOICES);
+            InvoiceStatus status = i % 50 == 0 ? InvoiceStatus.OVERDUE : i % 5 == 0 ? InvoiceStatus.UNPAID : InvoiceStatus.PAID;
+            BigDecimal total = BigDecimal.valueOf(i * 37L % 10_000_000, 2);
+            long productId = i % PRODUCTS + 1;
+            return Invoice.builder()
+                    .invoiceNumber("INV-" + i)
+                    .customerName(FIRST_NAMES.get((int) (i % FIRST_NAMES.size())) + " "
+                            + LAST_NAMES.get((int) (i / FIRST_NAMES.size() % LAST_NAMES.size())))
+                    .customerPhone(String.format("98%08d", i * 7919L % 100_000_000))
+                    .invoiceDate(invoiceDate)
+                    .dueDate(invoiceDate.plusDays(30))
+                    .status(status)
+                    .subtotalAmount(total)
+                    .totalAmount(total)
+                    .lineItems(List.of(Invoice.InvoiceLineItem.builder()
+                            .productId(productId)
+                            .productName("Product " + productId)
+                            .quantity((int) (i % 5 + 1))
+                            .lineTotal(total)
+                            .build()))
+                    .build();
+        });
+        jdbcTemplate.execute("ANALYZE invoices");
+        seeded = true;
+    }
+    
+    @Test
+    void statusFilterUsesStatusIdIndex() {
+        assertThat(planFor(InvoiceFilterDto.builder().status(InvoiceStatus.OVERDUE).build()))
+                .contains("idx_invoices_status_id");
+    }
+    
+    @Test
+    void invoiceDateRangeUsesInvoiceDateIndex() {
+        assertThat(planFor(InvoiceFilterDto.builder()
+                .startDate(LocalDate.of(2022, 3, 1))
+                .endDate(LocalDate.of(2022, 3, 7))
+                .build()))
+                .contains("idx_invoices_invoice_date_id");
+    }
+    
+    @Test
+    void statusAndInvoiceDateRangeUseCompositeIndex() {
+        assertThat(planFor(InvoiceFilterDto.builder()
+                .status(InvoiceStatus.UNPAID)
+                .startDate(LocalDate.of(2022, 3, 1))
+                .endDate(LocalDate.of(2022, 3, 31))
+                .build()))
+                .contains("idx_invoices_status_invoice_date");
+    }
+    
+    @Test
+    void dueDateRangeUsesDueDateIndex() {
+        assertThat(planFor(InvoiceFilterDto.builder()
+                .dueStartDate(LocalDate.of(2023, 6, 1))
+                .dueEndDate(LocalDate.of(2023, 6, 15))
+                .build()))
+                .contains("idx_invoices_due_date");
+    }
+    
+    @Test
+    void amountRangeUsesAmountIndex() {
+        assertThat(planFor(InvoiceFilterDto.builder()
+                .minAmount(new BigDecimal("1000.00"))
+                .maxAmount(new BigDecimal("1100.00"))
+                .build()))
+                .contains("idx_invoices_total_amount");
+    }
+    
+    @Test
+    void summaryQueryUsesTheSameIndexes() {
+        SqlRecorder.clear();
+        invoiceRepository.findSummariesByFilter(InvoiceFilterDto.builder().status(InvoiceStatus.OVERDUE).build(), null, Limit.of(51));
+        
+        assertThat(SqlRecorder.last()).doesNotContain("line_items");
+        assertThat(explain(SqlRecorder.last())).contains("idx_invoices_status_id");
+    }
+    
+    @Test
+    void searchUsesTrigramIndexAndRanksExactMatchFirst() {
+        SqlRecorder.clear();
+        List<InvoiceSearchResultDto> results = invoiceRepository.search("meera iyer", 10);
+        
+        assertThat(results).hasSize(10).allSatisfy(result -> assertThat(result.getCustomerName()).isEqualTo("Meera Iyer"));
+        String plan = String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + SqlRecorder.last(), String.class,
+                "meera iyer", "%meera iyer%", "meera iyer", 10));
+        assertThat(plan).contains("idx_invoices_search_trgm").doesNotContain("Seq Scan");
+    }
+    
+    @Test
+    void searchToleratesTypos() {
+        assertThat(invoiceRepository.search("mera iyer", 5))
+                .first()
+                .satisfies(result -> assertThat(result.getCustomerName()).isEqualTo("Meera Iyer"));
+    }
+    
+    @Test
+    void productContainmentUsesLineItemsIndex() {
+        SqlRecorder.clear();
+        assertThat(invoiceRepository.findByProductId(51L))
+                .hasSize(INVOICES / PRODUCTS)
+                .allSatisfy(invoice -> assertThat(invoice.getLineItems().get(0).getProductId()).isEqualTo(51L));
+        
+        assertThat(explain(SqlRecorder.last())).contains("idx_invoices_line_items").doesNotContain("Seq Scan");
+        assertThat(invoiceRepository.existsByProductId(51L)).isTrue();
+        assertThat(invoiceRepository.existsByProductId(PRODUCTS + 1L)).isFalse();
+        assertThat(invoiceRepository.findByProductName("Product 51")).hasSize(INVOICES / PRODUCTS);
+    }
+    
+    @Test
+    void productSalesSumsLineItemsPerProduct() {
+        LocalDate startDate = LocalDate.of(2022, 3, 1);
+        LocalDate endDate = LocalDate.of(2022, 3, 31);
+        
+        List<ProductSalesRowDto> rows = invoiceRepository.productSales(InvoiceStatus.PAID, startDate, endDate);
+        
+        Map<String, Object> expected = jdbcTemplate.queryForMap("SELECT COUNT(*) AS invoices, SUM(total_amount) AS revenue, "
+                + "SUM(CAST(line_items -> 0 ->> 'quantity' AS integer)) AS quantity FROM invoices "
+                + "WHERE status = 'PAID' AND invoice_date BETWEEN ? AND ?", Date.valueOf(startDate), Date.valueOf(endDate));
+        assertThat(rows).isNotEmpty()
+                .isSortedAccordingTo(Comparator.comparing(ProductSalesRowDto::getRevenue).reversed());
+        assertThat(rows.stream().mapToLong(ProductSalesRowDto::getInvoiceCount).sum()).isEqualTo(expected.get("invoices"));
+        assertThat(rows.stream().mapToLong(ProductSalesRowDto::getQuantity).sum()).isEqualTo(expected.get("quantity"));
+        assertThat(rows.stream().map(ProductSalesRowDto::getRevenue).reduce(BigDecimal.ZERO, BigDecimal::add))
+                .isEqualByComparingTo((BigDecimal) expected.get("revenue"));
+    }
+    
+    // Runs the first page query for the filter and returns the plan of the SQL Hibernate issued
+    private String planFor(InvoiceFilterDto filter) {
+        SqlRecorder.clear();
+        invoiceRepository.findByFilter(filter, null, Limit.of(51));
+        String plan = explain(SqlRecorder.last());
+        assertThat(plan).as("plan").doesNotContain("Seq Scan");
+        return plan;
+    }
+    
+    private String explain(String sql) {
+        // Only the row limit is still bound as a parameter
+        List<String> lines = jdbcTemplate.queryForList("EXPLAIN " + sql.replace("?", "51"), String.class);
+        return String.join("\n", lines);
+    }
+    
+    public static class SqlRecorder implements StatementInspector {
+        
+        private static volatile String lastSql;
+        
+        @Override
+        public String inspect(String sql) {
+            if (sql.contains("invoices")) {
+                lastSql = sql;
+            }
+            return sql;
+        }
+        
+        static void clear() {
+            lastSql = null;
+        }
+        
+        static String last() {
+            assertThat(lastSql).as("captured SQL").isNotNull();
+            return lastSql;
+        }
+    }
+}
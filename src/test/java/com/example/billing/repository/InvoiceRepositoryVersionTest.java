@@ -0,0 +1,75 @@
+package com.example.billing.repository;
+
+import com.example.billing.EmbeddedPostgresInitializer;
+import com.example.billing.entity.Invoice;
+import com.example.billing.enums.InvoiceStatus;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Reads invoice versions from an embedded PostgreSQL through {@link InvoiceRepository#findVersionById},
+ * which backs conditional GETs and must not load the invoice itself.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ContextConfiguration(initializers = EmbeddedPostgresInitializer.class)
+@TestPropertySource(properties = "spring.jpa.show-sql=false")
+class InvoiceRepositoryVersionTest {
+    
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+    
+    @Autowired
+    private EntityManager entityManager;
+    
+    @Test
+    void readsTheVersionWithoutLoadingTheInvoice() {
+        Long id = invoiceRepository.saveAndFlush(invoice("INV-1")).getId();
+        entityManager.clear();
+        
+        EntityVersion version = invoiceRepository.findVersionById(id).orElseThrow();
+        
+        assertThat(version).isNotInstanceOf(Invoice.class);
+        assertThat(version.getId()).isEqualTo(id);
+        assertThat(version.getVersion()).isZero();
+        assertThat(entityManager.unwrap(Session.class).getStatistics().getEntityCount()).isZero();
+    }
+    
+    @Test
+    void versionFollowsUpdates() {
+        Invoice invoice = invoiceRepository.saveAndFlush(invoice("INV-2"));
+        invoice.setStatus(InvoiceStatus.PAID);
+        invoiceRepository.saveAndFlush(invoice);
+        entityManager.clear();
+        
+        assertThat(invoiceRepository.findVersionById(invoice.getId())).get()
+                .extracting(EntityVersion::getVersion).isEqualTo(1L);
+        assertThat(invoiceRepository.findVersionById(-1L)).isEmpty();
+    }
+    
+    private Invoice invoice(String invoiceNumber) {
+        return Invoice.builder()
+                .invoiceNumber(invoiceNumber)
+                .customerName("Ravi Kumar")
+                .customerPhone("9876543210")
+                .invoiceDate(LocalDate.of(2024, 5, 10))
+                .dueDate(LocalDate.of(2024, 6, 10))
+                .status(InvoiceStatus.UNPAID)
+                .subtotalAmount(new BigDecimal("100.00"))
+                .totalAmount(new BigDecimal("100.00"))
+                .lineItems(List.of())
+                .build();
+    }
+}
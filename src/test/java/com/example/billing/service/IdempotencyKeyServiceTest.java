@@ -0,0 +1,181 @@
+package com.example.billing.service;
+
+import com.example.billing.EmbeddedPostgresInitializer;
+import com.example.billing.dto.invoice.CreateInvoiceRequestDto;
+import com.example.billing.dto.invoice.InvoiceItemDto;
+import com.example.billing.dto.invoice.InvoiceResponseDto;
+import com.example.billing.exception.IdempotencyKeyConflictException;
+import com.example.billing.exception.IdempotencyKeyReusedException;
+import com.example.billing.mapper.InvoiceMapperImpl;
+import com.example.billing.mapper.InvoiceSeriesMapperImpl;
+import com.example.billing.repository.IdempotencyKeyRepository;
+import com.example.billing.repository.InvoiceRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Retries invoice creates with an {@code Idempotency-Key} against an embedded PostgreSQL, one
+ * after another and concurrently, and checks that each key creates and numbers one invoice and
+ * that misused keys are rejected with their own exceptions.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ContextConfiguration(initializers = EmbeddedPostgresInitializer.class)
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Import({IdempotencyKeyService.class, InvoiceService.class, InvoiceLineItemAssembler.class, InvoiceNumberService.class,
+        InvoiceSeriesService.class, InvoiceCacheService.class, RevenueRollupService.class, DateFilterResolver.class,
+        InvoiceMapperImpl.class, InvoiceSeriesMapperImpl.class, LocalValidatorFactoryBean.class})
+@TestPropertySource(properties = "spring.jpa.show-sql=false")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class IdempotencyKeyServiceTest {
+    
+    private static final int CLIENTS = 8;
+    
+    @Autowired
+    private IdempotencyKeyService idempotencyKeyService;
+    
+    @Autowired
+    private InvoiceService invoiceService;
+    
+    @Autowired
+    private InvoiceNumberService invoiceNumberService;
+    
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+    
+    @Autowired
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @MockBean
+    private PdfCacheService pdfCacheService;
+    
+    @BeforeEach
+    void clearInvoices() {
+        jdbcTemplate.execute("TRUNCATE invoices, invoice_daily_rollups, invoice_rollup_deltas, idempotency_keys");
+        invoiceNumberService.resetSequence(0L);
+    }
+    
+    @Test
+    void retryReturnsTheInvoiceCreatedFirst() {
+        InvoiceResponseDto first = invoiceService.createInvoice(request("Ravi Kumar"), "order-1001");
+        InvoiceResponseDto retry = invoiceService.createInvoice(request("Ravi Kumar"), "order-1001");
+        
+        assertThat(retry.getId()).isEqualTo(first.getId());
+        assertThat(retry.getInvoiceNumber()).isEqualTo("000000000001");
+        assertThat(invoiceRepository.count()).isEqualTo(1);
+        assertThat(invoiceNumberService.getCurrentSequence()).isEqualTo(1L);
+        
+        // A different key is a different invoice
+        assertThat(invoiceService.createInvoice(request("Ravi Kumar"), "order-1002").getInvoiceNumber()).isEqualTo("000000000002");
+    }
+    
+    @Test
+    void keyUsedWithAnotherRequestIsRejected() {
+        invoiceService.createInvoice(request("Ravi Kumar"), "order-2001");
+        
+        assertThatThrownBy(() -> invoiceService.createInvoice(request("Meera Iyer"), "order-2001"))
+                .isInstanceOf(IdempotencyKeyReusedException.class)
+                .hasMessageContaining("different request");
+        assertThat(invoiceRepository.count()).isEqualTo(1);
+    }
+    
+    @Test
+    void keyWhoseCreateNeverFinishedIsAConflict() {
+        // A claim that was committed without its invoice, as left by a create that did not complete
+        new TransactionTemplate(transactionManager).executeWithoutResult(
+                status -> idempotencyKeyService.claim("order-2501", request("Ravi Kumar")));
+        
+        assertThatThrownBy(() -> invoiceService.createInvoice(request("Ravi Kumar"), "order-2501"))
+                .isInstanceOf(IdempotencyKeyConflictException.class)
+                .hasMessageContaining("still in progress");
+        assertThat(invoiceRepository.count()).isZero();
+    }
+    
+    @Test
+    void concurrentDuplicatesCreateOneInvoice() throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+        List<Future<InvoiceResponseDto>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < CLIENTS; i++) {
+                results.add(clients.submit(() -> {
+                    start.await();
+                    return invoiceService.createInvoice(request("Ravi Kumar"), "order-3001");
+                }));
+            }
+            start.countDown();
+            
+            Long invoiceId = results.get(0).get().getId();
+            for (Future<InvoiceResponseDto> result : results) {
+                assertThat(result.get().getId()).isEqualTo(invoiceId);
+            }
+        } finally {
+            clients.shutdown();
+        }
+        
+        assertThat(invoiceRepository.count()).isEqualTo(1);
+        assertThat(invoiceNumberService.getCurrentSequence()).isEqualTo(1L);
+    }
+    
+    @Test
+    void expiredKeysCanBeReusedAndArePurged() {
+        Long firstId = invoiceService.createInvoice(request("Ravi Kumar"), "order-4001").getId();
+        invoiceService.createInvoice(request("Ravi Kumar"), "order-4002");
+        jdbcTemplate.update("UPDATE idempotency_keys SET expires_at = now() - interval '1 minute'");
+        
+        assertThat(invoiceService.createInvoice(request("Ravi Kumar"), "order-4001").getId()).isNotEqualTo(firstId);
+        
+        idempotencyKeyService.purgeExpired();
+        // Only the key used again after it expired is left
+        assertThat(idempotencyKeyRepository.count()).isEqualTo(1);
+    }
+    
+    private CreateInvoiceRequestDto request(String customerName) {
+        LocalDate invoiceDate = LocalDate.of(2024, 5, 10);
+        return CreateInvoiceRequestDto.builder()
+                .customerName(customerName)
+                .customerPhone("9876543210")
+                .invoiceDate(invoiceDate)
+                .dueDate(invoiceDate.plusDays(30))
+                .items(List.of(InvoiceItemDto.builder()
+                        .productName("Wheel Alignment")
+                        .quantity(1)
+                        .unitPrice(new BigDecimal("500.00"))
+                        .isCustomProduct(true)
+                        .build()))
+                .build();
+    }
+}
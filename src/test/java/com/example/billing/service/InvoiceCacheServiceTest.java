@@ -0,0 +1,66 @@
+package com.example.billing.service;
+
+import com.example.billing.dto.invoice.InvoiceResponseDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks lookups by id and number, LRU eviction and invalidation of {@link InvoiceCacheService}.
+ */
+class InvoiceCacheServiceTest {
+    
+    private InvoiceCacheService cache;
+    private AtomicInteger loads;
+    
+    @BeforeEach
+    void setUp() {
+        cache = new InvoiceCacheService();
+        ReflectionTestUtils.setField(cache, "enabled", true);
+        ReflectionTestUtils.setField(cache, "maxEntries", 2);
+        loads = new AtomicInteger();
+    }
+    
+    @Test
+    void servesRepeatedLookupsByIdAndNumberFromOneLoad() {
+        cache.getById(1L, this::load);
+        cache.getById(1L, this::load);
+        cache.getByNumber("INV-1", number -> load(1L));
+        
+        assertThat(loads).hasValue(1);
+        assertThat(cache.getStats()).containsEntry("hits", 2L).containsEntry("misses", 1L).containsEntry("entries", 1);
+    }
+    
+    @Test
+    void evictsLeastRecentlyUsedInvoiceWhenFull() {
+        cache.getById(1L, this::load);
+        cache.getById(2L, this::load);
+        cache.getById(1L, this::load);
+        cache.getById(3L, this::load);
+        
+        cache.getByNumber("INV-1", number -> load(1L));
+        cache.getByNumber("INV-2", number -> load(2L));
+        
+        assertThat(loads).hasValue(4);
+        assertThat(cache.getStats()).containsEntry("evictions", 2L).containsEntry("entries", 2);
+    }
+    
+    @Test
+    void reloadsInvoiceAfterEviction() {
+        cache.getById(1L, this::load);
+        cache.evict(1L);
+        cache.getByNumber("INV-1", number -> load(1L));
+        
+        assertThat(loads).hasValue(2);
+        assertThat(cache.getStats()).containsEntry("invalidations", 1L);
+    }
+    
+    private InvoiceResponseDto load(Long id) {
+        loads.incrementAndGet();
+        return InvoiceResponseDto.builder().id(id).invoiceNumber("INV-" + id).build();
+    }
+}
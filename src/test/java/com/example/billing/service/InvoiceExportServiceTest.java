@@ -0,0 +1,120 @@
+package com.example.billing.service;
+
+import com.example.billing.EmbeddedPostgresInitializer;
+import com.example.billing.dto.invoice.InvoiceFilterDto;
+import com.example.billing.entity.Invoice;
+import com.example.billing.enums.ExportFormat;
+import com.example.billing.enums.InvoiceStatus;
+import com.example.billing.repository.InvoiceRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Exports invoices from an embedded PostgreSQL through {@link InvoiceExportService} and checks the
+ * CSV quoting, the line item flattening and the NDJSON framing.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ContextConfiguration(initializers = EmbeddedPostgresInitializer.class)
+@Import({InvoiceExportService.class, DateFilterResolver.class, JacksonAutoConfiguration.class})
+@TestPropertySource(properties = {"spring.jpa.show-sql=false", "spring.jackson.serialization.write-dates-as-timestamps=false"})
+class InvoiceExportServiceTest {
+    
+    @Autowired
+    private InvoiceExportService invoiceExportService;
+    
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @BeforeEach
+    void createInvoices() {
+        create("INV-1", "Ravi \"RK\" Kumar, Chennai", InvoiceStatus.PAID, 2);
+        create("INV-2", "Meera Iyer", InvoiceStatus.UNPAID, 0);
+    }
+    
+    @Test
+    void csvQuotesFieldsAndFlattensLineItems() throws IOException {
+        List<String> lines = export(InvoiceFilterDto.builder().build(), ExportFormat.CSV, true).lines().toList();
+        
+        assertThat(lines.get(0)).startsWith("invoiceId,invoiceNumber,invoiceDate,").endsWith(",unitPrice,lineTotal");
+        // Newest first; an invoice without line items still gets a row
+        assertThat(lines).hasSize(4);
+        assertThat(lines.get(1)).contains(",INV-2,2024-05-10,").endsWith(",,,,,,,");
+        assertThat(lines.get(2)).contains(",\"Ravi \"\"RK\"\" Kumar, Chennai\",").endsWith(",1,,Product 1,SALES,2,50.00,100.00");
+        assertThat(lines.get(3)).endsWith(",2,,Product 2,SALES,2,50.00,100.00");
+    }
+    
+    @Test
+    void ndjsonWritesOneInvoicePerLineAndAppliesFilters() throws IOException {
+        String output = export(InvoiceFilterDto.builder().status(InvoiceStatus.PAID).build(), ExportFormat.NDJSON, false);
+        
+        assertThat(output).endsWith("\n");
+        List<JsonNode> records = new ArrayList<>();
+        for (String line : output.lines().toList()) {
+            records.add(objectMapper.readTree(line));
+        }
+        assertThat(records).hasSize(1);
+        assertThat(records.get(0).get("invoiceNumber").asText()).isEqualTo("INV-1");
+        assertThat(records.get(0).get("invoiceDate").asText()).isEqualTo("2024-05-10");
+        assertThat(records.get(0).get("totalAmount").decimalValue()).isEqualByComparingTo("236.00");
+        assertThat(records.get(0).has("productName")).isFalse();
+    }
+    
+    private String export(InvoiceFilterDto filter, ExportFormat format, boolean includeLineItems) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        invoiceExportService.export(filter, format, includeLineItems, outputStream);
+        return outputStream.toString(StandardCharsets.UTF_8);
+    }
+    
+    private void create(String invoiceNumber, String customerName, InvoiceStatus status, int lineItems) {
+        List<Invoice.InvoiceLineItem> items = new ArrayList<>();
+        for (int i = 1; i <= lineItems; i++) {
+            items.add(Invoice.InvoiceLineItem.builder()
+                    .serialNumber(i)
+                    .productName("Product " + i)
+                    .description("SALES")
+                    .quantity(2)
+                    .unitPrice(new BigDecimal("50.00"))
+                    .lineTotal(new BigDecimal("100.00"))
+                    .isCustomProduct(true)
+                    .build());
+        }
+        invoiceRepository.save(Invoice.builder()
+                .invoiceNumber(invoiceNumber)
+                .customerName(customerName)
+                .customerPhone("9876543210")
+                .invoiceDate(LocalDate.of(2024, 5, 10))
+                .dueDate(LocalDate.of(2024, 6, 10))
+                .status(status)
+                .subtotalAmount(new BigDecimal("200.00"))
+                .gstApplicable(true)
+                .cgstAmount(new BigDecimal("18.00"))
+                .sgstAmount(new BigDecimal("18.00"))
+                .totalGstAmount(new BigDecimal("36.00"))
+                .totalAmount(new BigDecimal("236.00"))
+                .lineItems(items)
+                .build());
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.billing.service;
+
+import com.example.billing.EmbeddedPostgresInitializer;
+import com.example.billing.dto.invoice.InvoiceItemDto;
+import com.example.billing.entity.Product;
+import com.example.billing.repository.ProductRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Assembles invoices with many catalog line items against an embedded PostgreSQL and counts the
+ * statements: all products are resolved with one query, also when some of them are missing.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ContextConfiguration(initializers = EmbeddedPostgresInitializer.class)
+@Import(InvoiceLineItemAssembler.class)
+@TestPropertySource(properties = {
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true"})
+class InvoiceLineItemAssemblerTest {
+    
+    private static final int LINE_ITEMS = 200;
+    
+    @Autowired
+    private InvoiceLineItemAssembler invoiceLineItemAssembler;
+    
+    @Autowired
+    private ProductRepository productRepository;
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    private Statistics statistics;
+    private List<Long> productIds;
+    
+    @BeforeEach
+    void createProducts() {
+        productIds = new ArrayList<>();
+        for (int i = 1; i <= 20; i++) {
+            productIds.add(productRepository.save(Product.builder().name("Product " + i).build()).getId());
+        }
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+    
+    @Test
+    void resolvesAllProductsWithOneQuery() {
+        List<InvoiceItemDto> items = new ArrayList<>();
+        for (int i = 0; i < LINE_ITEMS; i++) {
+            // Every tenth line is a custom product, the others repeat the 20 catalog products
+            items.add(i % 10 == 9 ? item(null, "Labour") : item(productIds.get(i % productIds.size()), "Part " + i));
+        }
+        
+        InvoiceLineItemAssembler.LineItems lineItems = invoiceLineItemAssembler.assemble(items);
+        
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(lineItems.items()).hasSize(LINE_ITEMS);
+        assertThat(lineItems.items().get(9).getIsCustomProduct()).isTrue();
+        assertThat(lineItems.items().get(9).getProductId()).isNull();
+        assertThat(lineItems.items().get(199).getSerialNumber()).isEqualTo(200);
+        // 200 lines of 2 x 125.00
+        assertThat(lineItems.subtotalAmount()).isEqualByComparingTo("50000.00");
+    }
+    
+    @Test
+    void reportsEveryMissingProductInOneError() {
+        Long missing = productIds.get(productIds.size() - 1) + 100;
+        List<InvoiceItemDto> items = List.of(
+                item(productIds.get(0), "Part"),
+                item(missing, "Gone"),
+                item(missing + 1, "Also gone"),
+                item(missing, "Gone again"));
+        
+        assertThatThrownBy(() -> invoiceLineItemAssembler.assemble(items))
+                .hasMessage("Products not found with ids: [" + missing + ", " + (missing + 1) + "]");
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+    
+    private InvoiceItemDto item(Long productId, String productName) {
+        return InvoiceItemDto.builder()
+                .productId(productId)
+                .productName(productName)
+                .quantity(2)
+                .unitPrice(new BigDecimal("125.00"))
+                .isCustomProduct(productId == null)
+                .build();
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.billing.service;
+
+import com.example.billing.EmbeddedPostgresInitializer;
+import com.example.billing.entity.InvoiceCounter;
+import com.example.billing.mapper.InvoiceSeriesMapperImpl;
+import com.example.billing.repository.InvoiceCounterRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Allocates invoice numbers in blocks of 10 against an embedded PostgreSQL from several threads
+ * and checks that numbers are unique and that a clean shutdown returns the unused rest of a block.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ContextConfiguration(initializers = EmbeddedPostgresInitializer.class)
+@Import({InvoiceNumberService.class, InvoiceSeriesService.class, InvoiceSeriesMapperImpl.class})
+@TestPropertySource(properties = {
+        "spring.jpa.show-sql=false",
+        "app.invoices.numbering.allocation=block",
+        "app.invoices.numbering.block-size=10"})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class InvoiceNumberServiceTest {
+    
+    private static final int WRITERS = 8;
+    private static final int NUMBERS_PER_WRITER = 25;
+    
+    @Autowired
+    private InvoiceNumberService invoiceNumberService;
+    
+    @Autowired
+    private InvoiceCounterRepository invoiceCounterRepository;
+    
+    @BeforeEach
+    void resetCounter() {
+        invoiceNumberService.resetSequence(0L);
+    }
+    
+    @Test
+    void concurrentWritersGetUniqueNumbers() throws Exception {
+        Set<String> numbers = ConcurrentHashMap.newKeySet();
+        ExecutorService writers = Executors.newFixedThreadPool(WRITERS);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int i = 0; i < WRITERS; i++) {
+                results.add(writers.submit(() -> {
+                    for (int n = 0; n < NUMBERS_PER_WRITER; n++) {
+                        numbers.add(invoiceNumberService.generateNextInvoiceNumber());
+                    }
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } finally {
+            writers.shutdown();
+        }
+        
+        assertThat(numbers).hasSize(WRITERS * NUMBERS_PER_WRITER).allMatch(number -> number.length() == 12);
+        // Whole blocks are reserved, at most the current one and a prefetched one ahead of the numbers issued
+        assertThat(counterValue()).isBetween(200L, 220L).matches(value -> value % 10 == 0);
+        assertThat(invoiceNumberService.getCurrentSequence()).isEqualTo(200L);
+    }
+    
+    @Test
+    @DirtiesContext(methodMode = DirtiesContext.MethodMode.AFTER_METHOD)
+    void shutdownReturnsUnusedNumbers() {
+        assertThat(invoiceNumberService.generateNextInvoiceNumber()).isEqualTo("000000000001");
+        invoiceNumberService.generateNextInvoiceNumber();
+        invoiceNumberService.generateNextInvoiceNumber();
+        assertThat(counterValue()).isEqualTo(10L);
+        
+        invoiceNumberService.shutdown();
+        
+        assertThat(counterValue()).isEqualTo(3L);
+    }
+    
+    private long counterValue() {
+        return invoiceCounterRepository.findByYear(0).map(InvoiceCounter::getCurrentSequence).orElse(0L);
+    }
+}
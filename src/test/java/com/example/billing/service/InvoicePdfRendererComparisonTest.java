@@ -0,0 +1,90 @@
+package com.example.billing.service;
+
+import com.example.billing.dto.invoice.InvoiceResponseDto;
+import com.example.billing.dto.owner.OwnerResponseDto;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.canvas.parser.PdfTextExtractor;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Renders the same invoice with both renderers and checks that the key fields appear in each
+ * document. Render times are measured by {@code PdfRenderingBenchmark}.
+ */
+class InvoicePdfRendererComparisonTest {
+    
+    private static HtmlInvoicePdfRenderer htmlRenderer;
+    private static NativeInvoicePdfRenderer nativeRenderer;
+    
+    @BeforeAll
+    static void setUp() {
+        PdfRenderingEngine engine = InvoicePdfTestData.renderingEngine(false, "compact");
+        BrandingAssetCache brandingAssetCache = new BrandingAssetCache();
+        htmlRenderer = new HtmlInvoicePdfRenderer(InvoicePdfTestData.templateEngine(), engine, brandingAssetCache);
+        nativeRenderer = new NativeInvoicePdfRenderer(engine, brandingAssetCache);
+    }
+    
+    @Test
+    void bothRenderersShowTheSameInvoiceFields() throws Exception {
+        InvoiceResponseDto invoice = InvoicePdfTestData.invoice(12);
+        OwnerResponseDto owner = InvoicePdfTestData.owner();
+        
+        String htmlText = extractText(render(htmlRenderer, invoice, owner));
+        String nativeText = extractText(render(nativeRenderer, invoice, owner));
+        
+        for (String expected : List.of("Acme Traders", "INV-2024-0042", "Ravi Kumar", "Product 1", "Product 12",
+                "Subtotal", "CGST (9.0%)", "SGST (9.0%)", "TOTAL", "State Bank", "Thanks for shopping")) {
+            assertThat(htmlText).as("html renderer output").contains(expected);
+            assertThat(nativeText).as("native renderer output").contains(expected);
+        }
+    }
+    
+    @Test
+    void bothRenderersEmbedTheCachedSignature() throws Exception {
+        InvoiceResponseDto invoice = InvoicePdfTestData.invoice(3);
+        OwnerResponseDto owner = InvoicePdfTestData.owner();
+        owner.setSignatureBase64(InvoicePdfTestData.signatureBase64());
+        
+        for (InvoicePdfRenderer renderer : List.of(htmlRenderer, nativeRenderer)) {
+            String pdf = new String(render(renderer, invoice, owner), StandardCharsets.ISO_8859_1);
+            assertThat(pdf).as(renderer.getName() + " renderer output").containsPattern("/Subtype\\s*/Image");
+        }
+    }
+    
+    @Test
+    void bothRenderersProduceValidMultiPagePdfs() throws Exception {
+        // Enough line items to overflow the first page
+        InvoiceResponseDto invoice = InvoicePdfTestData.invoice(100);
+        OwnerResponseDto owner = InvoicePdfTestData.owner();
+        
+        for (InvoicePdfRenderer renderer : List.of(htmlRenderer, nativeRenderer)) {
+            try (PdfDocument document = new PdfDocument(new PdfReader(new ByteArrayInputStream(render(renderer, invoice, owner))))) {
+                assertThat(document.getNumberOfPages()).as(renderer.getName() + " renderer output").isGreaterThan(1);
+            }
+        }
+    }
+    
+    private byte[] render(InvoicePdfRenderer renderer, InvoiceResponseDto invoice, OwnerResponseDto owner) throws Exception {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        renderer.render(invoice, owner, outputStream);
+        return outputStream.toByteArray();
+    }
+    
+    private String extractText(byte[] pdf) throws Exception {
+        StringBuilder text = new StringBuilder();
+        try (PdfDocument document = new PdfDocument(new PdfReader(new ByteArrayInputStream(pdf)))) {
+            for (int page = 1; page <= document.getNumberOfPages(); page++) {
+                text.append(PdfTextExtractor.getTextFromPage(document.getPage(page))).append('\n');
+            }
+        }
+        return text.toString();
+    }
+}
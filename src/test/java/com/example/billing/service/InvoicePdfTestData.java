@@ -0,0 +1,116 @@
+package com.example.billing.service;
+
+import com.example.billing.dto.invoice.InvoiceResponseDto;
+import com.example.billing.dto.owner.OwnerResponseDto;
+import com.example.billing.enums.InvoiceStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Sample invoices and a Spring-free rendering setup for the PDF renderer tests.
+ */
+final class InvoicePdfTestData {
+    
+    private InvoicePdfTestData() {
+    }
+    
+    static TemplateEngine templateEngine() {
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("templates/");
+        resolver.setSuffix(".html");
+        resolver.setTemplateMode(TemplateMode.HTML);
+        resolver.setCharacterEncoding("UTF-8");
+        SpringTemplateEngine templateEngine = new SpringTemplateEngine();
+        templateEngine.setTemplateResolver(resolver);
+        return templateEngine;
+    }
+    
+    static PdfRenderingEngine renderingEngine(boolean systemFonts, String outputProfile) {
+        PdfRenderingEngine engine = new PdfRenderingEngine();
+        ReflectionTestUtils.setField(engine, "systemFontsEnabled", systemFonts);
+        ReflectionTestUtils.setField(engine, "outputProfileName", outputProfile);
+        ReflectionTestUtils.setField(engine, "warmUpEnabled", false);
+        engine.initialize();
+        return engine;
+    }
+    
+    static InvoiceResponseDto invoice(int itemCount) {
+        List<InvoiceResponseDto.InvoiceLineItemDto> items = new ArrayList<>();
+        BigDecimal subtotal = BigDecimal.ZERO;
+        for (int i = 1; i <= itemCount; i++) {
+            BigDecimal unitPrice = BigDecimal.valueOf(100L * i);
+            BigDecimal lineTotal = unitPrice.multiply(BigDecimal.valueOf(2));
+            subtotal = subtotal.add(lineTotal);
+            items.add(InvoiceResponseDto.InvoiceLineItemDto.builder()
+                    .serialNumber(i)
+                    .productName("Product " + i)
+                    .quantity(2)
+                    .unitPrice(unitPrice)
+                    .lineTotal(lineTotal)
+                    .isCustomProduct(false)
+                    .build());
+        }
+        BigDecimal gst = subtotal.multiply(new BigDecimal("0.09"));
+        
+        return InvoiceResponseDto.builder()
+                .id(42L)
+                .invoiceNumber("INV-2024-0042")
+                .customerName("Ravi Kumar")
+                .customerEmail("ravi@example.com")
+                .customerPhone("9876543210")
+                .customerAddress("12 Main Road, Chennai")
+                .invoiceDate(LocalDate.of(2024, 5, 10))
+                .dueDate(LocalDate.of(2024, 6, 10))
+                .status(InvoiceStatus.UNPAID)
+                .subtotalAmount(subtotal)
+                .gstApplicable(true)
+                .cgstRate(new BigDecimal("9.0"))
+                .sgstRate(new BigDecimal("9.0"))
+                .cgstAmount(gst)
+                .sgstAmount(gst)
+                .totalGstAmount(gst.add(gst))
+                .totalAmount(subtotal.add(gst).add(gst))
+                .lineItems(items)
+                .build();
+    }
+    
+    static OwnerResponseDto owner() {
+        return OwnerResponseDto.builder()
+                .id(1L)
+                .businessName("Acme Traders")
+                .ownerName("Arun")
+                .addressLine1("1 Market Street")
+                .city("Chennai")
+                .state("Tamil Nadu")
+                .contactNumber("044-1234567")
+                .email("billing@acme.example")
+                .gstNumber("33ABCDE1234F1Z5")
+                .primaryBankName("State Bank")
+                .primaryAccountHolderName("Acme Traders")
+                .primaryAccountNumber("1234567890")
+                .primaryIfscCode("SBIN0001234")
+                .termsAndConditions("Goods once sold will not be taken back.")
+                .invoiceFooterText("Thanks for shopping with us")
+                .build();
+    }
+    
+    static String signatureBase64() throws IOException {
+        BufferedImage image = new BufferedImage(1200, 600, BufferedImage.TYPE_INT_RGB);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ImageIO.write(image, "jpeg", outputStream);
+        return Base64.getEncoder().encodeToString(outputStream.toByteArray());
+    }
+}
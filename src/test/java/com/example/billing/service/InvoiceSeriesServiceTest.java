@@ -0,0 +1,74 @@
+package com.example.billing.service;
+
+import com.example.billing.EmbeddedPostgresInitializer;
+import com.example.billing.dto.series.CreateInvoiceSeriesRequestDto;
+import com.example.billing.dto.series.InvoiceNumberPreviewDto;
+import com.example.billing.mapper.InvoiceSeriesMapperImpl;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Takes numbers from sequence-backed series in an embedded PostgreSQL, across an April 1st
+ * financial-year boundary, and checks that previewing does not consume a number.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ContextConfiguration(initializers = EmbeddedPostgresInitializer.class)
+@Import({InvoiceSeriesService.class, InvoiceSeriesMapperImpl.class})
+@TestPropertySource(properties = "spring.jpa.show-sql=false")
+class InvoiceSeriesServiceTest {
+
+    @Autowired
+    private InvoiceSeriesService invoiceSeriesService;
+
+    @Test
+    void numbersRestartAtFinancialYearBoundary() {
+        createSeries("chennai", "CHN/{FY}/", true);
+
+        assertThat(invoiceSeriesService.nextInvoiceNumber("chennai", LocalDate.of(2025, 3, 31))).isEqualTo("CHN/2024-25/0001");
+        assertThat(invoiceSeriesService.nextInvoiceNumber("chennai", LocalDate.of(2025, 3, 31))).isEqualTo("CHN/2024-25/0002");
+        assertThat(invoiceSeriesService.nextInvoiceNumber("chennai", LocalDate.of(2025, 4, 1))).isEqualTo("CHN/2025-26/0001");
+        // A late invoice for the previous year continues that year's numbering
+        assertThat(invoiceSeriesService.nextInvoiceNumber("chennai", LocalDate.of(2025, 1, 15))).isEqualTo("CHN/2024-25/0003");
+    }
+
+    @Test
+    void previewDoesNotConsumeNumbers() {
+        createSeries("export", "EXP-", false);
+        LocalDate invoiceDate = LocalDate.of(2025, 6, 1);
+
+        InvoiceNumberPreviewDto preview = invoiceSeriesService.previewNextInvoiceNumber("export", invoiceDate);
+        assertThat(preview.getNextInvoiceNumber()).isEqualTo("EXP-0001");
+        assertThat(preview.getFinancialYear()).isNull();
+
+        invoiceSeriesService.nextInvoiceNumber("export", invoiceDate);
+        assertThat(invoiceSeriesService.previewNextInvoiceNumber("export", invoiceDate).getNextSequence()).isEqualTo(2L);
+        assertThat(invoiceSeriesService.previewNextInvoiceNumber("export", invoiceDate).getNextSequence()).isEqualTo(2L);
+        assertThat(invoiceSeriesService.nextInvoiceNumber("export", invoiceDate)).isEqualTo("EXP-0002");
+    }
+
+    @Test
+    void resettingSeriesNeedsFinancialYearInPrefix() {
+        assertThatThrownBy(() -> createSeries("main", "INV-", true))
+                .hasMessageContaining("{FY}");
+    }
+
+    private void createSeries(String code, String prefix, boolean resetEachFinancialYear) {
+        invoiceSeriesService.createSeries(CreateInvoiceSeriesRequestDto.builder()
+                .code(code)
+                .prefix(prefix)
+                .padding(4)
+                .resetEachFinancialYear(resetEachFinancialYear)
+                .build());
+    }
+}
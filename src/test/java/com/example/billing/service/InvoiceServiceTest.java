@@ -0,0 +1,181 @@
+package com.example.billing.service;
+
+import com.example.billing.EmbeddedPostgresInitializer;
+import com.example.billing.dto.invoice.CreateInvoiceBatchRequestDto;
+import com.example.billing.dto.invoice.CreateInvoiceRequestDto;
+import com.example.billing.dto.invoice.InvoiceBatchItemResultDto;
+import com.example.billing.dto.invoice.InvoiceBatchResponseDto;
+import com.example.billing.dto.invoice.InvoiceFilterDto;
+import com.example.billing.dto.invoice.InvoiceItemDto;
+import com.example.billing.dto.invoice.InvoicePageResponseDto;
+import com.example.billing.dto.invoice.InvoiceResponseDto;
+import com.example.billing.dto.invoice.InvoiceSummaryDto;
+import com.example.billing.entity.InvoiceDailyRollup;
+import com.example.billing.entity.Product;
+import com.example.billing.enums.InvoiceBatchItemStatus;
+import com.example.billing.mapper.InvoiceMapperImpl;
+import com.example.billing.mapper.InvoiceSeriesMapperImpl;
+import com.example.billing.repository.InvoiceDailyRollupRepository;
+import com.example.billing.repository.InvoiceRepository;
+import com.example.billing.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Creates a batch with valid and invalid invoices on an embedded PostgreSQL and checks the
+ * per-item results, the numbers taken per invoice date and the rollups, and pages through
+ * invoices with keyset cursors.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ContextConfiguration(initializers = EmbeddedPostgresInitializer.class)
+@Import({InvoiceService.class, InvoiceLineItemAssembler.class, InvoiceNumberService.class, InvoiceSeriesService.class, InvoiceCacheService.class,
+        RevenueRollupService.class, DateFilterResolver.class, InvoiceMapperImpl.class, InvoiceSeriesMapperImpl.class,
+        LocalValidatorFactoryBean.class})
+@TestPropertySource(properties = "spring.jpa.show-sql=false")
+class InvoiceServiceTest {
+    
+    @Autowired
+    private InvoiceService invoiceService;
+    
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+    
+    @Autowired
+    private ProductRepository productRepository;
+    
+    @Autowired
+    private InvoiceDailyRollupRepository rollupRepository;
+    
+    @Autowired
+    private RevenueRollupService revenueRollupService;
+    
+    @MockBean
+    private PdfCacheService pdfCacheService;
+    
+    @MockBean
+    private IdempotencyKeyService idempotencyKeyService;
+    
+    @Test
+    void batchCreatesValidInvoicesAndReportsInvalidOnes() {
+        Product product = productRepository.save(Product.builder().name("Engine Oil").build());
+        LocalDate april = LocalDate.of(2024, 4, 3);
+        LocalDate may = LocalDate.of(2024, 5, 20);
+        
+        CreateInvoiceRequestDto missingCustomer = request(may, catalogItem(product.getId()));
+        missingCustomer.setCustomerName(" ");
+        
+        InvoiceBatchResponseDto response = invoiceService.createInvoices(CreateInvoiceBatchRequestDto.builder()
+                .invoices(List.of(
+                        request(april, catalogItem(product.getId())),
+                        missingCustomer,
+                        request(may, customItem()),
+                        request(april, catalogItem(product.getId() + 1000)),
+                        request(april, customItem())))
+                .build());
+        
+        assertThat(response.getTotal()).isEqualTo(5);
+        assertThat(response.getCreated()).isEqualTo(3);
+        assertThat(response.getFailed()).isEqualTo(2);
+        // Numbers are taken per invoice date, in request order within a date
+        assertThat(response.getResults()).extracting(InvoiceBatchItemResultDto::getIndex, InvoiceBatchItemResultDto::getStatus,
+                        InvoiceBatchItemResultDto::getInvoiceNumber)
+                .containsExactly(
+                        tuple(0, InvoiceBatchItemStatus.CREATED, "000000000001"),
+                        tuple(1, InvoiceBatchItemStatus.FAILED, null),
+                        tuple(2, InvoiceBatchItemStatus.CREATED, "000000000003"),
+                        tuple(3, InvoiceBatchItemStatus.FAILED, null),
+                        tuple(4, InvoiceBatchItemStatus.CREATED, "000000000002"));
+        assertThat(response.getResults().get(1).getErrors()).containsEntry("customerName", "Customer name is required");
+        assertThat(response.getResults().get(3).getErrors())
+                .containsEntry("items[0].productId", "Product not found with id: " + (product.getId() + 1000));
+        
+        assertThat(invoiceRepository.count()).isEqualTo(3);
+        revenueRollupService.foldDeltas();
+        assertThat(rollupRepository.findAll()).extracting(InvoiceDailyRollup::getRollupDate,
+                        InvoiceDailyRollup::getInvoiceCount, rollup -> rollup.getTotalAmount().toPlainString())
+                .containsExactlyInAnyOrder(
+                        tuple(april, 2L, "1000.00"),
+                        tuple(may, 1L, "500.00"));
+    }
+    
+    @Test
+    void pagesWalkEveryInvoiceOnceNewestFirst() {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            ids.add(0, invoiceService.createInvoice(request(LocalDate.of(2024, 5, 1 + i), customItem())).getId());
+        }
+        
+        InvoicePageResponseDto first = invoiceService.getInvoicePage(new InvoiceFilterDto(), null, 2);
+        assertThat(first.getItems()).extracting(InvoiceResponseDto::getId).containsExactly(ids.get(0), ids.get(1));
+        // The cursor is the URL-safe, unpadded Base64 of the last id on the page
+        assertThat(new String(Base64.getUrlDecoder().decode(first.getNextCursor()), StandardCharsets.UTF_8))
+                .isEqualTo(ids.get(1).toString());
+        assertThat(first.getNextCursor()).doesNotContain("=", "+", "/");
+        
+        InvoicePageResponseDto second = invoiceService.getInvoicePage(new InvoiceFilterDto(), first.getNextCursor(), 2);
+        assertThat(second.getItems()).extracting(InvoiceResponseDto::getId).containsExactly(ids.get(2), ids.get(3));
+        
+        InvoicePageResponseDto last = invoiceService.getInvoicePage(new InvoiceFilterDto(), second.getNextCursor(), 2);
+        assertThat(last.getItems()).extracting(InvoiceResponseDto::getId).containsExactly(ids.get(4));
+        assertThat(last.getNextCursor()).isNull();
+        
+        // A page that ends exactly on the last invoice has no next cursor, rather than pointing at an empty page
+        assertThat(invoiceService.getInvoicePage(new InvoiceFilterDto(), second.getNextCursor(), 1).getNextCursor()).isNull();
+        assertThat(invoiceService.getInvoiceSummaryPage(new InvoiceFilterDto(), first.getNextCursor(), 3))
+                .satisfies(page -> {
+                    assertThat(page.getItems()).extracting(InvoiceSummaryDto::getId)
+                            .containsExactly(ids.get(2), ids.get(3), ids.get(4));
+                    assertThat(page.getNextCursor()).isNull();
+                });
+        
+        assertThatThrownBy(() -> invoiceService.getInvoicePage(new InvoiceFilterDto(), "not a cursor!", 2))
+                .hasMessage("Invalid cursor: not a cursor!");
+    }
+    
+    private CreateInvoiceRequestDto request(LocalDate invoiceDate, InvoiceItemDto item) {
+        return CreateInvoiceRequestDto.builder()
+                .customerName("Ravi Kumar")
+                .customerPhone("9876543210")
+                .invoiceDate(invoiceDate)
+                .dueDate(invoiceDate.plusDays(30))
+                .items(List.of(item))
+                .build();
+    }
+    
+    private InvoiceItemDto catalogItem(Long productId) {
+        return InvoiceItemDto.builder()
+                .productId(productId)
+                .productName("Engine Oil")
+                .quantity(2)
+                .unitPrice(new BigDecimal("250.00"))
+                .build();
+    }
+    
+    private InvoiceItemDto customItem() {
+        return InvoiceItemDto.builder()
+                .productName("Wheel Alignment")
+                .quantity(1)
+                .unitPrice(new BigDecimal("500.00"))
+                .isCustomProduct(true)
+                .build();
+    }
+}
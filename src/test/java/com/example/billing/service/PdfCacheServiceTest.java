@@ -0,0 +1,171 @@
+package com.example.billing.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks cache keys, atomic publishing of spool files, LRU eviction by size and eviction of
+ * stale copies in {@link PdfCacheService}, against a temporary upload directory.
+ */
+class PdfCacheServiceTest {
+    
+    // A third of the 1 MB limit, so the cache holds two entries
+    private static final int PDF_SIZE = 350 * 1024;
+    
+    @TempDir
+    private Path uploadDir;
+    
+    private PdfCacheService cache;
+    
+    @BeforeEach
+    void setUp() {
+        cache = new PdfCacheService();
+        ReflectionTestUtils.setField(cache, "uploadDir", uploadDir.toString());
+        ReflectionTestUtils.setField(cache, "enabled", true);
+        ReflectionTestUtils.setField(cache, "maxSizeMb", 1L);
+        cache.initialize();
+    }
+    
+    @Test
+    void keyChangesWithOutputVariantAndInvoiceOrOwnerVersion() {
+        String key = cache.cacheKey("html/COMPACT", 42L, 3L, 1L, 7L);
+        
+        assertThat(key).matches("[0-9a-f]{64}");
+        assertThat(cache.cacheKey("html/COMPACT", 42L, 3L, 1L, 7L)).isEqualTo(key);
+        assertThat(List.of(
+                cache.cacheKey("native/COMPACT", 42L, 3L, 1L, 7L),
+                cache.cacheKey("html/COMPATIBLE", 42L, 3L, 1L, 7L),
+                cache.cacheKey("html/COMPACT", 43L, 3L, 1L, 7L),
+                cache.cacheKey("html/COMPACT", 42L, 4L, 1L, 7L),
+                cache.cacheKey("html/COMPACT", 42L, 3L, 2L, 7L),
+                cache.cacheKey("html/COMPACT", 42L, 3L, 1L, 8L),
+                cache.cacheKey("html/COMPACT", 42L, 3L, null, null)))
+                .doesNotContain(key)
+                .doesNotHaveDuplicates();
+    }
+    
+    @Test
+    void spoolFileOnlyBecomesVisibleWhenPublished() throws IOException {
+        Path spoolFile = cache.createSpoolFile("a");
+        Files.write(spoolFile, pdf('a'));
+        
+        assertThat(cache.contains("a")).isFalse();
+        assertThat(cacheFiles()).singleElement().asString().endsWith(".tmp");
+        
+        cache.publish(1L, "a", spoolFile);
+        
+        assertThat(spoolFile).doesNotExist();
+        assertThat(cache.contains("a")).isTrue();
+        assertThat(cacheFiles()).containsExactly("a.pdf");
+        ByteArrayOutputStream copy = new ByteArrayOutputStream();
+        assertThat(cache.copyTo(1L, "a", copy)).isTrue();
+        assertThat(copy.toByteArray()).isEqualTo(pdf('a'));
+    }
+    
+    @Test
+    void disabledCacheSpoolsOutsideTheCacheAndPublishesNothing() throws IOException {
+        PdfCacheService disabled = new PdfCacheService();
+        ReflectionTestUtils.setField(disabled, "enabled", false);
+        disabled.initialize();
+        
+        Path spoolFile = disabled.createSpoolFile("a");
+        try {
+            disabled.publish(1L, "a", spoolFile);
+            
+            assertThat(spoolFile).exists();
+            assertThat(spoolFile.startsWith(uploadDir)).isFalse();
+            assertThat(disabled.contains("a")).isFalse();
+            assertThat(disabled.copyTo(1L, "a", OutputStream.nullOutputStream())).isFalse();
+        } finally {
+            Files.deleteIfExists(spoolFile);
+        }
+    }
+    
+    @Test
+    void evictsLeastRecentlyUsedEntryWhenFull() throws IOException {
+        store(1L, "a");
+        store(2L, "b");
+        // Reading a makes b the least recently used entry
+        assertThat(cache.copyTo(1L, "a", OutputStream.nullOutputStream())).isTrue();
+        store(3L, "c");
+        
+        assertThat(cache.contains("a")).isTrue();
+        assertThat(cache.contains("b")).isFalse();
+        assertThat(cache.contains("c")).isTrue();
+        assertThat(cacheFiles()).containsExactlyInAnyOrder("a.pdf", "c.pdf");
+        assertThat(cache.getStats()).containsEntry("evictions", 1L).containsEntry("sizeBytes", 2L * PDF_SIZE);
+    }
+    
+    @Test
+    void newVersionOfAnInvoiceReplacesTheOldCopy() throws IOException {
+        store(1L, "old");
+        store(1L, "new");
+        
+        assertThat(cache.contains("old")).isFalse();
+        assertThat(cacheFiles()).containsExactly("new.pdf");
+        assertThat(cache.getStats()).containsEntry("entries", 1).containsEntry("sizeBytes", (long) PDF_SIZE);
+    }
+    
+    @Test
+    void updatedInvoiceIsEvicted() throws IOException {
+        store(1L, "a");
+        store(2L, "b");
+        
+        cache.evictInvoice(1L);
+        
+        assertThat(cache.contains("a")).isFalse();
+        assertThat(cache.contains("b")).isTrue();
+        assertThat(cacheFiles()).containsExactly("b.pdf");
+    }
+    
+    @Test
+    void indexIsRebuiltFromFilesOfAPreviousRun() throws IOException {
+        store(1L, "a");
+        store(2L, "b");
+        
+        // A render that was cut short by the shutdown
+        Path leftover = cache.createSpoolFile("c");
+        
+        PdfCacheService restarted = new PdfCacheService();
+        ReflectionTestUtils.setField(restarted, "uploadDir", uploadDir.toString());
+        ReflectionTestUtils.setField(restarted, "enabled", true);
+        ReflectionTestUtils.setField(restarted, "maxSizeMb", 1L);
+        restarted.initialize();
+        
+        assertThat(restarted.contains("a")).isTrue();
+        assertThat(restarted.contains("b")).isTrue();
+        assertThat(restarted.getStats()).containsEntry("sizeBytes", 2L * PDF_SIZE);
+        assertThat(leftover).doesNotExist();
+    }
+    
+    private void store(Long invoiceId, String key) throws IOException {
+        Path spoolFile = cache.createSpoolFile(key);
+        Files.write(spoolFile, pdf(key.charAt(0)));
+        cache.publish(invoiceId, key, spoolFile);
+    }
+    
+    private List<String> cacheFiles() throws IOException {
+        try (Stream<Path> files = Files.list(uploadDir.resolve("pdf-cache"))) {
+            return files.map(path -> path.getFileName().toString()).toList();
+        }
+    }
+    
+    private static byte[] pdf(char fill) {
+        byte[] bytes = new byte[PDF_SIZE];
+        Arrays.fill(bytes, (byte) fill);
+        return bytes;
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.billing.service;
+
+import com.example.billing.EmbeddedPostgresInitializer;
+import com.example.billing.InvoiceSeeder;
+import com.example.billing.config.PdfExecutorConfig;
+import com.example.billing.dto.invoice.InvoiceFilterDto;
+import com.example.billing.dto.invoice.InvoiceResponseDto;
+import com.example.billing.entity.Invoice;
+import com.example.billing.enums.InvoiceStatus;
+import com.example.billing.mapper.InvoiceMapperImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Exports invoice PDFs from an embedded PostgreSQL into a ZIP with a stubbed renderer. The render
+ * tasks load invoices on worker threads, so the rows are committed rather than rolled back.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ContextConfiguration(initializers = EmbeddedPostgresInitializer.class)
+@Import({PdfExportService.class, DateFilterResolver.class, InvoiceMapperImpl.class, PdfExecutorConfig.class})
+@TestPropertySource(properties = "spring.jpa.show-sql=false")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class PdfExportServiceTest {
+    
+    // More than two pages of ids
+    private static final int INVOICES = 1_203;
+    
+    @Autowired
+    private PdfExportService pdfExportService;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @MockBean
+    private PdfService pdfService;
+    
+    @BeforeEach
+    void seedInvoices() {
+        jdbcTemplate.execute("TRUNCATE invoices");
+        InvoiceSeeder.seed(jdbcTemplate, INVOICES, n -> Invoice.builder()
+                .invoiceNumber("INV-" + n)
+                .customerName("Customer " + n)
+                .customerPhone("9876543210")
+                .invoiceDate(LocalDate.of(2024, 5, 10))
+                .dueDate(LocalDate.of(2024, 6, 10))
+                .status(n % 3 == 0 ? InvoiceStatus.UNPAID : InvoiceStatus.PAID)
+                .subtotalAmount(new BigDecimal("100.00"))
+                .totalAmount(new BigDecimal("100.00"))
+                .build());
+        when(pdfService.renderInvoicePdf(any()))
+                .thenAnswer(invocation -> ("%PDF " + invocation.getArgument(0, InvoiceResponseDto.class)
+                        .getInvoiceNumber()).getBytes(StandardCharsets.US_ASCII));
+    }
+    
+    @Test
+    void exportsEveryMatchingInvoicePageByPageWithoutTheCache() throws IOException {
+        Map<String, String> entries = export(pdfExportService.invoiceIds(
+                InvoiceFilterDto.builder().status(InvoiceStatus.PAID).build()));
+        
+        List<String> expected = new ArrayList<>();
+        for (int n = INVOICES; n >= 1; n--) {
+            if (n % 3 != 0) {
+                expected.add("invoice-INV-" + n + ".pdf");
+            }
+        }
+        assertThat(entries.keySet()).containsExactlyInAnyOrderElementsOf(expected);
+        assertThat(entries.get("invoice-INV-1202.pdf")).isEqualTo("%PDF INV-1202");
+        verify(pdfService, never()).writeInvoicePdf(any(), any());
+        verify(pdfService, never()).generateInvoicePdf(any());
+    }
+    
+    @Test
+    void idsArePagedNewestFirst() {
+        Iterator<Long> ids = pdfExportService.invoiceIds(InvoiceFilterDto.builder().build());
+        
+        List<Long> all = new ArrayList<>();
+        ids.forEachRemaining(all::add);
+        assertThat(all).hasSize(INVOICES).doesNotHaveDuplicates();
+        assertThat(all).isSortedAccordingTo((a, b) -> Long.compare(b, a));
+    }
+    
+    @Test
+    void missingInvoiceIsListedInTheErrorFile() throws IOException {
+        Long existing = jdbcTemplate.queryForObject("SELECT id FROM invoices WHERE invoice_number = 'INV-7'", Long.class);
+        
+        Map<String, String> entries = export(List.of(existing, -1L).iterator());
+        
+        assertThat(entries).containsOnlyKeys("invoice-INV-7.pdf", "export-errors.txt");
+        assertThat(entries.get("export-errors.txt")).isEqualTo("Invoice -1: not found");
+    }
+    
+    private Map<String, String> export(Iterator<Long> invoiceIds) throws IOException {
+        ByteArrayOutputStream zip = new ByteArrayOutputStream();
+        pdfExportService.writeZip(invoiceIds, zip);
+        
+        Map<String, String> entries = new LinkedHashMap<>();
+        try (ZipInputStream input = new ZipInputStream(new ByteArrayInputStream(zip.toByteArray()))) {
+            ZipEntry entry;
+            while ((entry = input.getNextEntry()) != null) {
+                entries.put(entry.getName(), new String(input.readAllBytes(), StandardCharsets.UTF_8));
+            }
+        }
+        return entries;
+    }
+}
@@ -0,0 +1,282 @@
+package com.example.billing.service;
+
+import com.example.billing.EmbeddedPostgresInitializer;
+import com.example.billing.InvoiceSeeder;
+import com.example.billing.config.PdfExecutorConfig;
+import com.example.billing.dto.invoice.InvoiceResponseDto;
+import com.example.billing.dto.pdfjob.CreatePdfJobRequestDto;
+import com.example.billing.dto.pdfjob.PdfJobResponseDto;
+import com.example.billing.entity.Invoice;
+import com.example.billing.entity.PdfJob;
+import com.example.billing.enums.InvoiceStatus;
+import com.example.billing.enums.PdfJobStatus;
+import com.example.billing.mapper.PdfJobMapperImpl;
+import com.example.billing.repository.PdfJobRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs PDF jobs against an embedded PostgreSQL on a one-thread pool with room for one queued job,
+ * with a stubbed renderer that can be held to keep the worker busy. Jobs are read by the worker
+ * thread, so rows are committed rather than rolled back.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ContextConfiguration(initializers = EmbeddedPostgresInitializer.class)
+@Import({PdfJobService.class, PdfJobMapperImpl.class, PdfExecutorConfig.class})
+@TestPropertySource(properties = {"spring.jpa.show-sql=false", "app.pdf.jobs.threads=1",
+        "app.pdf.jobs.queue-capacity=1", "app.pdf.jobs.retention=PT24H"})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class PdfJobServiceTest {
+    
+    private static final Duration WAIT = Duration.ofSeconds(10);
+    
+    @DynamicPropertySource
+    static void uploadDir(DynamicPropertyRegistry registry) throws IOException {
+        Path uploadDir = Files.createTempDirectory("pdf-job-test-");
+        registry.add("app.upload.dir", uploadDir::toString);
+    }
+    
+    @Autowired
+    private PdfJobService pdfJobService;
+    
+    @Autowired
+    private PdfJobRepository pdfJobRepository;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    @Qualifier("pdfJobExecutor")
+    private ThreadPoolExecutor pdfJobExecutor;
+    
+    @MockBean
+    private InvoiceService invoiceService;
+    
+    @MockBean
+    private PdfService pdfService;
+    
+    @MockBean
+    private PdfExportService pdfExportService;
+    
+    // Renders wait for this while it is held
+    private volatile CountDownLatch renderGate = new CountDownLatch(0);
+    
+    private List<Long> invoiceIds;
+    
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("TRUNCATE invoices, pdf_jobs");
+        InvoiceSeeder.seed(jdbcTemplate, 3, n -> Invoice.builder()
+                .invoiceNumber("INV-" + n)
+                .customerName("Customer " + n)
+                .customerPhone("9876543210")
+                .invoiceDate(LocalDate.of(2024, 5, 10))
+                .dueDate(LocalDate.of(2024, 6, 10))
+                .status(InvoiceStatus.UNPAID)
+                .subtotalAmount(new BigDecimal("100.00"))
+                .totalAmount(new BigDecimal("100.00"))
+                .build());
+        invoiceIds = jdbcTemplate.queryForList("SELECT id FROM invoices ORDER BY id", Long.class);
+        
+        when(invoiceService.getInvoiceById(anyLong())).thenAnswer(invocation -> InvoiceResponseDto.builder()
+                .id(invocation.getArgument(0))
+                .invoiceNumber("INV-" + invocation.getArgument(0))
+                .build());
+        doAnswer(invocation -> {
+            renderGate.await(WAIT.toSeconds(), TimeUnit.SECONDS);
+            InvoiceResponseDto invoice = invocation.getArgument(0);
+            invocation.getArgument(1, OutputStream.class).write(("%PDF " + invoice.getInvoiceNumber()).getBytes(StandardCharsets.US_ASCII));
+            return null;
+        }).when(pdfService).writeInvoicePdf(any(), any());
+    }
+    
+    @AfterEach
+    void releaseRenders() {
+        renderGate.countDown();
+    }
+    
+    @Test
+    void queuedJobRendersTheInvoice() throws Exception {
+        Long invoiceId = invoiceIds.get(0);
+        PdfJobResponseDto submitted = pdfJobService.submit(request(invoiceId));
+        
+        assertThat(submitted.getStatus()).isEqualTo(PdfJobStatus.QUEUED);
+        PdfJobResponseDto completed = awaitStatus(submitted.getId(), PdfJobStatus.COMPLETED);
+        assertThat(completed.getDownloadUrl()).isEqualTo("/api/pdf-jobs/" + submitted.getId() + "/download");
+        assertThat(completed.getResultFileName()).isEqualTo("invoice-INV-" + invoiceId + ".pdf");
+        assertThat(Files.readString(pdfJobService.getResultFile(submitted.getId()))).isEqualTo("%PDF INV-" + invoiceId);
+    }
+    
+    @Test
+    void fullQueueRejectsTheJobWithoutKeepingIt() throws Exception {
+        renderGate = new CountDownLatch(1);
+        PdfJobResponseDto running = pdfJobService.submit(request(invoiceIds.get(0)));
+        awaitStatus(running.getId(), PdfJobStatus.RUNNING);
+        PdfJobResponseDto queued = pdfJobService.submit(request(invoiceIds.get(1)));
+        
+        assertThatThrownBy(() -> pdfJobService.submit(request(invoiceIds.get(2))))
+                .isInstanceOf(RejectedExecutionException.class)
+                .hasMessage("PDF job queue is full, please retry later");
+        assertThat(pdfJobRepository.count()).isEqualTo(2);
+        assertThat(pdfJobService.getQueueStats()).containsEntry("active", 1).containsEntry("queued", 1);
+        
+        renderGate.countDown();
+        awaitStatus(running.getId(), PdfJobStatus.COMPLETED);
+        awaitStatus(queued.getId(), PdfJobStatus.COMPLETED);
+    }
+    
+    @Test
+    void unknownInvoicesAreRejectedAtSubmit() {
+        assertThatThrownBy(() -> pdfJobService.submit(request(invoiceIds.get(0), -5L, -6L)))
+                .hasMessage("Invoices not found with ids: [-5, -6]");
+        assertThat(pdfJobRepository.count()).isZero();
+    }
+    
+    @Test
+    void repeatedIdsAreRenderedOnce() throws Exception {
+        Long invoiceId = invoiceIds.get(0);
+        PdfJobResponseDto submitted = pdfJobService.submit(request(invoiceId, invoiceId));
+        
+        assertThat(submitted.getInvoiceIds()).containsExactly(invoiceId);
+        assertThat(awaitStatus(submitted.getId(), PdfJobStatus.COMPLETED).getResultFileName()).endsWith(".pdf");
+    }
+    
+    @Test
+    void unfinishedJobsAreResumedOnStartup() throws Exception {
+        PdfJob queued = pdfJobRepository.save(PdfJob.builder()
+                .status(PdfJobStatus.QUEUED)
+                .invoiceIds(List.of(invoiceIds.get(0)))
+                .build());
+        // Interrupted by the shutdown while rendering
+        PdfJob running = pdfJobRepository.save(PdfJob.builder()
+                .status(PdfJobStatus.RUNNING)
+                .invoiceIds(List.of(invoiceIds.get(1)))
+                .startedAt(LocalDateTime.now().minusMinutes(1))
+                .build());
+        
+        pdfJobService.resumeUnfinishedJobs();
+        
+        awaitStatus(queued.getId(), PdfJobStatus.COMPLETED);
+        awaitStatus(running.getId(), PdfJobStatus.COMPLETED);
+        assertThat(Files.readString(pdfJobService.getResultFile(running.getId()))).isEqualTo("%PDF INV-" + invoiceIds.get(1));
+    }
+    
+    @Test
+    void jobsThatDoNotFitTheQueueAfterRestartFail() throws Exception {
+        // Keep the only worker busy so the queue has room for exactly one job
+        renderGate = new CountDownLatch(1);
+        CountDownLatch gate = renderGate;
+        pdfJobExecutor.execute(() -> {
+            try {
+                gate.await(WAIT.toSeconds(), TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        long deadline = System.nanoTime() + WAIT.toNanos();
+        while (!pdfJobExecutor.getQueue().isEmpty() && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        List<PdfJob> jobs = invoiceIds.stream()
+                .map(id -> pdfJobRepository.save(PdfJob.builder()
+                        .status(PdfJobStatus.QUEUED)
+                        .invoiceIds(List.of(id))
+                        .build()))
+                .toList();
+        
+        pdfJobService.resumeUnfinishedJobs();
+        
+        // The first job waits in the queue, the others are turned away
+        for (PdfJob rejected : jobs.subList(1, jobs.size())) {
+            assertThat(pdfJobService.getJob(rejected.getId()).getErrorMessage())
+                    .isEqualTo("PDF job queue was full after restart, please resubmit");
+        }
+        renderGate.countDown();
+        awaitStatus(jobs.get(0).getId(), PdfJobStatus.COMPLETED);
+    }
+    
+    @Test
+    void expiredJobsAndResultFilesArePurged() throws Exception {
+        PdfJobResponseDto recent = pdfJobService.submit(request(invoiceIds.get(0)));
+        awaitStatus(recent.getId(), PdfJobStatus.COMPLETED);
+        Path recentFile = pdfJobService.getResultFile(recent.getId());
+        
+        PdfJobResponseDto old = pdfJobService.submit(request(invoiceIds.get(1)));
+        awaitStatus(old.getId(), PdfJobStatus.COMPLETED);
+        Path oldFile = pdfJobService.getResultFile(old.getId());
+        jdbcTemplate.update("UPDATE pdf_jobs SET completed_at = now() - interval '2 days' WHERE id = ?", old.getId());
+        Files.setLastModifiedTime(oldFile, FileTime.from(Instant.now().minus(Duration.ofDays(2))));
+        // Left behind by a crash while rendering
+        Path orphan = Files.createTempFile(oldFile.getParent(), "job-0-", ".tmp");
+        Files.setLastModifiedTime(orphan, FileTime.from(Instant.now().minus(Duration.ofDays(2))));
+        // Queued long ago but never finished
+        PdfJob unfinished = pdfJobRepository.save(PdfJob.builder()
+                .status(PdfJobStatus.QUEUED)
+                .invoiceIds(List.of(invoiceIds.get(2)))
+                .build());
+        jdbcTemplate.update("UPDATE pdf_jobs SET created_at = now() - interval '2 days' WHERE id = ?", unfinished.getId());
+        
+        pdfJobService.purgeExpired();
+        
+        assertThat(pdfJobRepository.findById(old.getId())).isEmpty();
+        assertThat(oldFile).doesNotExist();
+        assertThat(orphan).doesNotExist();
+        assertThat(pdfJobRepository.findById(recent.getId())).isPresent();
+        assertThat(recentFile).exists();
+        assertThat(pdfJobRepository.findById(unfinished.getId())).isPresent();
+    }
+    
+    private CreatePdfJobRequestDto request(Long... invoiceIds) {
+        return CreatePdfJobRequestDto.builder().invoiceIds(List.of(invoiceIds)).build();
+    }
+    
+    private PdfJobResponseDto awaitStatus(Long jobId, PdfJobStatus status) throws InterruptedException {
+        long deadline = System.nanoTime() + WAIT.toNanos();
+        PdfJobResponseDto job = pdfJobService.getJob(jobId);
+        while (job.getStatus() != status && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+            job = pdfJobService.getJob(jobId);
+        }
+        assertThat(job.getStatus()).as("status of PDF job %d", jobId).isEqualTo(status);
+        return job;
+    }
+}
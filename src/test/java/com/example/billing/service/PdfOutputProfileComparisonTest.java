@@ -0,0 +1,108 @@
+package com.example.billing.service;
+
+import com.example.billing.dto.invoice.InvoiceResponseDto;
+import com.example.billing.dto.owner.OwnerResponseDto;
+import com.itextpdf.kernel.pdf.PdfDictionary;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfObject;
+import com.itextpdf.kernel.pdf.PdfReader;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Renders a sample set of invoices in the compact and compatible output profiles and checks
+ * what the compact profile promises: valid PDFs, subset fonts and smaller files. Render times
+ * are measured by {@code PdfRenderingBenchmark}.
+ */
+class PdfOutputProfileComparisonTest {
+    
+    private static final List<Integer> LINE_ITEM_COUNTS = List.of(1, 10, 50, 200);
+    private static final List<String> RENDERERS = List.of(HtmlInvoicePdfRenderer.NAME, NativeInvoicePdfRenderer.NAME);
+    
+    private static OwnerResponseDto owner;
+    private static PdfRenderingEngine compatible;
+    private static PdfRenderingEngine compact;
+    
+    @BeforeAll
+    static void setUp() throws Exception {
+        owner = InvoicePdfTestData.owner();
+        owner.setSignatureBase64(InvoicePdfTestData.signatureBase64());
+        
+        // System fonts so that embedded fonts contribute to the size
+        compatible = InvoicePdfTestData.renderingEngine(true, "compatible");
+        compact = InvoicePdfTestData.renderingEngine(true, "compact");
+    }
+    
+    @Test
+    void compactProfileProducesSmallerFiles() throws Exception {
+        for (String rendererName : RENDERERS) {
+            long compatibleBytes = totalBytes(renderer(rendererName, compatible));
+            long compactBytes = totalBytes(renderer(rendererName, compact));
+            
+            assertThat(compactBytes).as(rendererName + " renderer").isLessThan(compatibleBytes);
+        }
+    }
+    
+    @Test
+    void compactProfileProducesValidPdfsWithSubsetFonts() throws Exception {
+        for (String rendererName : RENDERERS) {
+            InvoicePdfRenderer renderer = renderer(rendererName, compact);
+            for (int lineItems : LINE_ITEM_COUNTS) {
+                List<String> fontNames = embeddedFontNames(render(renderer, InvoicePdfTestData.invoice(lineItems)));
+                
+                // Subset fonts carry a six-letter tag in front of their name, e.g. ABCDEF+DejaVuSans
+                assertThat(fontNames).as(rendererName + " renderer, " + lineItems + " line items")
+                        .isNotEmpty()
+                        .allMatch(name -> name.matches("[A-Z]{6}\\+.+"));
+            }
+        }
+    }
+    
+    private InvoicePdfRenderer renderer(String name, PdfRenderingEngine engine) {
+        BrandingAssetCache brandingAssetCache = new BrandingAssetCache();
+        if (HtmlInvoicePdfRenderer.NAME.equals(name)) {
+            return new HtmlInvoicePdfRenderer(InvoicePdfTestData.templateEngine(), engine, brandingAssetCache);
+        }
+        return new NativeInvoicePdfRenderer(engine, brandingAssetCache);
+    }
+    
+    private long totalBytes(InvoicePdfRenderer renderer) throws Exception {
+        long bytes = 0;
+        for (int lineItems : LINE_ITEM_COUNTS) {
+            bytes += render(renderer, InvoicePdfTestData.invoice(lineItems)).length;
+        }
+        return bytes;
+    }
+    
+    private byte[] render(InvoicePdfRenderer renderer, InvoiceResponseDto invoice) throws Exception {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        renderer.render(invoice, owner, outputStream);
+        return outputStream.toByteArray();
+    }
+    
+    // Parses the document and returns the names of all fonts with an embedded font program
+    private List<String> embeddedFontNames(byte[] pdf) throws Exception {
+        List<String> names = new ArrayList<>();
+        try (PdfDocument document = new PdfDocument(new PdfReader(new ByteArrayInputStream(pdf)))) {
+            assertThat(document.getNumberOfPages()).isPositive();
+            for (int number = 1; number < document.getNumberOfPdfObjects(); number++) {
+                PdfObject object = document.getPdfObject(number);
+                if (object instanceof PdfDictionary dictionary
+                        && PdfName.FontDescriptor.equals(dictionary.getAsName(PdfName.Type))
+                        && (dictionary.containsKey(PdfName.FontFile) || dictionary.containsKey(PdfName.FontFile2)
+                        || dictionary.containsKey(PdfName.FontFile3))) {
+                    names.add(dictionary.getAsName(PdfName.FontName).getValue());
+                }
+            }
+        }
+        return names;
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.billing.service;
+
+import com.example.billing.dto.invoice.InvoiceResponseDto;
+import com.example.billing.dto.owner.OwnerResponseDto;
+import com.example.billing.repository.EntityVersion;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Writes invoice PDFs through {@link PdfService} with a stub renderer and a real PDF cache, to check
+ * that nothing reaches the caller's stream until a render has completed.
+ */
+class PdfServiceTest {
+    
+    // Well past the servlet response buffer, so a streaming render would have committed the response
+    private static final int PDF_SIZE = 64 * 1024;
+    
+    @TempDir
+    private Path uploadDir;
+    
+    private PdfService pdfService;
+    private OwnerService ownerService;
+    private AtomicInteger renders;
+    private boolean failHalfway;
+    
+    @BeforeEach
+    void setUp() {
+        PdfCacheService pdfCacheService = new PdfCacheService();
+        ReflectionTestUtils.setField(pdfCacheService, "uploadDir", uploadDir.toString());
+        ReflectionTestUtils.setField(pdfCacheService, "enabled", true);
+        ReflectionTestUtils.setField(pdfCacheService, "maxSizeMb", 1L);
+        pdfCacheService.initialize();
+        
+        PdfRenderingEngine engine = Mockito.mock(PdfRenderingEngine.class);
+        when(engine.getOutputProfile()).thenReturn(PdfRenderingEngine.OutputProfile.COMPACT);
+        ownerService = Mockito.mock(OwnerService.class);
+        when(ownerService.getActiveOwnerVersion()).thenReturn(Optional.of(ownerVersion(1L, 0L)));
+        when(ownerService.getActiveOwner()).thenReturn(OwnerResponseDto.builder().id(1L).version(0L).build());
+        
+        renders = new AtomicInteger();
+        pdfService = new PdfService(ownerService, pdfCacheService, engine, List.of(new StubRenderer()));
+        ReflectionTestUtils.setField(pdfService, "rendererName", "stub");
+        pdfService.initialize();
+    }
+    
+    @Test
+    void renderFailingPartwayWritesNothingToTheCaller() throws IOException {
+        failHalfway = true;
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        
+        assertThatThrownBy(() -> pdfService.writeInvoicePdf(invoice(), outputStream))
+                .hasMessageContaining("layout failed");
+        
+        assertThat(outputStream.size()).isZero();
+        assertThat(cacheFiles()).isEmpty();
+    }
+    
+    @Test
+    void completedRenderIsWrittenAndServedFromTheCacheAfterwards() throws IOException {
+        ByteArrayOutputStream first = new ByteArrayOutputStream();
+        ByteArrayOutputStream second = new ByteArrayOutputStream();
+        
+        pdfService.writeInvoicePdf(invoice(), first);
+        pdfService.writeInvoicePdf(invoice(), second);
+        
+        assertThat(first.toByteArray()).isEqualTo(pdf()).isEqualTo(second.toByteArray());
+        assertThat(renders).hasValue(1);
+        assertThat(cacheFiles()).singleElement().asString().endsWith(".pdf");
+        // The hit only read the owner's version, not the owner and its branding
+        verify(ownerService, times(1)).getActiveOwner();
+    }
+    
+    @Test
+    void newInvoiceOrOwnerVersionIsRenderedAgain() {
+        pdfService.generateInvoicePdf(invoice());
+        
+        pdfService.generateInvoicePdf(InvoiceResponseDto.builder().id(1L).version(1L).invoiceNumber("INV-1").build());
+        when(ownerService.getActiveOwnerVersion()).thenReturn(Optional.of(ownerVersion(1L, 1L)));
+        when(ownerService.getActiveOwner()).thenReturn(OwnerResponseDto.builder().id(1L).version(1L).build());
+        pdfService.generateInvoicePdf(invoice());
+        
+        assertThat(renders).hasValue(3);
+    }
+    
+    @Test
+    void prerenderedPdfIsServedWithoutRenderingAgain() throws IOException {
+        pdfService.prerenderInvoicePdf(invoice());
+        pdfService.prerenderInvoicePdf(invoice());
+        
+        assertThat(pdfService.generateInvoicePdf(invoice())).isEqualTo(pdf());
+        assertThat(renders).hasValue(1);
+    }
+    
+    private List<String> cacheFiles() throws IOException {
+        try (Stream<Path> files = Files.list(uploadDir.resolve("pdf-cache"))) {
+            return files.map(path -> path.getFileName().toString()).toList();
+        }
+    }
+    
+    private static InvoiceResponseDto invoice() {
+        return InvoiceResponseDto.builder().id(1L).version(0L).invoiceNumber("INV-1").build();
+    }
+    
+    private static EntityVersion ownerVersion(Long id, Long version) {
+        return new EntityVersion() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+            
+            @Override
+            public Long getVersion() {
+                return version;
+            }
+        };
+    }
+    
+    private static byte[] pdf() {
+        byte[] bytes = new byte[PDF_SIZE];
+        Arrays.fill(bytes, (byte) 'p');
+        return bytes;
+    }
+    
+    private class StubRenderer implements InvoicePdfRenderer {
+        
+        @Override
+        public String getName() {
+            return "stub";
+        }
+        
+        @Override
+        public void render(InvoiceResponseDto invoice, OwnerResponseDto owner, OutputStream outputStream) throws IOException {
+            renders.incrementAndGet();
+            byte[] pdf = pdf();
+            if (failHalfway) {
+                outputStream.write(pdf, 0, PDF_SIZE / 2);
+                throw new IOException("layout failed on page 2");
+            }
+            outputStream.write(pdf);
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.example.billing.service;
+
+import com.example.billing.EmbeddedPostgresInitializer;
+import com.example.billing.dto.report.RevenueReportRowDto;
+import com.example.billing.entity.Invoice;
+import com.example.billing.entity.InvoiceDailyRollup;
+import com.example.billing.enums.InvoiceStatus;
+import com.example.billing.repository.InvoiceDailyRollupRepository;
+import com.example.billing.repository.InvoiceRepository;
+import com.example.billing.repository.InvoiceRollupDeltaRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Applies invoice changes through {@link RevenueRollupService} on an embedded PostgreSQL and
+ * checks that the incrementally maintained rollups match a rebuild from the invoices table, and
+ * that concurrent changes to the same day don't lock each other out.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ContextConfiguration(initializers = EmbeddedPostgresInitializer.class)
+@Import({RevenueRollupService.class, DateFilterResolver.class})
+@TestPropertySource(properties = "spring.jpa.show-sql=false")
+class RevenueRollupServiceTest {
+    
+    @Autowired
+    private RevenueRollupService revenueRollupService;
+    
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+    
+    @Autowired
+    private InvoiceDailyRollupRepository rollupRepository;
+    
+    @Autowired
+    private InvoiceRollupDeltaRepository deltaRepository;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Test
+    void incrementalChangesMatchRebuild() {
+        create("INV-1", LocalDate.of(2024, 4, 3), "1000.00");
+        Invoice second = create("INV-2", LocalDate.of(2024, 4, 3), "250.00");
+        Invoice third = create("INV-3", LocalDate.of(2024, 5, 20), "400.00");
+        
+        // Paid and moved to another month
+        RevenueRollupService.Contribution before = RevenueRollupService.Contribution.of(second);
+        second.setStatus(InvoiceStatus.PAID);
+        second.setInvoiceDate(LocalDate.of(2024, 5, 2));
+        invoiceRepository.save(second);
+        revenueRollupService.applyChange(before, RevenueRollupService.Contribution.of(second));
+        
+        invoiceRepository.delete(third);
+        revenueRollupService.applyChange(RevenueRollupService.Contribution.of(third), null);
+        
+        // Reports include deltas that are not folded in yet
+        assertThat(rollupRepository.count()).isZero();
+        List<RevenueReportRowDto> incremental = report();
+        assertThat(incremental).extracting(RevenueReportRowDto::getPeriod, RevenueReportRowDto::getStatus,
+                        RevenueReportRowDto::getCount, row -> row.getTotalAmount().toPlainString())
+                .containsExactly(
+                        tuple(LocalDate.of(2024, 4, 1), InvoiceStatus.UNPAID, 1L, "1180.00"),
+                        tuple(LocalDate.of(2024, 5, 1), InvoiceStatus.PAID, 1L, "295.00"));
+        
+        revenueRollupService.foldDeltas();
+        assertThat(deltaRepository.count()).isZero();
+        // Emptied day rows are removed rather than left at zero
+        assertThat(rollupRepository.count()).isEqualTo(2);
+        assertThat(report()).isEqualTo(incremental);
+        
+        revenueRollupService.rebuild();
+        assertThat(report()).isEqualTo(incremental);
+    }
+    
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void writersOfTheSameDayDoNotWaitForEachOther() throws Exception {
+        RevenueRollupService.Contribution contribution = new RevenueRollupService.Contribution(LocalDate.of(2024, 6, 14),
+                InvoiceStatus.UNPAID, new BigDecimal("100.00"), BigDecimal.ZERO, BigDecimal.ZERO, new BigDecimal("100.00"));
+        CountDownLatch applied = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService writer = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> first = writer.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+                revenueRollupService.applyChange(null, contribution);
+                applied.countDown();
+                await(release);
+            }));
+            assertThat(applied.await(10, TimeUnit.SECONDS)).isTrue();
+            
+            // The first transaction is still open; a change to the same day must not wait for it
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.execute("SET LOCAL lock_timeout = '2s'");
+                revenueRollupService.applyChange(null, contribution);
+            });
+            release.countDown();
+            first.get();
+            
+            revenueRollupService.foldDeltas();
+            assertThat(rollupRepository.findAll()).extracting(InvoiceDailyRollup::getInvoiceCount).containsExactly(2L);
+        } finally {
+            release.countDown();
+            writer.shutdown();
+            jdbcTemplate.execute("TRUNCATE invoice_daily_rollups, invoice_rollup_deltas");
+        }
+    }
+    
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private List<RevenueReportRowDto> report() {
+        return revenueRollupService.getRevenueReport(null, LocalDate.of(2024, 4, 1), LocalDate.of(2025, 3, 31), null, "month")
+                .getRows();
+    }
+    
+    private Invoice create(String number, LocalDate invoiceDate, String subtotal) {
+        BigDecimal subtotalAmount = new BigDecimal(subtotal);
+        BigDecimal gst = subtotalAmount.multiply(new BigDecimal("0.09"));
+        Invoice invoice = invoiceRepository.save(Invoice.builder()
+                .invoiceNumber(number)
+                .customerName("Ravi Kumar")
+                .customerPhone("9876543210")
+                .invoiceDate(invoiceDate)
+                .dueDate(invoiceDate.plusDays(30))
+                .status(InvoiceStatus.UNPAID)
+                .subtotalAmount(subtotalAmount)
+                .gstApplicable(true)
+                .cgstAmount(gst)
+                .sgstAmount(gst)
+                .totalGstAmount(gst.add(gst))
+                .totalAmount(subtotalAmount.add(gst).add(gst))
+                .lineItems(List.of())
+                .build());
+        revenueRollupService.applyChange(null, RevenueRollupService.Contribution.of(invoice));
+        return invoice;
+    }
+}